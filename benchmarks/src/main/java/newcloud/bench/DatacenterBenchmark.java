@@ -0,0 +1,61 @@
+package newcloud.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-placement state and reward computation, and the per-tick energy loop,
+ * of the RL datacenters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatacenterBenchmark {
+
+    @Param({"300", "3000", "30000"})
+    public int hostCount;
+
+    private Fixtures.Loaded fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = Fixtures.loaded(hostCount);
+        // Fill the power history so that the reward has something to read
+        fixture.datacenter.tick();
+    }
+
+    @Benchmark
+    public String computeFeatureState() {
+        return fixture.datacenter.featureState();
+    }
+
+    @Benchmark
+    public int encodeState() {
+        return fixture.datacenter.state();
+    }
+
+    @Benchmark
+    public double computeStableReward() {
+        return fixture.datacenter.reward();
+    }
+
+    @Benchmark
+    public double energyTick() {
+        return fixture.datacenter.tick();
+    }
+}
@@ -0,0 +1,113 @@
+package newcloud.bench;
+
+import newcloud.NewPowerAllocatePolicy;
+import newcloud.datacenter.PowerDatacenterRL;
+import newcloud.newHelper;
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelNull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerHost;
+
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Shared benchmark fixtures: a datacenter of a given size with about two VMs
+ * placed per three hosts, each running a cloudlet at a fixed random load.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /** A loaded datacenter and its parts. */
+    static final class Loaded {
+        final List<PowerHost> hosts;
+        final NewPowerAllocatePolicy policy;
+        final BenchDatacenter datacenter;
+
+        Loaded(List<PowerHost> hosts, NewPowerAllocatePolicy policy, BenchDatacenter datacenter) {
+            this.hosts = hosts;
+            this.policy = policy;
+            this.datacenter = datacenter;
+        }
+    }
+
+    /** VMs spread over the standard VM types. */
+    static List<Vm> vms(int count) {
+        return newHelper.createVmList(0, count);
+    }
+
+    static Loaded loaded(int hostCount) throws Exception {
+        Log.disable();
+        CloudSim.init(1, Calendar.getInstance(), false);
+        List<PowerHost> hosts = newHelper.createHostList(hostCount);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(hosts);
+        DatacenterCharacteristics characteristics = new DatacenterCharacteristics(
+                "x86", "Linux", "Xen", hosts, 10.0, 3.0, 0.05, 0.001, 0.0);
+        BenchDatacenter datacenter = new BenchDatacenter(characteristics, policy);
+
+        Random random = new Random(7);
+        List<Vm> vms = newHelper.createVmList(0, hostCount * 2 / 3);
+        for (Vm vm : vms) {
+            PowerHost host = hosts.get(random.nextInt(hosts.size()));
+            if (!policy.allocateHostForVm(vm, host) && !policy.allocateHostForVm(vm)) {
+                continue;
+            }
+            datacenter.getVmList().add(vm);
+            final double load = 0.2 + 0.8 * random.nextDouble();
+            UtilizationModel cpu = time -> load;
+            Cloudlet cloudlet = new Cloudlet(vm.getId(), Long.MAX_VALUE / 4, 1, 300, 300,
+                    cpu, new UtilizationModelNull(), new UtilizationModelNull());
+            cloudlet.setVmId(vm.getId());
+            vm.getCloudletScheduler().cloudletSubmit(cloudlet);
+        }
+        policy.refreshCapacityIndex();
+        return new Loaded(hosts, policy, datacenter);
+    }
+
+    /**
+     * A PowerDatacenterRL with no learning, exposing the hot paths the
+     * benchmarks measure.
+     */
+    static final class BenchDatacenter extends PowerDatacenterRL {
+
+        BenchDatacenter(DatacenterCharacteristics characteristics, NewPowerAllocatePolicy policy) throws Exception {
+            super("Datacenter", characteristics, policy, new LinkedList<Storage>(), 300, -1);
+        }
+
+        @Override
+        protected int selectHostForVm(Vm vm) {
+            return 0;
+        }
+
+        @Override
+        protected void computeRewardAndUpdate(Vm vm) {
+        }
+
+        String featureState() {
+            return computeFeatureState();
+        }
+
+        int state() {
+            return encodeState();
+        }
+
+        double reward() {
+            return computeStableReward();
+        }
+
+        /** One processing tick over a 300 s interval. */
+        double tick() {
+            setLastProcessTime(CloudSim.clock() - 300);
+            return updateCloudletProcessingWithoutSchedulingFutureEventsForce();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package newcloud.bench;
+
+import newcloud.GenExcel;
+import newcloud.StateCodec;
+import newcloud.policy.VmAllocationAssignerLearning;
+import newcloud.policy.VmAllocationAssignerLearningLamda;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static newcloud.Constants.NUMBER_OF_HOSTS;
+
+/**
+ * Action selection and Q-table updates of the tabular assigners.
+ * <p>
+ * The assigners size their tables by Constants.NUMBER_OF_HOSTS, so the
+ * action count is fixed here; the table is pre-filled with
+ * {@code stateCount} states and every operation works on a state drawn from
+ * them.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LearningBenchmark {
+
+    /** Distinct states in the table, at most StateCodec.STATE_COUNT. */
+    @Param({"10", "100", "1000"})
+    public int stateCount;
+
+    private VmAllocationAssignerLearning learning;
+    private VmAllocationAssignerLearningLamda lamda;
+
+    /** Pre-drawn (state, next state, action) triples, cycled through. */
+    private int[] states;
+    private int[] nextStates;
+    private int[] actions;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        learning = new VmAllocationAssignerLearning(0.9, 0.8, 0.1, GenExcel.getInstance());
+        lamda = new VmAllocationAssignerLearningLamda(0.9, 0.8, 0.1, 0.9, GenExcel.getInstance());
+        VmAllocationAssignerLearning.QList.clear();
+        VmAllocationAssignerLearningLamda.QList.clear();
+        VmAllocationAssignerLearningLamda.EList.clear();
+
+        int count = Math.min(stateCount, StateCodec.STATE_COUNT);
+        Random random = new Random(42);
+        for (int code = 0; code < count; code++) {
+            int row = VmAllocationAssignerLearning.QList.rowForCode(code);
+            int lamdaRow = VmAllocationAssignerLearningLamda.QList.rowForCode(code);
+            for (int a = 0; a < NUMBER_OF_HOSTS; a++) {
+                double value = -random.nextDouble();
+                VmAllocationAssignerLearning.QList.set(row, a, value);
+                VmAllocationAssignerLearningLamda.QList.set(lamdaRow, a, value);
+            }
+        }
+
+        states = new int[1024];
+        nextStates = new int[1024];
+        actions = new int[1024];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = random.nextInt(count);
+            nextStates[i] = random.nextInt(count);
+            actions[i] = random.nextInt(NUMBER_OF_HOSTS);
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (states.length - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public int createAction() {
+        return learning.createAction(states[next()]);
+    }
+
+    @Benchmark
+    public void updateQList() {
+        int i = next();
+        learning.updateQList(actions[i], -0.5, states[i], nextStates[i]);
+    }
+
+    @Benchmark
+    public void updateQListLambda() {
+        int i = next();
+        lamda.updateQList(actions[i], -0.5, states[i], nextStates[i]);
+    }
+}
@@ -0,0 +1,54 @@
+package newcloud.bench;
+
+import newcloud.GenExcel;
+import newcloud.policy.VmAllocationAssignerGready;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Greedy host selection over a partly loaded host list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlacementBenchmark {
+
+    @Param({"300", "3000", "30000"})
+    public int hostCount;
+
+    private Fixtures.Loaded fixture;
+    private VmAllocationAssignerGready greedy;
+    private List<Vm> candidates;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = Fixtures.loaded(hostCount);
+        greedy = new VmAllocationAssignerGready(fixture.policy, GenExcel.getInstance());
+        candidates = Fixtures.vms(64);
+    }
+
+    @Benchmark
+    public Host greedyGetVmAllocationHost() {
+        cursor = (cursor + 1) % candidates.size();
+        return greedy.getVmAllocationHost(fixture.hosts, candidates.get(cursor));
+    }
+}
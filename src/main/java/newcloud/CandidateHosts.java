@@ -0,0 +1,111 @@
+package newcloud;
+
+import newcloud.policy.HostFeatures;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+
+/**
+ * Candidate generation for the RL placement policies.
+ * <p>
+ * Instead of choosing among every host, most of which cannot take the VM
+ * and send the placement to the first-fit fallback, a policy chooses among
+ * up to K hosts that fit it, found through a {@link HostCapacityIndex}
+ * whose hosts are bucketed by {@link #bucketOf(Host)}: host type times
+ * utilization band. Buckets are visited round-robin, each yielding its
+ * next fitting host in host list order, so the candidates cover every kind
+ * of host that can take the VM (an idle host of each type as well as busy
+ * ones) rather than K hosts of the same kind. Each selection starts the
+ * round at the bucket after the one the previous selection started at, so
+ * when K is smaller than the number of buckets that fit, every bucket is
+ * still offered over successive placements. Each candidate is one index
+ * search, so a selection costs about O(K log N) instead of O(N).
+ * </p>
+ */
+public class CandidateHosts {
+
+    /** Utilization bands: idle (no VMs), below 50%, below 80%, the rest. */
+    public static final int BANDS = 4;
+
+    /** Host types plus one bucket row for hosts of unknown type. */
+    public static final int BUCKETS = (Constants.HOST_TYPES.length + 1) * BANDS;
+
+    private final HostCapacityIndex index;
+
+    /** Next position to search from in each bucket, or -1 once exhausted. */
+    private final int[] cursors = new int[BUCKETS];
+
+    /** Bucket the next selection starts its round at, if it has hosts. */
+    private int firstBucket;
+
+    /**
+     * @param index a capacity index built with {@link #bucketOf(Host)} as
+     *              its classifier
+     */
+    public CandidateHosts(HostCapacityIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Bucket of a host: its type in Constants.HOST_TYPES and its band of
+     * allocated CPU.
+     */
+    public static int bucketOf(Host host) {
+        int type = host instanceof PowerHost ? HostFeatures.hostType((PowerHost) host) : -1;
+        if (type < 0) {
+            type = Constants.HOST_TYPES.length;
+        }
+        return type * BANDS + band(host);
+    }
+
+    static int band(Host host) {
+        if (host.getVmList().isEmpty()) {
+            return 0;
+        }
+        double allocated = 1 - host.getVmScheduler().getAvailableMips() / host.getTotalMips();
+        return allocated < 0.5 ? 1 : allocated < 0.8 ? 2 : 3;
+    }
+
+    /**
+     * Find up to candidates.length hosts that fit a VM.
+     *
+     * @param vm         the VM to place
+     * @param candidates filled with the positions of the candidate hosts
+     * @return the number of candidates, 0 if no host fits
+     */
+    public int select(Vm vm, int[] candidates) {
+        int present = index.getBucketMask();
+        if (present == 0) {
+            return 0;
+        }
+        for (int b = 0; b < BUCKETS; b++) {
+            cursors[b] = (present & (1 << b)) != 0 ? 0 : -1;
+        }
+        int first = firstBucket;
+        while (cursors[first] < 0) {
+            first = (first + 1) % BUCKETS;
+        }
+        firstBucket = (first + 1) % BUCKETS;
+
+        int count = 0;
+        boolean found = true;
+        while (found && count < candidates.length) {
+            found = false;
+            for (int i = 0; i < BUCKETS && count < candidates.length; i++) {
+                int b = (first + i) % BUCKETS;
+                if (cursors[b] < 0) {
+                    continue;
+                }
+                int position = index.nextFit(cursors[b], vm, b);
+                if (position < 0) {
+                    cursors[b] = -1;
+                    continue;
+                }
+                candidates[count++] = position;
+                cursors[b] = position + 1;
+                found = true;
+            }
+        }
+        return count;
+    }
+}
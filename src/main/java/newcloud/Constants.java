@@ -18,8 +18,12 @@ public class Constants {
 
     // --- Simulation control ---
 
-    /** Whether to enable CloudSim log output. */
-    public static final boolean ENABLE_OUTPUT = true;
+    /**
+     * Whether CloudSim's own log output is enabled: at log level DEBUG and
+     * above (see {@link SimLog}, set via the system property
+     * "cloudsim.log.level").
+     */
+    public static final boolean ENABLE_OUTPUT = SimLog.isEnabled(SimLog.Level.DEBUG);
 
     /** Whether to output results in CSV format. */
     public static final boolean OUTPUT_CSV = false;
@@ -99,13 +103,39 @@ public class Constants {
     /** Event tag for simulation restart (next iteration). */
     public static final int CLOUDSIM_RESTART = 102;
 
+    /**
+     * Event tag for a batched VM creation request (see VM_CREATION_BATCH_SIZE).
+     * The batch size changes results: a batch is placed within one event, so
+     * there are fewer processing ticks than with one VM per request, and the
+     * energy of the hosts, accounted from tick to tick, comes out different.
+     * Compare runs made with the same batch size only.
+     */
+    public static final int CREATE_VM_BATCH = 103;
+
+    /** Event tag for a batched VM creation acknowledgment. */
+    public static final int CREATE_VM_BATCH_ACK = 104;
+
     // --- Experiment parameters ---
 
-    /** Number of RL training iterations. */
-    public static final int Iteration = 100;
+    /**
+     * Number of RL training iterations. Can be overridden via the system
+     * property "cloudsim.iterations".
+     */
+    public static final int Iteration = Integer.getInteger("cloudsim.iterations", 100);
 
-    /** Number of physical hosts in the data center. */
-    public static final int NUMBER_OF_HOSTS = 300;
+    /**
+     * Seed for the placement policies' random choices, or null for
+     * unseeded runs. Set via the system property "cloudsim.seed"; see
+     * {@link RandomSource}.
+     */
+    public static final Long RANDOM_SEED = Long.getLong("cloudsim.seed");
+
+    /**
+     * Number of physical hosts in the data center. Set via the system
+     * property "cloudsim.hosts"; Q-tables are sized by it, while a linear
+     * Q-function trained at one size can be evaluated at any other.
+     */
+    public static final int NUMBER_OF_HOSTS = Integer.getInteger("cloudsim.hosts", 300);
 
     /** Time (in simulation seconds) at which to terminate the simulation. */
     public static final int terminateTime = 700;
@@ -113,16 +143,126 @@ public class Constants {
     /** Time (in simulation seconds) after which to start recording power data. */
     public static final int outputTime = 600;
 
+    /**
+     * Number of VMs the broker sends per placement round. With 1 (the
+     * default) each VM is sent on its own and the broker restarts after every
+     * placement. Larger batches are placed, and their cloudlets submitted, one
+     * VM at a time within a single event at the same simulation instant, so
+     * the VMs of a batch see the same energy snapshot in their rewards.
+     * Can be overridden via the system property "cloudsim.vm.batch".
+     */
+    public static final int VM_CREATION_BATCH_SIZE = Integer.getInteger("cloudsim.vm.batch", 1);
+
+    /**
+     * Number of candidate hosts the RL policies choose among (see
+     * CandidateHosts), or 0 (the default) to choose among all hosts.
+     * Can be overridden via the system property "cloudsim.candidates".
+     */
+    public static final int CANDIDATE_HOSTS = Integer.getInteger("cloudsim.candidates", 0);
+
     /**
      * Input folder for PlanetLab workload traces.
      * Uses a relative path resolved from the project root directory.
-     * Can be overridden via the system property "cloudsim.input.folder".
+     * Can be overridden via the system property "cloudsim.input.folder", which
+     * may also name a trace pack written by PlanetLabTracePack.
      */
     public static String inputFolder = System.getProperty(
             "cloudsim.input.folder",
             "src/main/resources/datas/200"
     );
 
+    // --- RL parameters ---
+
+    /**
+     * Discount factor of the RL harnesses. Can be overridden via the system
+     * property "cloudsim.rl.gamma".
+     */
+    public static final double RL_GAMMA = Double.parseDouble(System.getProperty("cloudsim.rl.gamma", "0.9"));
+
+    /**
+     * Learning rate of the RL harnesses. Can be overridden via the system
+     * property "cloudsim.rl.alpha".
+     */
+    public static final double RL_ALPHA = Double.parseDouble(System.getProperty("cloudsim.rl.alpha", "0.8"));
+
+    /**
+     * Trace decay of the Q(Lambda) and SARSA(Lambda) harnesses. Can be
+     * overridden via the system property "cloudsim.rl.lambda".
+     */
+    public static final double RL_LAMBDA = Double.parseDouble(System.getProperty("cloudsim.rl.lambda", "0.9"));
+
+    /**
+     * Exploration decay of the RL harnesses: iteration i explores with
+     * epsilon = 1 / (1 + RL_EPSILON_DECAY * i), so the default of 1 gives
+     * 1 / (i + 1). Can be overridden via the system property
+     * "cloudsim.rl.epsilon.decay".
+     */
+    public static final double RL_EPSILON_DECAY = Double.parseDouble(
+            System.getProperty("cloudsim.rl.epsilon.decay", "1"));
+
+    /**
+     * Eligibility traces below this value are dropped by the Q(Lambda) and
+     * SARSA(Lambda) assigners. Can be overridden via the system property
+     * "cloudsim.trace.cutoff".
+     */
+    public static final double TRACE_CUTOFF = Double.parseDouble(
+            System.getProperty("cloudsim.trace.cutoff", "1e-4"));
+
+    /**
+     * Number of per-host energy snapshots kept by the RL datacenters for
+     * reward computation. Can be overridden via the system property
+     * "cloudsim.power.history".
+     */
+    public static final int POWER_HISTORY_DEPTH = Integer.getInteger("cloudsim.power.history", 16);
+
+    // --- Checkpoints ---
+
+    /**
+     * File the RL harnesses checkpoint their Q-table (and eligibility traces)
+     * to, or null for no checkpoints. Set via the system property
+     * "cloudsim.checkpoint".
+     */
+    public static final String CHECKPOINT_FILE = System.getProperty("cloudsim.checkpoint");
+
+    /**
+     * Iterations between checkpoints; the last iteration is always written.
+     * Can be overridden via the system property "cloudsim.checkpoint.interval".
+     */
+    public static final int CHECKPOINT_INTERVAL = Integer.getInteger("cloudsim.checkpoint.interval", 10);
+
+    /**
+     * Whether the RL harnesses resume from CHECKPOINT_FILE, when it exists,
+     * at the iteration it was written after. Set via the system property
+     * "cloudsim.resume".
+     */
+    public static final boolean RESUME = Boolean.getBoolean("cloudsim.resume");
+
+    /**
+     * Checkpoint the RL harnesses load their tables from before the first
+     * iteration, or null to start from empty tables. Training restarts at
+     * iteration 0. Set via the system property "cloudsim.warmstart".
+     */
+    public static final String WARM_START_FILE = System.getProperty("cloudsim.warmstart");
+
+    /**
+     * Evaluation-only runs: the RL harnesses load a trained table from
+     * WARM_START_FILE (or CHECKPOINT_FILE), freeze it, place with epsilon 0,
+     * and skip rewards and updates. Every iteration would then be the same,
+     * so they run one iteration and return a single power value. Set via the
+     * system property "cloudsim.eval".
+     */
+    public static final boolean EVALUATION_ONLY = Boolean.getBoolean("cloudsim.eval");
+
+    // --- Profiling ---
+
+    /**
+     * File the RL datacenters write a per-phase timing breakdown to, one row
+     * per power value, or null for no profiling (see
+     * newcloud.datacenter.PhaseProfiler). Set via the system property
+     * "cloudsim.profile".
+     */
+    public static final String PROFILE_FILE = System.getProperty("cloudsim.profile");
+
     // --- PSO (Particle Swarm Optimization) parameters ---
 
     /** Population size (number of particles) for PSO. */
@@ -1,30 +1,42 @@
 package newcloud;
 
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import newcloud.policy.QTable;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Map;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
- * Utility class for exporting Q-value tables to Excel (.xls) format.
+ * Utility class for exporting Q-value tables for analysis and debugging.
  * <p>
- * Uses Apache POI to write Q-table data for analysis and debugging.
+ * {@link #fillData(QTable, String, int, double)} streams single Q-value
+ * updates to a CSV log ({@code row,state,action,value}) through a bounded
+ * buffer, and {@link #genExcel()} flushes it. Whole-table snapshots go
+ * through {@link QTableExporter}.
  * </p>
  */
 public class GenExcel {
 
-    private HSSFSheet sheet;
-    private HSSFWorkbook hwb;
-    private HSSFRow row;
-
     private static final String NEW_LIST_FILE = "Q.csv";
     private static GenExcel instance = new GenExcel();
 
+    private final File file;
+
+    /** Open update log, or null until the first update. */
+    private Writer writer;
+
+    GenExcel(File file) {
+        this.file = file;
+    }
+
+    private GenExcel() {
+        this(new File(NEW_LIST_FILE));
+    }
+
     /** Returns the singleton instance. */
     public static GenExcel getInstance() {
         if (instance == null) {
@@ -33,14 +45,15 @@ public class GenExcel {
         return instance;
     }
 
-    /** Initialize the workbook and sheet. */
+    /**
+     * Called by the assigners when they are created. The update log is
+     * opened on the first update, so this does no work.
+     */
     public void init() {
-        hwb = new HSSFWorkbook();
-        sheet = hwb.createSheet();
     }
 
     /**
-     * Write a single Q-value update to the Excel sheet.
+     * Append a single Q-value update to the update log.
      * Synchronized with Q-table updates.
      *
      * @param QList      the Q-value table
@@ -48,26 +61,45 @@ public class GenExcel {
      * @param action_idx the action (host) index
      * @param QValue     the updated Q-value
      */
-    public void fillData(Map<String, Map<Integer, Double>> QList,
-                         String state_idx, int action_idx, double QValue) {
-        int rows = -1;
-        for (Map.Entry<String, Map<Integer, Double>> me : QList.entrySet()) {
-            rows++;
-            if (state_idx.equals(me.getKey())) {
-                break;
+    public void fillData(QTable QList, String state_idx, int action_idx, double QValue) {
+        try {
+            if (writer == null) {
+                boolean fresh = !file.exists() || file.length() == 0;
+                writer = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(file, true), StandardCharsets.UTF_8), QTableExporter.BUFFER_BYTES);
+                if (fresh) {
+                    writer.write("row,state,action,value\n");
+                }
             }
+            writer.write(QList.stateId(state_idx) + "," + state_idx + "," + action_idx + "," + QValue + "\n");
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        row = sheet.createRow(rows);
-        row.createCell(0).setCellValue(state_idx);
-        row.createCell(action_idx + 1).setCellValue(QValue);
     }
 
-    /** Write the workbook to file. */
+    /** Flush and close the update log; the next update reopens it. */
     public void genExcel() {
+        if (writer == null) {
+            return;
+        }
         try {
-            hwb.write(new FileOutputStream(new File(NEW_LIST_FILE), true));
-        } catch (FileNotFoundException e) {
+            writer.close();
+        } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            writer = null;
+        }
+    }
+
+    /**
+     * Write a CSV snapshot of a whole table.
+     *
+     * @param QList the Q-value table
+     * @param file  the file to write
+     */
+    public void exportSnapshot(QTable QList, File file) {
+        try {
+            QTableExporter.writeCsv(QList, file);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,240 @@
+package newcloud;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Segment tree over the free capacity of a host list.
+ * <p>
+ * Each leaf holds one host's PE capacity, available MIPS, available RAM and
+ * available bandwidth; each inner node holds the maximum of every field over
+ * its subtree. A subtree whose maxima cannot fit a VM is skipped whole, so
+ * "first host at or after position p that fits" usually costs O(log N)
+ * instead of a scan that calls {@link Host#isSuitableForVm(Vm)} on every
+ * host. The fit test at a leaf is exactly the one isSuitableForVm applies.
+ * </p>
+ * <p>
+ * The index does not observe the hosts: whoever changes a host's
+ * allocations calls {@link #update(Host)} for it, or {@link #refreshAll()}
+ * after changing many hosts at once (e.g. once per processing tick).
+ * </p>
+ * <p>
+ * Hosts can also be sorted into up to 32 buckets by a classifier that is
+ * applied whenever a host is read. Each node then holds the set of buckets
+ * in its subtree as a bit mask, and {@link #nextFit(int, Vm, int)} skips
+ * subtrees without a host of the wanted bucket as well as subtrees without
+ * room for the VM.
+ * </p>
+ */
+public class HostCapacityIndex {
+
+    /** Mask of every bucket, for searches that ignore buckets. */
+    private static final int ALL_BUCKETS = -1;
+
+    private final List<? extends Host> hosts;
+
+    /** Host -> position in the host list. */
+    private final Map<Host, Integer> positions = new IdentityHashMap<>();
+
+    /** Number of leaves; a power of two >= hosts.size(). */
+    private final int leaves;
+
+    /** Tree arrays, 1-based heap layout; leaf i is at leaves + i. */
+    private final double[] peCapacity;
+    private final double[] availableMips;
+    private final double[] availableRam;
+    private final double[] availableBw;
+
+    /** Sorts hosts into buckets. */
+    private final ToIntFunction<Host> classifier;
+
+    /** Bucket bit of a leaf's host; union of its leaves' bits for an inner node. */
+    private final int[] buckets;
+
+    public HostCapacityIndex(List<? extends Host> hosts) {
+        this(hosts, host -> 0);
+    }
+
+    /**
+     * @param hosts      the hosts to index
+     * @param classifier the bucket of a host, in [0, 32); called whenever a
+     *                   host's capacity is re-read
+     */
+    public HostCapacityIndex(List<? extends Host> hosts, ToIntFunction<Host> classifier) {
+        this.hosts = hosts;
+        this.classifier = classifier;
+        int n = 1;
+        while (n < hosts.size()) {
+            n <<= 1;
+        }
+        this.leaves = n;
+        this.peCapacity = new double[2 * n];
+        this.availableMips = new double[2 * n];
+        this.availableRam = new double[2 * n];
+        this.availableBw = new double[2 * n];
+        this.buckets = new int[2 * n];
+        for (int i = 0; i < hosts.size(); i++) {
+            positions.put(hosts.get(i), i);
+        }
+        refreshAll();
+    }
+
+    /** Number of hosts indexed. */
+    public int size() {
+        return hosts.size();
+    }
+
+    /** Position of a host in the indexed host list, or -1 if not indexed. */
+    public int positionOf(Host host) {
+        Integer position = positions.get(host);
+        return position == null ? -1 : position;
+    }
+
+    /** Re-read one host's free capacity. O(log N). */
+    public void update(Host host) {
+        int position = positionOf(host);
+        if (position >= 0) {
+            update(position);
+        }
+    }
+
+    /** Re-read the free capacity of the host at a position. O(log N). */
+    public void update(int position) {
+        int node = leaves + position;
+        readLeaf(node, hosts.get(position));
+        for (node >>= 1; node > 0; node >>= 1) {
+            pull(node);
+        }
+    }
+
+    /** Re-read every host's free capacity. O(N). */
+    public void refreshAll() {
+        Arrays.fill(peCapacity, leaves, 2 * leaves, -1);
+        Arrays.fill(availableMips, leaves, 2 * leaves, -1);
+        Arrays.fill(availableRam, leaves, 2 * leaves, -1);
+        Arrays.fill(availableBw, leaves, 2 * leaves, -1);
+        Arrays.fill(buckets, leaves, 2 * leaves, 0);
+        for (int i = 0; i < hosts.size(); i++) {
+            readLeaf(leaves + i, hosts.get(i));
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            pull(node);
+        }
+    }
+
+    /** Available MIPS of the host at a position, as last read. */
+    public double getAvailableMips(int position) {
+        return availableMips[leaves + position];
+    }
+
+    /** Bucket of the host at a position, as last read. */
+    public int getBucket(int position) {
+        return Integer.numberOfTrailingZeros(buckets[leaves + position]);
+    }
+
+    /** Buckets of all hosts as a bit mask, bit b set if bucket b has a host. */
+    public int getBucketMask() {
+        return buckets[1];
+    }
+
+    /** Whether the host at a position fits a VM, as last read. */
+    public boolean fits(int position, Vm vm) {
+        return fits(leaves + position, vm.getCurrentRequestedMaxMips(), vm.getCurrentRequestedTotalMips(),
+                vm.getCurrentRequestedRam(), vm.getCurrentRequestedBw());
+    }
+
+    /**
+     * First host that fits a VM.
+     *
+     * @return the host position, or -1 if no host fits
+     */
+    public int firstFit(Vm vm) {
+        return nextFit(0, vm);
+    }
+
+    /**
+     * First host at or after a position that fits a VM.
+     *
+     * @param from the first position to consider
+     * @return the host position, or -1 if no such host fits
+     */
+    public int nextFit(int from, Vm vm) {
+        if (from >= hosts.size()) {
+            return -1;
+        }
+        return find(1, 0, leaves - 1, Math.max(0, from), ALL_BUCKETS,
+                vm.getCurrentRequestedMaxMips(), vm.getCurrentRequestedTotalMips(),
+                vm.getCurrentRequestedRam(), vm.getCurrentRequestedBw());
+    }
+
+    /**
+     * First host of a bucket at or after a position that fits a VM. A
+     * subtree can hold a host of the bucket and, elsewhere, a host with
+     * room for the VM, so this is O(log N) only while such subtrees are
+     * rare; it never costs more than a scan.
+     *
+     * @param from   the first position to consider
+     * @param bucket the bucket, in [0, 32)
+     * @return the host position, or -1 if no such host fits
+     */
+    public int nextFit(int from, Vm vm, int bucket) {
+        if (from >= hosts.size()) {
+            return -1;
+        }
+        return find(1, 0, leaves - 1, Math.max(0, from), 1 << bucket,
+                vm.getCurrentRequestedMaxMips(), vm.getCurrentRequestedTotalMips(),
+                vm.getCurrentRequestedRam(), vm.getCurrentRequestedBw());
+    }
+
+    private int find(int node, int lo, int hi, int from, int mask,
+                     double maxMips, double totalMips, double ram, double bw) {
+        if (hi < from || (buckets[node] & mask) == 0 || !fits(node, maxMips, totalMips, ram, bw)) {
+            return -1;
+        }
+        if (lo == hi) {
+            return lo;
+        }
+        int mid = (lo + hi) >>> 1;
+        int left = find(2 * node, lo, mid, from, mask, maxMips, totalMips, ram, bw);
+        if (left >= 0) {
+            return left;
+        }
+        return find(2 * node + 1, mid + 1, hi, from, mask, maxMips, totalMips, ram, bw);
+    }
+
+    /** The isSuitableForVm test against a node's (maximum) free capacity. */
+    private boolean fits(int node, double maxMips, double totalMips, double ram, double bw) {
+        return peCapacity[node] >= maxMips
+                && availableMips[node] >= totalMips
+                && availableRam[node] >= ram
+                && availableBw[node] >= bw;
+    }
+
+    private void readLeaf(int node, Host host) {
+        peCapacity[node] = host.getVmScheduler().getPeCapacity();
+        availableMips[node] = host.getVmScheduler().getAvailableMips();
+        availableRam[node] = host.getRamProvisioner().getAvailableRam();
+        availableBw[node] = host.getBwProvisioner().getAvailableBw();
+        int bucket = classifier.applyAsInt(host);
+        if (bucket < 0 || bucket >= Integer.SIZE) {
+            throw new IllegalArgumentException("Host bucket must be in [0, 32): " + bucket);
+        }
+        buckets[node] = 1 << bucket;
+    }
+
+    private void pull(int node) {
+        int left = 2 * node;
+        int right = left + 1;
+        peCapacity[node] = Math.max(peCapacity[left], peCapacity[right]);
+        availableMips[node] = Math.max(availableMips[left], availableMips[right]);
+        availableRam[node] = Math.max(availableRam[left], availableRam[right]);
+        availableBw[node] = Math.max(availableBw[left], availableBw[right]);
+        buckets[node] = buckets[left] | buckets[right];
+    }
+}
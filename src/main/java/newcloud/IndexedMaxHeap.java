@@ -0,0 +1,114 @@
+package newcloud;
+
+/**
+ * Binary max-heap over the items 0..n-1, each with a double key that can be
+ * changed in place.
+ * <p>
+ * The heap keeps each item's position, so {@link #set(int, double)} moves a
+ * single item up or down in O(log n) and {@link #peek()} is O(1). Among
+ * equal keys the higher item index ranks first.
+ * </p>
+ */
+public class IndexedMaxHeap {
+
+    /** heap[i] is the item at heap slot i. */
+    private final int[] heap;
+
+    /** position[item] is the heap slot of the item. */
+    private final int[] position;
+
+    private final double[] keys;
+
+    public IndexedMaxHeap(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Heap size must be positive: " + size);
+        }
+        heap = new int[size];
+        position = new int[size];
+        keys = new double[size];
+        for (int i = 0; i < size; i++) {
+            heap[i] = i;
+            position[i] = i;
+        }
+    }
+
+    public int size() {
+        return heap.length;
+    }
+
+    /** The item with the largest key. */
+    public int peek() {
+        return heap[0];
+    }
+
+    public double key(int item) {
+        return keys[item];
+    }
+
+    /** Change the key of one item. O(log n). */
+    public void set(int item, double key) {
+        double old = keys[item];
+        keys[item] = key;
+        if (key > old) {
+            siftUp(position[item]);
+        } else if (key < old) {
+            siftDown(position[item]);
+        }
+    }
+
+    /**
+     * Replace every key at once and rebuild the heap. O(n).
+     *
+     * @param newKeys one key per item
+     */
+    public void setAll(double[] newKeys) {
+        if (newKeys.length != keys.length) {
+            throw new IllegalArgumentException("Expected " + keys.length + " keys, got " + newKeys.length);
+        }
+        System.arraycopy(newKeys, 0, keys, 0, keys.length);
+        for (int slot = heap.length / 2 - 1; slot >= 0; slot--) {
+            siftDown(slot);
+        }
+    }
+
+    /** Whether item a ranks above item b. */
+    private boolean above(int a, int b) {
+        return keys[a] > keys[b] || (keys[a] == keys[b] && a > b);
+    }
+
+    private void siftUp(int slot) {
+        int item = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!above(item, heap[parent])) {
+                break;
+            }
+            place(heap[parent], slot);
+            slot = parent;
+        }
+        place(item, slot);
+    }
+
+    private void siftDown(int slot) {
+        int item = heap[slot];
+        int half = heap.length >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < heap.length && above(heap[right], heap[child])) {
+                child = right;
+            }
+            if (!above(heap[child], item)) {
+                break;
+            }
+            place(heap[child], slot);
+            slot = child;
+        }
+        place(item, slot);
+    }
+
+    private void place(int item, int slot) {
+        heap[slot] = item;
+        position[item] = slot;
+    }
+}
@@ -0,0 +1,119 @@
+package newcloud;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative long values (latencies in nanoseconds) with
+ * bounded relative error, in the style of HdrHistogram.
+ * <p>
+ * Values below {@link #SUB_BUCKETS} are counted exactly. Above that, each
+ * power-of-two range is split into SUB_BUCKETS equal buckets, so a value is
+ * reported to within 1/SUB_BUCKETS (about 3%) of itself. Recording is a
+ * leading-zero count, a shift and an array increment; the counts take a
+ * fixed 15 KB whatever the range of the values.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+
+    /** Buckets per power of two. */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /** Record a value; negative values count as 0. */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        count++;
+        total += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /** The largest value that falls in a bucket. */
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long sub = SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** Sum of the recorded values. */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * The value at a percentile: the largest value of the bucket holding the
+     * recorded value of that rank, capped at the largest recorded value.
+     *
+     * @param percentile between 0 and 100
+     * @return the value, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    /** Add another histogram's values to this one. */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+}
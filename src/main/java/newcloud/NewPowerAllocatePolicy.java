@@ -9,6 +9,13 @@ import java.util.List;
 import java.util.Map;
 
 public class NewPowerAllocatePolicy extends PowerVmAllocationPolicyAbstract {
+
+    /**
+     * Free capacity of every host, kept in step with allocations, bucketed
+     * for {@link CandidateHosts}.
+     */
+    private final HostCapacityIndex capacityIndex;
+
     /**
      * Instantiates a new PowerVmAllocationPolicyAbstract.
      *
@@ -16,6 +23,30 @@ public class NewPowerAllocatePolicy extends PowerVmAllocationPolicyAbstract {
      */
     public NewPowerAllocatePolicy(List<? extends Host> list) {
         super(list);
+        this.capacityIndex = new HostCapacityIndex(list, CandidateHosts::bucketOf);
+    }
+
+    /**
+     * The free-capacity index over this policy's hosts. It is updated on
+     * every allocation and deallocation made through this policy; the
+     * datacenter refreshes it after each processing tick.
+     */
+    public HostCapacityIndex getCapacityIndex() {
+        return capacityIndex;
+    }
+
+    /** Re-read every host's free capacity, e.g. after VM processing was updated. */
+    public void refreshCapacityIndex() {
+        capacityIndex.refreshAll();
+    }
+
+    @Override
+    public boolean allocateHostForVm(Vm vm, Host host) {
+        boolean result = super.allocateHostForVm(vm, host);
+        if (result) {
+            capacityIndex.update(host);
+        }
+        return result;
     }
 
     @Override
@@ -23,12 +54,23 @@ public class NewPowerAllocatePolicy extends PowerVmAllocationPolicyAbstract {
         return null;
     }
 
+    /**
+     * First host, in host list order, that is suitable for the VM. Answered
+     * from the capacity index instead of calling isSuitableForVm on every
+     * host; the chosen host is still confirmed with isSuitableForVm, and a
+     * stale index entry is re-read before the search moves on.
+     */
     @Override
     public PowerHost findHostForVm(Vm vm) {
-        for (PowerHost host : this.<PowerHost>getHostList()) {
+        List<PowerHost> hosts = this.<PowerHost>getHostList();
+        int position = capacityIndex.firstFit(vm);
+        while (position >= 0) {
+            PowerHost host = hosts.get(position);
             if (host.isSuitableForVm(vm)) {
                 return host;
             }
+            capacityIndex.update(position);
+            position = capacityIndex.nextFit(position, vm);
         }
         return null;
     }
@@ -37,6 +79,7 @@ public class NewPowerAllocatePolicy extends PowerVmAllocationPolicyAbstract {
         Host host = (Host)this.getVmTable().remove(vm.getUid());
         if (host != null) {
             host.vmDestroy(vm);
+            capacityIndex.update(host);
         }
     }
 }
@@ -8,6 +8,7 @@
 
 package newcloud;
 
+import newcloud.datacenter.SimulationCounters;
 import org.cloudbus.cloudsim.Cloudlet;
 import org.cloudbus.cloudsim.DatacenterBroker;
 import org.cloudbus.cloudsim.Log;
@@ -23,6 +24,9 @@ import java.util.List;
 
 import static newcloud.Constants.CLOUDSIM_RESTART;
 import static newcloud.Constants.CREATE_VM_ACK;
+import static newcloud.Constants.CREATE_VM_BATCH;
+import static newcloud.Constants.CREATE_VM_BATCH_ACK;
+import static newcloud.Constants.VM_CREATION_BATCH_SIZE;
 
 /**
  * A power-aware {@link DatacenterBroker}.
@@ -43,14 +47,46 @@ import static newcloud.Constants.CREATE_VM_ACK;
 public class NewPowerDatacenterBroker extends PowerDatacenterBroker {
     int requestedVms = 0;
 
+    /** VMs sent per placement round; 1 keeps the one-VM-per-restart protocol. */
+    private final int batchSize;
+
+    /** The batch awaiting its acknowledgment, if any. */
+    private VmBatch pendingBatch;
+
     /**
-     * Instantiates a new PowerDatacenterBroker.
+     * Instantiates a new PowerDatacenterBroker with the configured
+     * {@link Constants#VM_CREATION_BATCH_SIZE}.
      *
      * @param name the name of the broker
      * @throws Exception the exception
      */
     public NewPowerDatacenterBroker(String name) throws Exception {
+        this(name, VM_CREATION_BATCH_SIZE);
+    }
+
+    /**
+     * Instantiates a new PowerDatacenterBroker.
+     *
+     * @param name      the name of the broker
+     * @param batchSize number of VMs sent per placement round
+     * @throws Exception the exception
+     */
+    public NewPowerDatacenterBroker(String name, int batchSize) throws Exception {
         super(name);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public void processEvent(SimEvent ev) {
+        SimulationCounters.eventProcessed();
+        super.processEvent(ev);
     }
 
     @Override
@@ -59,6 +95,9 @@ public class NewPowerDatacenterBroker extends PowerDatacenterBroker {
             case CREATE_VM_ACK:
                 processVmCreate(ev);
                 break;
+            case CREATE_VM_BATCH_ACK:
+                processVmBatchCreate(ev);
+                break;
             case CLOUDSIM_RESTART:
                 startEntity();
                 break;
@@ -80,9 +119,11 @@ public class NewPowerDatacenterBroker extends PowerDatacenterBroker {
         if (result == CloudSimTags.TRUE) {
             getVmsToDatacentersMap().put(vmId, datacenterId);
             getVmsCreatedList().add(VmList.getById(getVmList(), vmId));
-            Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": VM #", vmId,
-                    " has been created in Datacenter #", datacenterId, ", Host #",
-                    VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
+            if (!Log.isDisabled()) {
+                Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": VM #", vmId,
+                        " has been created in Datacenter #", datacenterId, ", Host #",
+                        VmList.getById(getVmsCreatedList(), vmId).getHost().getId());
+            }
         } else {
             Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Creation of VM #", vmId,
                     " failed in Datacenter #", datacenterId);
@@ -118,15 +159,63 @@ public class NewPowerDatacenterBroker extends PowerDatacenterBroker {
         }
     }
 
+    /**
+     * Process the acknowledgment of a VM batch. The datacenter has already
+     * submitted the cloudlet of every VM it placed, so those cloudlets are
+     * only recorded here; the next batch is sent right away, without a
+     * restart.
+     */
+    protected void processVmBatchCreate(SimEvent ev) {
+        @SuppressWarnings("unchecked")
+        List<int[]> acks = (List<int[]>) ev.getData();
+        VmBatch batch = pendingBatch;
+        pendingBatch = null;
+        int datacenterId = -1;
+        List<Cloudlet> submitted = new ArrayList<Cloudlet>();
+
+        for (int i = 0; i < acks.size(); i++) {
+            int[] data = acks.get(i);
+            datacenterId = data[0];
+            int vmId = data[1];
+            if (data[2] == CloudSimTags.TRUE) {
+                getVmsToDatacentersMap().put(vmId, datacenterId);
+                getVmsCreatedList().add(VmList.getById(getVmList(), vmId));
+                Cloudlet cloudlet = batch.getCloudlet(i);
+                if (cloudlet != null) {
+                    cloudletsSubmitted++;
+                    getCloudletSubmittedList().add(cloudlet);
+                    submitted.add(cloudlet);
+                }
+            } else {
+                Log.printConcatLine(CloudSim.clock(), ": ", getName(), ": Creation of VM #", vmId,
+                        " failed in Datacenter #", datacenterId);
+            }
+            incrementVmsAcks();
+        }
+        getCloudletList().removeAll(submitted);
+
+        if (requestedVms < getVmList().size() - 1) {
+            createVmsInDatacenter(datacenterId);
+        } else if (getVmsCreatedList().isEmpty()) {
+            Log.printLine(CloudSim.clock() + ": " + getName()
+                    + ": none of the required VMs could be created. Aborting");
+            finishExecution();
+        }
+    }
+
     @Override
     protected void createVmsInDatacenter(int datacenterId) {
+        if (batchSize > 1) {
+            createVmBatchInDatacenter(datacenterId);
+            return;
+        }
         // send as much vms as possible for this datacenter before trying the next one
-        String datacenterName = CloudSim.getEntityName(datacenterId);
-
         Vm vm = vmList.get(requestedVms);
         if (!getVmsToDatacentersMap().containsKey(vm.getId()) && requestedVms < getVmList().size() - 1) {
-            Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
-                    + " in " + datacenterName);
+            if (!Log.isDisabled()) {
+                Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
+                        + " in " + CloudSim.getEntityName(datacenterId));
+            }
             sendNow(datacenterId, CREATE_VM_ACK, vm);
             requestedVms++;
         }
@@ -136,6 +225,50 @@ public class NewPowerDatacenterBroker extends PowerDatacenterBroker {
         setVmsAcks(0);
     }
 
+    /**
+     * Send the next batch of up to {@link #batchSize} VMs, each paired with
+     * the waiting cloudlet bound to it.
+     */
+    private void createVmBatchInDatacenter(int datacenterId) {
+        if (pendingBatch != null) {
+            return;
+        }
+        VmBatch batch = new VmBatch();
+        while (batch.size() < batchSize && requestedVms < getVmList().size() - 1) {
+            Vm vm = vmList.get(requestedVms);
+            requestedVms++;
+            if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
+                batch.add(vm, findWaitingCloudlet(vm));
+            }
+        }
+        if (!getDatacenterRequestedIdsList().contains(datacenterId)) {
+            getDatacenterRequestedIdsList().add(datacenterId);
+        }
+        setVmsRequested(requestedVms);
+        if (batch.size() > 0) {
+            if (!Log.isDisabled()) {
+                Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create " + batch.size()
+                        + " VMs in " + CloudSim.getEntityName(datacenterId));
+            }
+            pendingBatch = batch;
+            sendNow(datacenterId, CREATE_VM_BATCH, batch);
+        }
+    }
+
+    /** The first waiting cloudlet bound to a VM, or an unbound one. */
+    private Cloudlet findWaitingCloudlet(Vm vm) {
+        for (Cloudlet cloudlet : getCloudletList()) {
+            if (cloudlet.getVmId() == vm.getId()) {
+                return cloudlet;
+            }
+            if (cloudlet.getVmId() == -1) {
+                cloudlet.setVmId(vm.getId());
+                return cloudlet;
+            }
+        }
+        return null;
+    }
+
     @Override
     protected void submitCloudlets() {
         int vmIndex = 0;
@@ -1,5 +1,6 @@
 package newcloud.NoTimeReliability;
 
+import newcloud.SimLog;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
@@ -122,7 +123,9 @@ public class QPowerDatacenter extends PowerDatacenter {
 
         // if some time passed since last processing
         if (currentTime > getLastProcessTime()) {
-            System.out.print(currentTime + " ");
+            if (SimLog.isEnabled(SimLog.Level.TRACE)) {
+                SimLog.trace("{}: processing tick", currentTime);
+            }
 
             double minTime = updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 
@@ -349,7 +352,7 @@ public class QPowerDatacenter extends PowerDatacenter {
             } else if (cpuutil >= 90 && cpuutil <= 100) {
                 convertresult = "9";
             } else {
-                System.out.println("Error: CPU utilization conversion out of range");
+                SimLog.error("CPU utilization {} out of range", cpuutil);
                 break;
             }
             convertList += convertresult;
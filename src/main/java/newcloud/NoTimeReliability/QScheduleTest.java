@@ -1,11 +1,11 @@
 package newcloud.NoTimeReliability;
 
 import newcloud.GenExcel;
+import newcloud.PlanetLabTraceCache;
+import newcloud.SimLog;
 import newcloud.newHelper;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
-
-import org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabHelper;
 import org.cloudbus.cloudsim.power.PowerHost;
 
 import java.util.Calendar;
@@ -44,7 +44,7 @@ public class QScheduleTest {
             CloudSim.init(1, Calendar.getInstance(), false);
             broker = createBroker();
             int brokerId = broker.getId();
-            cloudletList = PlanetLabHelper.createCloudletListPlanetLab(brokerId, inputFolder);
+            cloudletList = PlanetLabTraceCache.createCloudletList(brokerId, inputFolder);
             vmList = newHelper.createVmList(brokerId, cloudletList.size());
             hostList = newHelper.createHostList(NUMBER_OF_HOSTS);
             VmAllocationPolicy vmAllocationPolicy = new QPowerAllocatePolicy(hostList);
@@ -67,19 +67,20 @@ public class QScheduleTest {
             CloudSim.stopSimulation();
 
         }
-        for (String s : QList.keySet()) {
-            System.out.println(s + ":" + QList.get(s));
+        if (SimLog.isEnabled(SimLog.Level.DEBUG)) {
+            for (int s = 0; s < QList.size(); s++) {
+                SimLog.debug("{}:{}", QList.stateKey(s), QList.rowToString(s));
+            }
         }
-        System.out.println(QList.size());
-        System.out.println(vmList.size());
+        SimLog.info("Q-table states: {}, VMs: {}", QList.size(), vmList.size());
 //        GenExcel.getInstance().genExcel();
         for (int i = 0; i < QPowerDatacenter.allpower.size(); i++) {
-            System.out.println(QPowerDatacenter.allpower.get(i));
+            SimLog.debug("{}", QPowerDatacenter.allpower.get(i));
             if (QPowerDatacenter.allpower.get(i) < smallestdata) {
                 smallestdata = QPowerDatacenter.allpower.get(i);
             }
         }
-        System.out.println("Minimum power: " + smallestdata);
+        SimLog.info("Minimum power: {}", smallestdata);
         return QPowerDatacenter.allpower;
     }
 
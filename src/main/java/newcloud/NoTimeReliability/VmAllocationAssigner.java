@@ -1,9 +1,9 @@
 package newcloud.NoTimeReliability;
 
 import newcloud.GenExcel;
+import newcloud.RandomSource;
+import newcloud.policy.QTable;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import static newcloud.Constants.NUMBER_OF_HOSTS;
@@ -21,9 +21,10 @@ public class VmAllocationAssigner {
     private double gamma;   // Discount factor
     private double alpha;   // Learning rate
     private double epsilon; // Exploration rate
+    private final Random random = RandomSource.create();
 
-    /** Q-value table: state -> (action/hostId -> Q-value) */
-    public static Map<String, Map<Integer, Double>> QList = new HashMap<>();
+    /** Q-value table: state x action/hostId -> Q-value */
+    public static QTable QList = new QTable(NUMBER_OF_HOSTS);
 
     public VmAllocationAssigner(double gamma, double alpha, double epsilon, GenExcel genExcel) {
         this.gamma = gamma;
@@ -35,16 +36,12 @@ public class VmAllocationAssigner {
 
     /** Initialize a Q-table row for the given state with all zeros. */
     public void initRowOfQList(String state_idx) {
-        QList.put(state_idx, new HashMap<Integer, Double>());
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            QList.get(state_idx).put(i, 0.0);
-        }
+        QList.initRow(state_idx);
     }
 
     /** Generate a random integer in [min, max] inclusive. */
     public int randomInt(int min, int max) {
         if (min == max) return min;
-        Random random = new Random();
         return random.nextInt(max - min + 1) + min;
     }
 
@@ -67,24 +64,12 @@ public class VmAllocationAssigner {
     public int createAction(String cpulist) {
         int current_action;
         int x = randomInt(0, 100);
-        String state_idx = createState_idx(cpulist);
-
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
+        int state = QList.rowFor(createState_idx(cpulist));
 
         // Epsilon-greedy: exploit with probability (1 - epsilon)
         if (((double) x / 100) < (1 - epsilon)) {
             // Exploit: choose action with highest Q-value
-            int bestAction = 0;
-            double bestValue = Double.NEGATIVE_INFINITY;
-            for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-                if (bestValue < QList.get(state_idx).get(i)) {
-                    bestValue = QList.get(state_idx).get(i);
-                    bestAction = i;
-                }
-            }
-            current_action = bestAction;
+            current_action = QList.argmax(state);
         } else {
             // Explore: choose a random action
             current_action = randomInt(0, NUMBER_OF_HOSTS - 1);
@@ -109,27 +94,15 @@ public class VmAllocationAssigner {
             finalreward = 1.0 / reward;
         }
 
-        String state_idx = createLastState_idx(lastcpulist);
-        String next_state_idx = createState_idx(cpulist);
-
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
-        if (!QList.containsKey(next_state_idx)) {
-            initRowOfQList(next_state_idx);
-        }
+        int state = QList.rowFor(createLastState_idx(lastcpulist));
+        int next_state = QList.rowFor(createState_idx(cpulist));
 
         // Find max Q-value in next state
-        double qMaxNextState = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            if (qMaxNextState < QList.get(next_state_idx).get(i)) {
-                qMaxNextState = QList.get(next_state_idx).get(i);
-            }
-        }
+        double qMaxNextState = QList.max(next_state);
 
         // Q-Learning update
-        double oldQ = QList.get(state_idx).get(action_idx);
+        double oldQ = QList.get(state, action_idx);
         double newQ = oldQ + alpha * (finalreward + gamma * qMaxNextState - oldQ);
-        QList.get(state_idx).put(action_idx, newQ);
+        QList.set(state, action_idx, newQ);
     }
 }
@@ -0,0 +1,191 @@
+package newcloud;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static newcloud.Constants.CLOUDLET_LENGTH;
+import static newcloud.Constants.CLOUDLET_PES;
+import static newcloud.Constants.SCHEDULING_INTERVAL;
+
+/**
+ * Process-wide cache of parsed PlanetLab workload traces.
+ * <p>
+ * {@code PlanetLabHelper.createCloudletListPlanetLab} re-reads and re-parses
+ * every trace file of a folder each time it is called, and the harnesses
+ * call it once per iteration. This cache parses each folder once into a
+ * utilization matrix (one row per trace file, values in [0, 1]) and builds
+ * every cloudlet list from it. Each call still returns fresh
+ * {@link Cloudlet} and {@link UtilizationModel} objects; only the read-only
+ * trace rows are shared.
+ * </p>
+ * <p>
+ * The input may also be a binary file written by
+ * {@link PlanetLabTracePack#pack(File, File)}. It is memory-mapped once and
+ * the utilization models read straight from the mapping.
+ * </p>
+ */
+public final class PlanetLabTraceCache {
+
+    /** Samples per trace file: one day at a 5 minute interval. */
+    public static final int SAMPLES_PER_TRACE = 288;
+
+    /** Parsed folders, keyed by canonical path. */
+    private static final Map<String, double[][]> TRACES = new HashMap<>();
+
+    /** Mapped trace packs, keyed by canonical path. */
+    private static final Map<String, PlanetLabTracePack> PACKS = new HashMap<>();
+
+    private PlanetLabTraceCache() {
+        // Utility class; prevent instantiation
+    }
+
+    /**
+     * Create the cloudlet list of a trace folder, equivalent to
+     * {@code PlanetLabHelper.createCloudletListPlanetLab(brokerId, inputFolder)}.
+     *
+     * @param brokerId    the broker that owns the cloudlets
+     * @param inputFolder the PlanetLab trace folder, or a packed trace file
+     * @return one cloudlet per trace, cloudlet i bound to VM i
+     */
+    public static List<Cloudlet> createCloudletList(int brokerId, String inputFolder) throws IOException {
+        List<Cloudlet> list = new ArrayList<>();
+        if (new File(inputFolder).isFile()) {
+            PlanetLabTracePack pack = getPack(inputFolder);
+            for (int i = 0; i < pack.getVmCount(); i++) {
+                list.add(createCloudlet(brokerId, i, pack.createUtilizationModel(i, SCHEDULING_INTERVAL)));
+            }
+        } else {
+            double[][] traces = getTraces(inputFolder);
+            for (int i = 0; i < traces.length; i++) {
+                list.add(createCloudlet(brokerId, i, new TraceUtilizationModel(traces[i], SCHEDULING_INTERVAL)));
+            }
+        }
+        return list;
+    }
+
+    private static Cloudlet createCloudlet(int brokerId, int id, UtilizationModel utilizationModelCpu) {
+        UtilizationModel utilizationModelNull = new UtilizationModelNull();
+        Cloudlet cloudlet = new Cloudlet(
+                id,
+                CLOUDLET_LENGTH,
+                CLOUDLET_PES,
+                300,
+                300,
+                utilizationModelCpu,
+                utilizationModelNull,
+                utilizationModelNull);
+        cloudlet.setUserId(brokerId);
+        cloudlet.setVmId(id);
+        return cloudlet;
+    }
+
+    /**
+     * The utilization matrix of a trace folder, parsing it on first use.
+     * Rows follow the order of {@link File#listFiles()}, like PlanetLabHelper.
+     * The returned rows are shared and must not be modified.
+     *
+     * @param inputFolder the PlanetLab trace folder
+     * @return one row of {@link #SAMPLES_PER_TRACE} + 1 utilization values per trace file
+     */
+    public static synchronized double[][] getTraces(String inputFolder) throws IOException {
+        File folder = new File(inputFolder);
+        String key = folder.getCanonicalPath();
+        double[][] traces = TRACES.get(key);
+        if (traces == null) {
+            traces = parseFolder(folder);
+            TRACES.put(key, traces);
+        }
+        return traces;
+    }
+
+    /**
+     * The mapped view of a packed trace file, mapping it on first use.
+     *
+     * @param packFile a file written by {@link PlanetLabTracePack#pack(File, File)}
+     */
+    public static synchronized PlanetLabTracePack getPack(String packFile) throws IOException {
+        File file = new File(packFile);
+        String key = file.getCanonicalPath();
+        PlanetLabTracePack pack = PACKS.get(key);
+        if (pack == null) {
+            pack = PlanetLabTracePack.open(file);
+            PACKS.put(key, pack);
+        }
+        return pack;
+    }
+
+    /** Drop all cached folders and packs. */
+    public static synchronized void clear() {
+        TRACES.clear();
+        PACKS.clear();
+    }
+
+    private static double[][] parseFolder(File folder) throws IOException {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            throw new FileNotFoundException("Trace folder not found: " + folder.getPath());
+        }
+        double[][] traces = new double[files.length][];
+        for (int i = 0; i < files.length; i++) {
+            traces[i] = parseTrace(files[i]);
+        }
+        return traces;
+    }
+
+    /**
+     * Parse one trace file the way UtilizationModelPlanetLabInMemory does:
+     * {@link #SAMPLES_PER_TRACE} integer percentages, with the last sample
+     * repeated so that interpolation at the end of the day stays in range.
+     */
+    static double[] parseTrace(File file) throws IOException {
+        int[] samples = readSamples(file);
+        double[] data = new double[SAMPLES_PER_TRACE + 1];
+        for (int i = 0; i < SAMPLES_PER_TRACE; i++) {
+            data[i] = samples[i] / 100.0;
+        }
+        data[SAMPLES_PER_TRACE] = data[SAMPLES_PER_TRACE - 1];
+        return data;
+    }
+
+    /** Read the first {@link #SAMPLES_PER_TRACE} integer percentages of a trace file. */
+    static int[] readSamples(File file) throws IOException {
+        int[] samples = new int[SAMPLES_PER_TRACE];
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            for (int i = 0; i < SAMPLES_PER_TRACE; i++) {
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Trace " + file.getPath() + " has only " + i + " samples");
+                }
+                samples[i] = Integer.parseInt(line.trim());
+            }
+        }
+        return samples;
+    }
+
+    /** Utilization model over one cached trace row. */
+    public static class TraceUtilizationModel extends SampledUtilizationModel {
+
+        private final double[] data;
+
+        public TraceUtilizationModel(double[] data, double schedulingInterval) {
+            super(schedulingInterval);
+            this.data = data;
+        }
+
+        @Override
+        protected double sample(int index) {
+            return data[index];
+        }
+    }
+}
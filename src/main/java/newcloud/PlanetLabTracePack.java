@@ -0,0 +1,165 @@
+package newcloud;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary form of a PlanetLab trace folder.
+ * <p>
+ * A trace folder holds one small text file per VM with one integer
+ * percentage per line. {@link #pack(File, File)} stores a whole folder in a
+ * single file:
+ * </p>
+ * <pre>
+ *   int   MAGIC ("PLTR")
+ *   int   VERSION
+ *   int   vmCount
+ *   int   sampleCount
+ *   short samples[vmCount][sampleCount]   (percent, row-major)
+ * </pre>
+ * <p>
+ * {@link #open(File)} memory-maps a packed file and serves the samples
+ * straight from the mapping, so opening tens of thousands of traces costs
+ * one file open and no parsing or copying. Rows follow the
+ * {@link File#listFiles()} order of the source folder, like PlanetLabHelper.
+ * </p>
+ */
+public final class PlanetLabTracePack {
+
+    /** File magic, "PLTR" in ASCII. */
+    public static final int MAGIC = 0x504C5452;
+
+    public static final int VERSION = 1;
+
+    /** Header size in bytes. */
+    public static final int HEADER_BYTES = 4 * Integer.BYTES;
+
+    private final int vmCount;
+    private final int sampleCount;
+    private final ShortBuffer samples;
+
+    private PlanetLabTracePack(int vmCount, int sampleCount, ShortBuffer samples) {
+        this.vmCount = vmCount;
+        this.sampleCount = sampleCount;
+        this.samples = samples;
+    }
+
+    /**
+     * Pack a PlanetLab trace folder into a single binary file.
+     *
+     * @param inputFolder the trace folder
+     * @param packFile    the file to write
+     * @return the number of traces written
+     */
+    public static int pack(File inputFolder, File packFile) throws IOException {
+        File[] files = inputFolder.listFiles();
+        if (files == null) {
+            throw new FileNotFoundException("Trace folder not found: " + inputFolder.getPath());
+        }
+        int sampleCount = PlanetLabTraceCache.SAMPLES_PER_TRACE;
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(packFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.length);
+            out.writeInt(sampleCount);
+            for (File file : files) {
+                for (int sample : PlanetLabTraceCache.readSamples(file)) {
+                    if (sample < Short.MIN_VALUE || sample > Short.MAX_VALUE) {
+                        throw new IOException("Sample " + sample + " in " + file.getPath() + " does not fit in a short");
+                    }
+                    out.writeShort(sample);
+                }
+            }
+        }
+        return files.length;
+    }
+
+    /**
+     * Memory-map a packed trace file.
+     *
+     * @param packFile a file written by {@link #pack(File, File)}
+     * @return a read-only view over the mapped samples
+     */
+    public static PlanetLabTracePack open(File packFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(packFile.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not a trace pack (too short): " + packFile.getPath());
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a trace pack (bad magic): " + packFile.getPath());
+            }
+            int version = buffer.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported trace pack version " + version + ": " + packFile.getPath());
+            }
+            int vmCount = buffer.getInt(8);
+            int sampleCount = buffer.getInt(12);
+            if (vmCount < 0 || sampleCount <= 0
+                    || size != HEADER_BYTES + (long) vmCount * sampleCount * Short.BYTES) {
+                throw new IOException("Corrupt trace pack header: " + packFile.getPath());
+            }
+            buffer.position(HEADER_BYTES);
+            // The mapping stays valid after the channel is closed
+            return new PlanetLabTracePack(vmCount, sampleCount, buffer.slice().asShortBuffer());
+        }
+    }
+
+    public int getVmCount() {
+        return vmCount;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Utilization of one trace at a sample index, in [0, 1]. Indexes past the
+     * last sample read the last sample, like the repeated final entry of
+     * UtilizationModelPlanetLabInMemory.
+     */
+    public double getUtilization(int vm, int index) {
+        int sample = Math.min(index, sampleCount - 1);
+        return samples.get(vm * sampleCount + sample) / 100.0;
+    }
+
+    /**
+     * A utilization model reading one trace straight from the mapping.
+     *
+     * @param vm                 the trace (row) index
+     * @param schedulingInterval seconds between samples
+     */
+    public SampledUtilizationModel createUtilizationModel(final int vm, double schedulingInterval) {
+        if (vm < 0 || vm >= vmCount) {
+            throw new IndexOutOfBoundsException("Trace " + vm + " not in [0, " + vmCount + ")");
+        }
+        return new SampledUtilizationModel(schedulingInterval) {
+            @Override
+            protected double sample(int index) {
+                return PlanetLabTracePack.this.getUtilization(vm, index);
+            }
+        };
+    }
+
+    /**
+     * Converter entry point: {@code PlanetLabTracePack <traceFolder> <packFile>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: PlanetLabTracePack <traceFolder> <packFile>");
+            System.exit(1);
+        }
+        int count = pack(new File(args[0]), new File(args[1]));
+        System.out.println("Packed " + count + " traces into " + args[1]);
+    }
+}
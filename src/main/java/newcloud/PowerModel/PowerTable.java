@@ -0,0 +1,94 @@
+package newcloud.PowerModel;
+
+import org.cloudbus.cloudsim.power.models.PowerModel;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Precomputed power curve of a host type.
+ * <p>
+ * The SPECpower models are piecewise linear between the 10% utilization
+ * steps, so sampling them at 0.1% resolution and interpolating between
+ * neighbouring entries reproduces them exactly (up to rounding) with one
+ * multiply-add per lookup, without the model's bounds checks and
+ * floor/ceil arithmetic.
+ * </p>
+ * <p>
+ * {@link #getEnergy(double, double, double)} is the closed form of
+ * PowerHost.getEnergyLinearInterpolation: the trapezoid between the power at
+ * the start and end utilization, and no energy for a host that was idle at
+ * the start of the interval.
+ * </p>
+ */
+public final class PowerTable {
+
+    /** Table steps over utilization [0, 1]; 1000 gives 0.1% resolution. */
+    public static final int STEPS = 1000;
+
+    /** Tables shared per model instance. */
+    private static final Map<PowerModel, PowerTable> TABLES = new IdentityHashMap<>();
+
+    /** power[i] is the power (W) at utilization i / STEPS. */
+    private final double[] power = new double[STEPS + 1];
+
+    private PowerTable(PowerModel model) {
+        for (int i = 0; i <= STEPS; i++) {
+            power[i] = model.getPower((double) i / STEPS);
+        }
+    }
+
+    /**
+     * The table of a power model, built on first use. Models are compared by
+     * identity, so hosts sharing a model instance share its table.
+     *
+     * @param model the power model
+     * @return the table for that model
+     */
+    public static synchronized PowerTable of(PowerModel model) {
+        PowerTable table = TABLES.get(model);
+        if (table == null) {
+            table = new PowerTable(model);
+            TABLES.put(model, table);
+        }
+        return table;
+    }
+
+    /**
+     * Power at a CPU utilization.
+     *
+     * @param utilization CPU utilization in [0, 1]
+     * @return power in Watts
+     * @throws IllegalArgumentException if utilization is outside [0, 1]
+     */
+    public double getPower(double utilization) {
+        if (utilization < 0 || utilization > 1) {
+            throw new IllegalArgumentException("Utilization value must be between 0 and 1");
+        }
+        double position = utilization * STEPS;
+        int index = (int) position;
+        if (index >= STEPS) {
+            return power[STEPS];
+        }
+        double fraction = position - index;
+        return power[index] + (power[index + 1] - power[index]) * fraction;
+    }
+
+    /**
+     * Energy over an interval in which utilization changes linearly,
+     * equivalent to PowerHost.getEnergyLinearInterpolation.
+     *
+     * @param fromUtilization utilization at the start of the interval
+     * @param toUtilization   utilization at the end of the interval
+     * @param time            interval length in seconds
+     * @return energy in W*sec
+     */
+    public double getEnergy(double fromUtilization, double toUtilization, double time) {
+        if (fromUtilization == 0) {
+            return 0;
+        }
+        double fromPower = getPower(fromUtilization);
+        double toPower = getPower(toUtilization);
+        return (fromPower + (toPower - fromPower) / 2) * time;
+    }
+}
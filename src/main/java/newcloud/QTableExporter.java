@@ -0,0 +1,139 @@
+package newcloud;
+
+import newcloud.policy.QTable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming Q-table snapshots, as CSV or as a columnar binary file.
+ * <p>
+ * Both writers go through a fixed {@link #BUFFER_BYTES} buffer and walk the
+ * table row by row (or column by column), so exporting needs no memory
+ * beyond the table itself and has no row or column limit.
+ * </p>
+ * <p>
+ * CSV: a header {@code state,a0,a1,...}, then one line per state in row id
+ * order. Values are written with {@link Double#toString(double)}, so they
+ * parse back exactly.
+ * </p>
+ * <p>
+ * Columnar binary, for loading one action's values without reading the rest:
+ * </p>
+ * <pre>
+ *   int    MAGIC ("QCOL")
+ *   int    VERSION
+ *   int    rows
+ *   int    numActions
+ *   UTF    state key, per row in row id order
+ *   double values[numActions][rows]          (column-major)
+ * </pre>
+ */
+public final class QTableExporter {
+
+    /** Write buffer size in bytes. */
+    public static final int BUFFER_BYTES = 1 << 16;
+
+    /** Columnar file magic, "QCOL" in ASCII. */
+    public static final int MAGIC = 0x51434F4C;
+
+    public static final int VERSION = 1;
+
+    private QTableExporter() {
+    }
+
+    /** Write a CSV snapshot of a table to a file, replacing it. */
+    public static void writeCsv(QTable table, File file) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_BYTES)) {
+            writeCsv(table, out);
+        }
+    }
+
+    /** Write a CSV snapshot of a table; the writer is not closed. */
+    public static void writeCsv(QTable table, Writer out) throws IOException {
+        StringBuilder line = new StringBuilder("state");
+        for (int a = 0; a < table.numActions(); a++) {
+            line.append(",a").append(a);
+        }
+        out.write(line.append('\n').toString());
+        for (int s = 0; s < table.size(); s++) {
+            line.setLength(0);
+            line.append(table.stateKey(s));
+            for (int a = 0; a < table.numActions(); a++) {
+                line.append(',').append(table.get(s, a));
+            }
+            out.write(line.append('\n').toString());
+        }
+    }
+
+    /** Write a columnar binary snapshot of a table to a file, replacing it. */
+    public static void writeColumnar(QTable table, File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file), BUFFER_BYTES))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(table.size());
+            out.writeInt(table.numActions());
+            for (int s = 0; s < table.size(); s++) {
+                out.writeUTF(table.stateKey(s));
+            }
+            for (int a = 0; a < table.numActions(); a++) {
+                for (int s = 0; s < table.size(); s++) {
+                    out.writeDouble(table.get(s, a));
+                }
+            }
+        }
+    }
+
+    /**
+     * Load a columnar snapshot.
+     *
+     * @param file a file written by {@link #writeColumnar(QTable, File)}
+     * @return a new table with the snapshot's states and values
+     */
+    public static QTable readColumnar(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), BUFFER_BYTES))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a columnar Q-table (bad magic): " + file.getPath());
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported columnar Q-table version " + version + ": " + file.getPath());
+            }
+            int rows = in.readInt();
+            int numActions = in.readInt();
+            // Each row takes at least a key length and its values
+            if (rows < 0 || numActions <= 0 || rows > file.length() / (2 + 8L * numActions)) {
+                throw new IOException("Corrupt columnar Q-table header: " + file.getPath());
+            }
+            QTable table = new QTable(numActions, rows);
+            for (int s = 0; s < rows; s++) {
+                table.rowFor(in.readUTF());
+            }
+            if (table.size() != rows) {
+                throw new IOException("Duplicate state keys in columnar Q-table: " + file.getPath());
+            }
+            for (int a = 0; a < numActions; a++) {
+                for (int s = 0; s < rows; s++) {
+                    table.set(s, a, in.readDouble());
+                }
+            }
+            return table;
+        } catch (EOFException e) {
+            throw new IOException("Truncated columnar Q-table: " + file.getPath(), e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package newcloud;
+
+import java.util.Random;
+
+import static newcloud.Constants.RANDOM_SEED;
+
+/**
+ * Random number generators for the placement policies.
+ * <p>
+ * Without Constants.RANDOM_SEED every generator is seeded from the clock, as
+ * {@code new Random()} is. With a seed, the n-th generator created in a JVM
+ * gets a seed derived from RANDOM_SEED and n, so a run that creates its
+ * policies in the same order (every harness does) makes the same choices.
+ * </p>
+ */
+public final class RandomSource {
+
+    private static long created;
+
+    private RandomSource() {
+    }
+
+    /** A new generator; see the class comment for how it is seeded. */
+    public static synchronized Random create() {
+        long stream = created++;
+        return RANDOM_SEED == null ? new Random() : new Random(seedFor(RANDOM_SEED, stream));
+    }
+
+    /** The seed of the given generator of a seeded run. */
+    static long seedFor(long seed, long stream) {
+        // SplitMix64 finalizer, so that neighbouring streams are uncorrelated
+        long z = seed + (stream + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,43 @@
+package newcloud;
+
+import org.cloudbus.cloudsim.UtilizationModel;
+
+/**
+ * Utilization model over a fixed series of samples taken every scheduling
+ * interval. Interpolates linearly between samples, matching
+ * UtilizationModelPlanetLabInMemory, so subclasses only decide where the
+ * samples are stored.
+ */
+public abstract class SampledUtilizationModel implements UtilizationModel {
+
+    private final double schedulingInterval;
+
+    protected SampledUtilizationModel(double schedulingInterval) {
+        this.schedulingInterval = schedulingInterval;
+    }
+
+    /**
+     * The utilization at a sample index, in [0, 1].
+     *
+     * @param index the sample index; time / schedulingInterval
+     * @return the utilization
+     */
+    protected abstract double sample(int index);
+
+    @Override
+    public double getUtilization(double time) {
+        if (time % schedulingInterval == 0) {
+            return sample((int) time / (int) schedulingInterval);
+        }
+        int time1 = (int) Math.floor(time / schedulingInterval);
+        int time2 = (int) Math.ceil(time / schedulingInterval);
+        double utilization1 = sample(time1);
+        double utilization2 = sample(time2);
+        double delta = (utilization2 - utilization1) / ((time2 - time1) * schedulingInterval);
+        return utilization1 + delta * (time - time1 * schedulingInterval);
+    }
+
+    public double getSchedulingInterval() {
+        return schedulingInterval;
+    }
+}
@@ -0,0 +1,118 @@
+package newcloud;
+
+import org.cloudbus.cloudsim.Log;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Leveled logging for the simulator.
+ * <p>
+ * The level is set once per run with the system property
+ * "cloudsim.log.level" (OFF, ERROR, WARN, INFO, DEBUG or TRACE) and
+ * defaults to WARN, so a run prints nothing but problems. CloudSim's own
+ * {@link Log} output is detailed tracing and is only enabled at DEBUG and
+ * above.
+ * </p>
+ * <p>
+ * Messages use "{}" placeholders and are only formatted when their level is
+ * enabled. {@link #LEVEL} is a static final field, so the JIT folds
+ * {@link #isEnabled(Level)} to a constant; hot paths guard their calls with
+ * it so that disabled messages do not even box their arguments. ERROR and
+ * WARN go to standard error, the rest to standard output.
+ * </p>
+ */
+public final class SimLog {
+
+    public enum Level {
+        OFF, ERROR, WARN, INFO, DEBUG, TRACE;
+
+        /** Parse a level name, ignoring case. */
+        public static Level parse(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown log level " + name
+                        + ", expected one of OFF, ERROR, WARN, INFO, DEBUG, TRACE");
+            }
+        }
+    }
+
+    /** The level of this run. */
+    public static final Level LEVEL = Level.parse(System.getProperty("cloudsim.log.level", "WARN"));
+
+    static {
+        Log.setDisabled(!isEnabled(Level.DEBUG));
+    }
+
+    private SimLog() {
+    }
+
+    /** Whether messages of the given level are written. */
+    public static boolean isEnabled(Level level) {
+        return enabled(level, LEVEL);
+    }
+
+    static boolean enabled(Level level, Level threshold) {
+        return level != Level.OFF && level.ordinal() <= threshold.ordinal();
+    }
+
+    public static void error(String format, Object... args) {
+        if (isEnabled(Level.ERROR)) {
+            write(Level.ERROR, format(format, args));
+        }
+    }
+
+    public static void warn(String format, Object... args) {
+        if (isEnabled(Level.WARN)) {
+            write(Level.WARN, format(format, args));
+        }
+    }
+
+    public static void info(String format, Object... args) {
+        if (isEnabled(Level.INFO)) {
+            write(Level.INFO, format(format, args));
+        }
+    }
+
+    public static void debug(String format, Object... args) {
+        if (isEnabled(Level.DEBUG)) {
+            write(Level.DEBUG, format(format, args));
+        }
+    }
+
+    public static void trace(String format, Object... args) {
+        if (isEnabled(Level.TRACE)) {
+            write(Level.TRACE, format(format, args));
+        }
+    }
+
+    /** Write a message built only if the level is enabled. */
+    public static void log(Level level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            write(level, message.get());
+        }
+    }
+
+    private static void write(Level level, String message) {
+        PrintStream out = level.ordinal() <= Level.WARN.ordinal() ? System.err : System.out;
+        out.println(message);
+    }
+
+    /** Replace each "{}" in the format with the next argument. */
+    static String format(String format, Object[] args) {
+        if (args == null || args.length == 0) {
+            return format;
+        }
+        StringBuilder message = new StringBuilder(format.length() + 16 * args.length);
+        int from = 0;
+        int arg = 0;
+        int at;
+        while (arg < args.length && (at = format.indexOf("{}", from)) >= 0) {
+            message.append(format, from, at).append(args[arg++]);
+            from = at + 2;
+        }
+        return message.append(format, from, format.length()).toString();
+    }
+}
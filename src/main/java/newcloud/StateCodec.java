@@ -0,0 +1,59 @@
+package newcloud;
+
+/**
+ * Packed integer encoding of the feature-based datacenter state.
+ * <p>
+ * The state is three features, each discretized into {@link #BINS} bins
+ * (average CPU utilization, active host ratio, VM density). They are packed
+ * as {@code cpuBin * BINS^2 + activeBin * BINS + vmBin}, which gives a dense
+ * code in [0, {@link #STATE_COUNT}) that can index an array directly.
+ * {@link #decode(int)} turns a code back into the
+ * {@code "cpuBin_activeBin_vmBin"} key used for reporting.
+ * </p>
+ */
+public final class StateCodec {
+
+    /** Number of bins per feature. */
+    public static final int BINS = 10;
+
+    /** Number of distinct state codes. */
+    public static final int STATE_COUNT = BINS * BINS * BINS;
+
+    private StateCodec() {
+        // Utility class; prevent instantiation
+    }
+
+    /**
+     * Pack three feature bins into a state code.
+     *
+     * @param cpuBin    average CPU utilization bin [0, BINS-1]
+     * @param activeBin active host ratio bin [0, BINS-1]
+     * @param vmBin     VM density bin [0, BINS-1]
+     * @return the state code
+     */
+    public static int encode(int cpuBin, int activeBin, int vmBin) {
+        return (cpuBin * BINS + activeBin) * BINS + vmBin;
+    }
+
+    public static int cpuBin(int code) {
+        return code / (BINS * BINS);
+    }
+
+    public static int activeBin(int code) {
+        return (code / BINS) % BINS;
+    }
+
+    public static int vmBin(int code) {
+        return code % BINS;
+    }
+
+    /**
+     * Decode a state code into its {@code "cpuBin_activeBin_vmBin"} key.
+     *
+     * @param code the state code
+     * @return the string key
+     */
+    public static String decode(int code) {
+        return cpuBin(code) + "_" + activeBin(code) + "_" + vmBin(code);
+    }
+}
@@ -1,9 +1,10 @@
 package newcloud.Test;
 
-import newcloud.executedata.*;
+import newcloud.Constants;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static newcloud.Constants.Iteration;
 
@@ -11,6 +12,17 @@ import static newcloud.Constants.Iteration;
  * Compares energy consumption across Q-Learning(Lambda), Q-Learning,
  * Greedy, and Q-Learning with initialization strategies.
  * <p>
+ * The four algorithms run side by side in separate worker JVMs through
+ * {@link ParallelRunner}.
+ * </p>
+ * <p>
+ * Each algorithm's series now holds its own runs only. When they all ran in
+ * one JVM, every harness returned the same static PowerDatacenterRL.allpower
+ * list, so the point counts and averages printed for the later algorithms
+ * covered the earlier ones' runs too. Output from before the switch to
+ * worker JVMs is not comparable with the current output.
+ * </p>
+ * <p>
  * Results are printed to stdout. MATLAB plotting has been removed;
  * use the raw data with any plotting tool (matplotlib, gnuplot, etc.).
  * </p>
@@ -22,20 +34,20 @@ public class AlgorithmCompare {
             System.out.println("=== Algorithm Comparison ===");
             System.out.println("Iterations: " + Iteration);
 
-            LearningScheduleTest learningTest = new LearningScheduleTest();
-            List<Double> learningPower = learningTest.execute();
-            System.out.println("\nQ-Learning power data: " + learningPower.size() + " points");
+            ParallelRunner runner = new ParallelRunner();
+            ParallelRunner.Job learningJob = runner.add("Learning", Constants.inputFolder);
+            ParallelRunner.Job lamdaJob = runner.add("LearningLamda", Constants.inputFolder);
+            ParallelRunner.Job greedyJob = runner.add("Greedy", Constants.inputFolder);
+            ParallelRunner.Job initJob = runner.add("LearningAndInit", Constants.inputFolder);
+            Map<ParallelRunner.Job, List<Double>> results = runner.run();
 
-            LearningLamdaScheduleTest lamdaTest = new LearningLamdaScheduleTest();
-            List<Double> lamdaPower = lamdaTest.execute();
+            List<Double> learningPower = results.get(learningJob);
+            System.out.println("\nQ-Learning power data: " + learningPower.size() + " points");
+            List<Double> lamdaPower = results.get(lamdaJob);
             System.out.println("\nQ-Learning(Lambda) power data: " + lamdaPower.size() + " points");
-
-            GreedyScheduleTest greedyTest = new GreedyScheduleTest();
-            List<Double> greedyPower = greedyTest.execute();
+            List<Double> greedyPower = results.get(greedyJob);
             System.out.println("\nGreedy power data: " + greedyPower.size() + " points");
-
-            LearningAndInitScheduleTest initTest = new LearningAndInitScheduleTest();
-            List<Double> initPower = initTest.execute();
+            List<Double> initPower = results.get(initJob);
             System.out.println("\nQ-Learning(Init) power data: " + initPower.size() + " points");
 
             System.out.println("\n=== Average Results ===");
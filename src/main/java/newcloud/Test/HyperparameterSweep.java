@@ -0,0 +1,345 @@
+package newcloud.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Grid or random search over the RL hyperparameters of a harness.
+ * <p>
+ * Each trial runs in its own worker JVM through {@link ParallelRunner}, with
+ * its parameters passed as the "cloudsim.rl.*" system properties read by
+ * Constants (gamma, alpha, lambda and epsilon decay). Lower power is better;
+ * a trial is scored by the lowest power it recorded.
+ * </p>
+ * <p>
+ * Early stopping: once a running trial has recorded at least
+ * {@link #getMinIterations()} values, it is stopped if its best value so far
+ * is more than {@link #getMargin()} (a fraction) above the best value any
+ * trial had reached after the same number of iterations. Stopped trials are
+ * ranked after the finished ones.
+ * </p>
+ * <p>
+ * Command line:
+ * {@code HyperparameterSweep <algorithm> <inputFolder> <results.csv> [options] name=v1,v2,...}
+ * where name is one of gamma, alpha, lambda, epsilonDecay. Options:
+ * {@code --random N} draws N trials uniformly between the smallest and largest
+ * listed value of each parameter instead of taking the full grid;
+ * {@code --seed S}, {@code --margin M} and {@code --min-iterations K}.
+ * </p>
+ */
+public class HyperparameterSweep {
+
+    /** Sweepable parameter names and the system property each one sets. */
+    public static final Map<String, String> PARAMETERS = new LinkedHashMap<>();
+
+    static {
+        PARAMETERS.put("gamma", "cloudsim.rl.gamma");
+        PARAMETERS.put("alpha", "cloudsim.rl.alpha");
+        PARAMETERS.put("lambda", "cloudsim.rl.lambda");
+        PARAMETERS.put("epsilonDecay", "cloudsim.rl.epsilon.decay");
+    }
+
+    /** How often running trials are checked, in milliseconds. */
+    private static final long POLL_MILLIS = 1000;
+
+    /** One parameter assignment and what it achieved. */
+    public static class Trial {
+        private final Map<String, Double> parameters;
+        List<Double> series = Collections.emptyList();
+        boolean stopped;
+
+        Trial(Map<String, Double> parameters) {
+            this.parameters = parameters;
+        }
+
+        public Map<String, Double> getParameters() {
+            return parameters;
+        }
+
+        public List<Double> getSeries() {
+            return series;
+        }
+
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        /** Lowest recorded power, or infinity if none was recorded. */
+        public double getBest() {
+            return series.isEmpty() ? Double.POSITIVE_INFINITY : Collections.min(series);
+        }
+    }
+
+    private final String algorithm;
+    private final String inputFolder;
+    private final List<Trial> trials = new ArrayList<>();
+    private double margin = 0.1;
+    private int minIterations = 10;
+    private int workers = ParallelRunner.DEFAULT_WORKERS;
+
+    /** bestAt.get(k - 1) is the lowest running minimum over the first k values of any trial. */
+    private final List<Double> bestAt = new ArrayList<>();
+
+    public HyperparameterSweep(String algorithm, String inputFolder) {
+        ParallelRunner.harnessClass(algorithm);
+        this.algorithm = algorithm;
+        this.inputFolder = inputFolder;
+    }
+
+    public double getMargin() {
+        return margin;
+    }
+
+    /** Stop trials trailing the best by more than this fraction; infinity disables. */
+    public void setMargin(double margin) {
+        if (!(margin >= 0)) {
+            throw new IllegalArgumentException("Margin must be non-negative: " + margin);
+        }
+        this.margin = margin;
+    }
+
+    public int getMinIterations() {
+        return minIterations;
+    }
+
+    /** Values a trial records before it can be stopped early. */
+    public void setMinIterations(int minIterations) {
+        if (minIterations < 1) {
+            throw new IllegalArgumentException("Minimum iterations must be at least 1: " + minIterations);
+        }
+        this.minIterations = minIterations;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public List<Trial> getTrials() {
+        return trials;
+    }
+
+    /**
+     * Add every combination of the given parameter values.
+     *
+     * @param values parameter name to the values to try
+     */
+    public void addGrid(Map<String, double[]> values) {
+        List<String> names = checkNames(values);
+        int[] choice = new int[names.size()];
+        while (true) {
+            Map<String, Double> parameters = new LinkedHashMap<>();
+            for (int p = 0; p < names.size(); p++) {
+                parameters.put(names.get(p), values.get(names.get(p))[choice[p]]);
+            }
+            trials.add(new Trial(parameters));
+            // Advance the mixed-radix counter, last parameter fastest
+            int p = names.size() - 1;
+            while (p >= 0 && ++choice[p] == values.get(names.get(p)).length) {
+                choice[p] = 0;
+                p--;
+            }
+            if (p < 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Add trials drawn uniformly from parameter ranges.
+     *
+     * @param ranges parameter name to {min, max}
+     * @param count  number of trials
+     * @param random source of the draws
+     */
+    public void addRandom(Map<String, double[]> ranges, int count, Random random) {
+        List<String> names = checkNames(ranges);
+        for (int t = 0; t < count; t++) {
+            Map<String, Double> parameters = new LinkedHashMap<>();
+            for (String name : names) {
+                double[] range = ranges.get(name);
+                parameters.put(name, range[0] + (range[1] - range[0]) * random.nextDouble());
+            }
+            trials.add(new Trial(parameters));
+        }
+    }
+
+    private static List<String> checkNames(Map<String, double[]> values) {
+        for (Map.Entry<String, double[]> entry : values.entrySet()) {
+            if (!PARAMETERS.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown parameter " + entry.getKey()
+                        + ", expected one of " + PARAMETERS.keySet());
+            }
+            if (entry.getValue().length == 0) {
+                throw new IllegalArgumentException("No values for parameter " + entry.getKey());
+            }
+        }
+        return new ArrayList<>(values.keySet());
+    }
+
+    /**
+     * Run every trial, stopping the ones that trail.
+     *
+     * @return the trials, best first
+     */
+    public List<Trial> run() throws IOException, InterruptedException {
+        ParallelRunner runner = new ParallelRunner(workers);
+        final Map<ParallelRunner.Job, Trial> byJob = new HashMap<>();
+        for (Trial trial : trials) {
+            ParallelRunner.Job job = runner.add(algorithm, inputFolder);
+            for (Map.Entry<String, Double> parameter : trial.getParameters().entrySet()) {
+                job.setProperty(PARAMETERS.get(parameter.getKey()), Double.toString(parameter.getValue()));
+            }
+            byJob.put(job, trial);
+        }
+        runner.setMonitor((job, progress) -> keepRunning(progress), POLL_MILLIS);
+
+        for (Map.Entry<ParallelRunner.Job, List<Double>> result : runner.run().entrySet()) {
+            Trial trial = byJob.get(result.getKey());
+            trial.series = result.getValue();
+            trial.stopped = result.getKey().isStopped();
+        }
+        return rank(trials);
+    }
+
+    /**
+     * Record a trial's progress and decide whether it may continue.
+     *
+     * @param progress the values the trial has recorded so far
+     * @return false if the trial trails the best by more than the margin
+     */
+    synchronized boolean keepRunning(List<Double> progress) {
+        double runningMin = Double.POSITIVE_INFINITY;
+        boolean trailing = false;
+        for (int k = 0; k < progress.size(); k++) {
+            runningMin = Math.min(runningMin, progress.get(k));
+            if (k == bestAt.size()) {
+                bestAt.add(runningMin);
+            } else if (runningMin < bestAt.get(k)) {
+                bestAt.set(k, runningMin);
+            }
+            if (k + 1 >= minIterations) {
+                trailing = runningMin > bestAt.get(k) * (1 + margin);
+            }
+        }
+        return !trailing;
+    }
+
+    /** Finished trials before stopped ones, each group by best value. */
+    static List<Trial> rank(List<Trial> trials) {
+        List<Trial> ranked = new ArrayList<>(trials);
+        ranked.sort((a, b) -> a.stopped != b.stopped
+                ? Boolean.compare(a.stopped, b.stopped)
+                : Double.compare(a.getBest(), b.getBest()));
+        return ranked;
+    }
+
+    /**
+     * Write ranked trials as CSV: rank, one column per parameter, iterations
+     * recorded, best and final power, and whether the trial was stopped.
+     */
+    static void writeCsv(List<Trial> ranked, File file) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (Trial trial : ranked) {
+            for (String name : trial.getParameters().keySet()) {
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+        }
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            StringBuilder header = new StringBuilder("rank");
+            for (String name : names) {
+                header.append(',').append(name);
+            }
+            out.println(header.append(",iterations,bestPower,finalPower,stopped"));
+            for (int r = 0; r < ranked.size(); r++) {
+                Trial trial = ranked.get(r);
+                StringBuilder row = new StringBuilder().append(r + 1);
+                for (String name : names) {
+                    Double value = trial.getParameters().get(name);
+                    row.append(',').append(value == null ? "" : format(value));
+                }
+                List<Double> series = trial.getSeries();
+                row.append(',').append(series.size())
+                        .append(',').append(series.isEmpty() ? "" : formatPower(trial.getBest()))
+                        .append(',').append(series.isEmpty() ? "" : formatPower(series.get(series.size() - 1)))
+                        .append(',').append(trial.isStopped());
+                out.println(row);
+            }
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.6g", value);
+    }
+
+    private static String formatPower(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: HyperparameterSweep <algorithm> <inputFolder> <results.csv> "
+                    + "[--random N] [--seed S] [--margin M] [--min-iterations K] name=v1,v2,...");
+            System.exit(1);
+        }
+        HyperparameterSweep sweep = new HyperparameterSweep(args[0], args[1]);
+        File output = new File(args[2]);
+        int randomTrials = 0;
+        long seed = System.currentTimeMillis();
+        Map<String, double[]> values = new LinkedHashMap<>();
+        for (int i = 3; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--random")) {
+                randomTrials = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--seed")) {
+                seed = Long.parseLong(args[++i]);
+            } else if (arg.equals("--margin")) {
+                sweep.setMargin(Double.parseDouble(args[++i]));
+            } else if (arg.equals("--min-iterations")) {
+                sweep.setMinIterations(Integer.parseInt(args[++i]));
+            } else {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Expected name=v1,v2,... but got " + arg);
+                }
+                String[] parts = arg.substring(eq + 1).split(",");
+                double[] list = new double[parts.length];
+                for (int v = 0; v < parts.length; v++) {
+                    list[v] = Double.parseDouble(parts[v]);
+                }
+                values.put(arg.substring(0, eq), list);
+            }
+        }
+        if (randomTrials > 0) {
+            Map<String, double[]> ranges = new LinkedHashMap<>();
+            for (Map.Entry<String, double[]> entry : values.entrySet()) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (double v : entry.getValue()) {
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+                ranges.put(entry.getKey(), new double[]{min, max});
+            }
+            sweep.addRandom(ranges, randomTrials, new Random(seed));
+        } else {
+            sweep.addGrid(values);
+        }
+
+        System.out.println("Running " + sweep.getTrials().size() + " trials of " + args[0]);
+        List<Trial> ranked = sweep.run();
+        writeCsv(ranked, output);
+        System.out.println("Best: " + ranked.get(0).getParameters() + " -> " + ranked.get(0).getBest());
+        System.out.println("Results written to " + output.getPath());
+    }
+}
@@ -0,0 +1,448 @@
+package newcloud.Test;
+
+import newcloud.Constants;
+import newcloud.datacenter.PowerDatacenterRL;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs (algorithm, workload) experiments in parallel, one JVM per experiment.
+ * <p>
+ * CloudSim keeps the simulation in static state, and so do the datacenters'
+ * power series, so two experiments cannot share a JVM at the same time.
+ * Each job is forked as a separate worker JVM with the parent's class path
+ * and "cloudsim.*" system properties; at most {@link #getWorkers()} workers
+ * run at once. A worker runs one newcloud.executedata harness, writes its
+ * power series to a file and exits, and the parent reads the series back.
+ * Worker output goes to a log file per job, which is kept when a worker
+ * fails. Each finished job also carries its worker's wall time, throughput,
+ * heap and GC figures; see {@link Job#getStats()}.
+ * </p>
+ * <p>
+ * Workers also stream every power value as it is recorded, so that a
+ * {@link Monitor} can follow the running jobs and stop the ones not worth
+ * finishing.
+ * </p>
+ * <p>
+ * Algorithms are named after their harness: "Learning" runs
+ * LearningScheduleTest, "Greedy" runs GreedyScheduleTest, and so on.
+ * </p>
+ */
+public class ParallelRunner {
+
+    /**
+     * Default number of concurrent workers. Can be overridden via the system
+     * property "cloudsim.workers".
+     */
+    public static final int DEFAULT_WORKERS = Integer.getInteger(
+            "cloudsim.workers", Runtime.getRuntime().availableProcessors());
+
+    /** Extra JVM options for the workers, space separated (e.g. "-Xmx2g"). */
+    public static final String WORKER_OPTS_PROPERTY = "cloudsim.worker.opts";
+
+    /**
+     * Per-phase profile file (Constants.PROFILE_FILE). Workers write to their
+     * own file, named after the parent's with the job appended, e.g.
+     * "profile-0-Learning.csv" for "profile.csv".
+     */
+    private static final String PROFILE_PROPERTY = "cloudsim.profile";
+
+    /**
+     * Checkpoint file (Constants.CHECKPOINT_FILE), renamed per job like the
+     * profile. Concurrent workers would otherwise overwrite one another's
+     * checkpoints, and a resumed job could load another algorithm's table.
+     * Jobs are named after their position and algorithm, so a driver that
+     * adds its jobs in the same order resumes each from its own file.
+     */
+    private static final String CHECKPOINT_PROPERTY = "cloudsim.checkpoint";
+
+    private static final String HARNESS_PACKAGE = "newcloud.executedata.";
+    private static final String HARNESS_SUFFIX = "ScheduleTest";
+
+    /** One experiment: a harness run on a workload folder. */
+    public static class Job {
+        private final String algorithm;
+        private final String inputFolder;
+        private final Map<String, String> properties = new LinkedHashMap<>();
+        private volatile boolean stopped;
+        private volatile Map<String, Double> stats = new LinkedHashMap<>();
+
+        Job(String algorithm, String inputFolder) {
+            this.algorithm = algorithm;
+            this.inputFolder = inputFolder;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public String getInputFolder() {
+            return inputFolder;
+        }
+
+        /**
+         * Set a system property for this job's worker only, overriding the
+         * parent's value.
+         */
+        public Job setProperty(String key, String value) {
+            properties.put(key, value);
+            return this;
+        }
+
+        public Map<String, String> getProperties() {
+            return properties;
+        }
+
+        /**
+         * The worker's measurements once the job has finished, keyed as
+         * described in {@link WorkerStats}; empty for a stopped job.
+         */
+        public Map<String, Double> getStats() {
+            return stats;
+        }
+
+        /** Whether the monitor stopped this job before it finished. */
+        public boolean isStopped() {
+            return stopped;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + "@" + inputFolder;
+        }
+    }
+
+    /** Follows running jobs; see {@link #setMonitor(Monitor, long)}. */
+    public interface Monitor {
+        /**
+         * Called periodically with the power values a running job has
+         * recorded so far, and once more with the full series when it
+         * finishes. Called from several threads at once.
+         *
+         * @return false to stop the job now
+         */
+        boolean keepRunning(Job job, List<Double> progress);
+    }
+
+    private final int workers;
+    private final List<Job> jobs = new ArrayList<>();
+    private Monitor monitor;
+    private long pollMillis;
+
+    public ParallelRunner() {
+        this(DEFAULT_WORKERS);
+    }
+
+    public ParallelRunner(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Worker count must be at least 1: " + workers);
+        }
+        this.workers = workers;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public List<Job> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Follow running jobs with a monitor.
+     *
+     * @param monitor    the monitor, or null for none
+     * @param pollMillis how often each running job is reported
+     */
+    public void setMonitor(Monitor monitor, long pollMillis) {
+        if (pollMillis <= 0) {
+            throw new IllegalArgumentException("Poll interval must be positive: " + pollMillis);
+        }
+        this.monitor = monitor;
+        this.pollMillis = pollMillis;
+    }
+
+    /**
+     * Queue an experiment.
+     *
+     * @param algorithm   harness name, e.g. "Learning" or "Greedy"
+     * @param inputFolder workload trace folder (or trace pack)
+     * @return the queued job, used as the key of its result
+     * @throws IllegalArgumentException if there is no harness for the algorithm
+     */
+    public Job add(String algorithm, String inputFolder) {
+        harnessClass(algorithm);
+        Job job = new Job(algorithm, inputFolder);
+        jobs.add(job);
+        return job;
+    }
+
+    /**
+     * Run every queued job and wait for all of them.
+     *
+     * @return each job's power series, in the order the jobs were added;
+     * for a job the monitor stopped, the values recorded before it stopped
+     * @throws IOException if a worker could not be started or failed
+     */
+    public Map<Job, List<Double>> run() throws IOException, InterruptedException {
+        final File workDir = createTempDir();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(workers, Math.max(1, jobs.size())));
+        try {
+            List<Future<List<Double>>> futures = new ArrayList<>();
+            for (int i = 0; i < jobs.size(); i++) {
+                final Job job = jobs.get(i);
+                final String name = i + "-" + job.getAlgorithm();
+                futures.add(pool.submit(() -> runWorker(job, workDir, name)));
+            }
+            Map<Job, List<Double>> results = new LinkedHashMap<>();
+            for (int i = 0; i < jobs.size(); i++) {
+                try {
+                    results.put(jobs.get(i), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("Worker for " + jobs.get(i) + " failed", cause);
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+            deleteIfEmpty(workDir);
+        }
+    }
+
+    /** Fork one worker JVM for a job and read back its power series. */
+    private List<Double> runWorker(Job job, File workDir, String name) throws IOException, InterruptedException {
+        File output = new File(workDir, name + ".txt");
+        File progress = progressFile(output);
+        File statsFile = statsFile(output);
+        File log = new File(workDir, name + ".log");
+        ProcessBuilder builder = new ProcessBuilder(workerCommand(job, output));
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(log);
+        Process process = builder.start();
+        try {
+            if (monitor != null) {
+                while (!process.waitFor(pollMillis, TimeUnit.MILLISECONDS)) {
+                    if (!monitor.keepRunning(job, readProgress(progress))) {
+                        process.destroy();
+                        process.waitFor();
+                        job.stopped = true;
+                        List<Double> partial = readProgress(progress);
+                        progress.delete();
+                        log.delete();
+                        return partial;
+                    }
+                }
+            }
+            process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroy();
+            throw e;
+        }
+        int exit = process.exitValue();
+        if (exit != 0 || !output.isFile()) {
+            throw new IOException("Worker for " + job + " exited with " + exit + ", see " + log.getPath());
+        }
+        List<Double> series = readSeries(output);
+        job.stats = WorkerStats.read(statsFile);
+        if (monitor != null) {
+            monitor.keepRunning(job, series);
+        }
+        output.delete();
+        progress.delete();
+        statsFile.delete();
+        log.delete();
+        return series;
+    }
+
+    /** The command line of a worker JVM. */
+    List<String> workerCommand(Job job, File output) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String opts = System.getProperty(WORKER_OPTS_PROPERTY, "").trim();
+        if (!opts.isEmpty()) {
+            for (String opt : opts.split("\\s+")) {
+                command.add(opt);
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("cloudsim.") && !key.equals(WORKER_OPTS_PROPERTY)
+                    && !job.getProperties().containsKey(key)) {
+                String value = System.getProperty(key);
+                if (key.equals(PROFILE_PROPERTY) || key.equals(CHECKPOINT_PROPERTY)) {
+                    value = perJobFile(value, output);
+                }
+                command.add("-D" + key + "=" + value);
+            }
+        }
+        for (Map.Entry<String, String> property : job.getProperties().entrySet()) {
+            command.add("-D" + property.getKey() + "=" + property.getValue());
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ParallelRunner.class.getName());
+        command.add(job.getAlgorithm());
+        command.add(job.getInputFolder());
+        command.add(output.getPath());
+        return command;
+    }
+
+    /** A file name for one job: the job's output name inserted before the extension. */
+    static String perJobFile(String file, File output) {
+        String job = output.getName();
+        if (job.endsWith(".txt")) {
+            job = job.substring(0, job.length() - 4);
+        }
+        int dot = file.lastIndexOf('.');
+        if (dot <= file.lastIndexOf(File.separatorChar) + 1) {
+            return file + "-" + job;
+        }
+        return file.substring(0, dot) + "-" + job + file.substring(dot);
+    }
+
+    static Class<?> harnessClass(String algorithm) {
+        try {
+            return Class.forName(HARNESS_PACKAGE + algorithm + HARNESS_SUFFIX);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("No harness for algorithm: " + algorithm);
+        }
+    }
+
+    /** Write a power series, one value per line. */
+    static void writeSeries(List<Double> series, File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (Double value : series) {
+                writer.write(Double.toString(value));
+                writer.newLine();
+            }
+        }
+    }
+
+    /** Read a power series written by {@link #writeSeries(List, File)}. */
+    static List<Double> readSeries(File file) throws IOException {
+        List<Double> series = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    series.add(Double.parseDouble(line));
+                }
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Read the values a running worker has streamed so far. A line still
+     * being written is left for the next read.
+     */
+    static List<Double> readProgress(File file) throws IOException {
+        List<Double> progress = new ArrayList<>();
+        if (!file.isFile()) {
+            return progress;
+        }
+        String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        int end = text.lastIndexOf('\n');
+        for (String line : text.substring(0, end + 1).split("\n")) {
+            if (!line.trim().isEmpty()) {
+                progress.add(Double.parseDouble(line.trim()));
+            }
+        }
+        return progress;
+    }
+
+    private static File progressFile(File output) {
+        return new File(output.getPath() + ".progress");
+    }
+
+    private static File statsFile(File output) {
+        return new File(output.getPath() + ".stats");
+    }
+
+    private static File createTempDir() throws IOException {
+        File dir = File.createTempFile("cloudsim-runner", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Cannot create worker directory " + dir.getPath());
+        }
+        return dir;
+    }
+
+    private static void deleteIfEmpty(File dir) {
+        String[] left = dir.list();
+        if (left != null && left.length == 0) {
+            dir.delete();
+        }
+    }
+
+    /** The exception thrown by a reflectively called constructor or method. */
+    static Exception unwrap(InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause instanceof Exception ? (Exception) cause : e;
+    }
+
+    /**
+     * Worker entry point: {@code ParallelRunner <algorithm> <inputFolder> <outputFile>}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 3) {
+            System.err.println("Usage: ParallelRunner <algorithm> <inputFolder> <outputFile>");
+            System.exit(1);
+        }
+        Constants.inputFolder = args[1];
+        Class<?> harness = harnessClass(args[0]);
+        Method execute = harness.getMethod("execute");
+        File output = new File(args[2]);
+        final PrintWriter progress = new PrintWriter(new FileWriter(progressFile(output)));
+        PowerDatacenterRL.powerListener = value -> {
+            progress.println(value);
+            progress.flush();
+        };
+        WorkerStats stats = new WorkerStats();
+        stats.start();
+        List<Double> series;
+        try {
+            @SuppressWarnings("unchecked")
+            List<Double> result = (List<Double>) execute.invoke(harness.getDeclaredConstructor().newInstance());
+            series = result;
+        } catch (InvocationTargetException e) {
+            // Fail with the harness's own exception, not the reflection wrapper
+            throw unwrap(e);
+        }
+        Map<String, Double> measured = stats.finish();
+        PowerDatacenterRL.powerListener = null;
+        progress.close();
+        WorkerStats.write(measured, statsFile(output));
+        File partial = new File(output.getPath() + ".part");
+        writeSeries(series, partial);
+        if (!partial.renameTo(output)) {
+            throw new IOException("Cannot write " + output.getPath());
+        }
+        // Exit explicitly in case a harness left a non-daemon thread behind
+        System.exit(0);
+    }
+}
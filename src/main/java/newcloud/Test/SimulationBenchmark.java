@@ -0,0 +1,254 @@
+package newcloud.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * End-to-end simulation throughput benchmark.
+ * <p>
+ * Runs every (algorithm, workload, seed) combination as a full harness run in
+ * its own worker JVM through {@link ParallelRunner}, with "cloudsim.seed" set
+ * so that the random policies make the same choices on every run. By default
+ * one worker runs at a time, so that the runs do not compete for cores or
+ * memory bandwidth. Each run is reported with the measurements of
+ * {@link WorkerStats} (wall time per iteration, placements and events per
+ * second, peak heap and GC time) and its final power.
+ * </p>
+ * <p>
+ * The report is CSV, or JSON if the file name ends in ".json".
+ * </p>
+ * <p>
+ * Command line:
+ * {@code SimulationBenchmark <report.csv|report.json> [options]}, with
+ * {@code --algorithms A,B,...} (default: every harness),
+ * {@code --workloads dir1,dir2,...} (default: the bundled datas/50 to
+ * datas/300), {@code --seeds S1,S2,...} (default 1),
+ * {@code --iterations N} (default: Constants.Iteration) and
+ * {@code --workers N} (default 1).
+ * </p>
+ */
+public class SimulationBenchmark {
+
+    public static final List<String> DEFAULT_ALGORITHMS = Arrays.asList(
+            "Learning", "LearningLamda", "LearningAndInit", "LearningAndNoConverge",
+            "Sarsa", "SarsaLamda", "Linear", "Greedy", "Fair", "Random");
+
+    public static final List<String> DEFAULT_WORKLOADS = Arrays.asList(
+            "src/main/resources/datas/50", "src/main/resources/datas/100",
+            "src/main/resources/datas/150", "src/main/resources/datas/200",
+            "src/main/resources/datas/250", "src/main/resources/datas/300");
+
+    /** One benchmarked run and its measurements. */
+    public static class Result {
+        private final String algorithm;
+        private final String workload;
+        private final long seed;
+        private final Map<String, Double> stats;
+        private final double finalPower;
+
+        Result(String algorithm, String workload, long seed, Map<String, Double> stats, double finalPower) {
+            this.algorithm = algorithm;
+            this.workload = workload;
+            this.seed = seed;
+            this.stats = stats;
+            this.finalPower = finalPower;
+        }
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public String getWorkload() {
+            return workload;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        /** The run's measurements, keyed as described in {@link WorkerStats}. */
+        public Map<String, Double> getStats() {
+            return stats;
+        }
+
+        /** Power recorded last, or NaN if none was recorded. */
+        public double getFinalPower() {
+            return finalPower;
+        }
+    }
+
+    private final List<String> algorithms;
+    private final List<String> workloads;
+    private final List<Long> seeds;
+    private int iterations;
+    private int workers = 1;
+
+    public SimulationBenchmark(List<String> algorithms, List<String> workloads, List<Long> seeds) {
+        if (algorithms.isEmpty() || workloads.isEmpty() || seeds.isEmpty()) {
+            throw new IllegalArgumentException("Need at least one algorithm, workload and seed");
+        }
+        for (String algorithm : algorithms) {
+            ParallelRunner.harnessClass(algorithm);
+        }
+        this.algorithms = algorithms;
+        this.workloads = workloads;
+        this.seeds = seeds;
+    }
+
+    /** Iterations per run, or 0 for Constants.Iteration. */
+    public void setIterations(int iterations) {
+        if (iterations < 0) {
+            throw new IllegalArgumentException("Iterations must not be negative: " + iterations);
+        }
+        this.iterations = iterations;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Run every combination.
+     *
+     * @return one result per run, by workload, then algorithm, then seed
+     */
+    public List<Result> run() throws IOException, InterruptedException {
+        ParallelRunner runner = new ParallelRunner(workers);
+        for (String workload : workloads) {
+            for (String algorithm : algorithms) {
+                for (long seed : seeds) {
+                    ParallelRunner.Job job = runner.add(algorithm, workload);
+                    job.setProperty("cloudsim.seed", Long.toString(seed));
+                    if (iterations > 0) {
+                        job.setProperty("cloudsim.iterations", Integer.toString(iterations));
+                    }
+                }
+            }
+        }
+        List<Result> results = new ArrayList<>();
+        for (Map.Entry<ParallelRunner.Job, List<Double>> run : runner.run().entrySet()) {
+            ParallelRunner.Job job = run.getKey();
+            List<Double> series = run.getValue();
+            long seed = Long.parseLong(job.getProperties().get("cloudsim.seed"));
+            results.add(new Result(job.getAlgorithm(), job.getInputFolder(), seed, job.getStats(),
+                    series.isEmpty() ? Double.NaN : series.get(series.size() - 1)));
+        }
+        return results;
+    }
+
+    /** Write results as CSV: algorithm, workload, seed, every stat, finalPower. */
+    static void writeCsv(List<Result> results, File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            StringBuilder header = new StringBuilder("algorithm,workload,seed");
+            for (String key : WorkerStats.KEYS) {
+                header.append(',').append(key);
+            }
+            out.println(header.append(",finalPower"));
+            for (Result result : results) {
+                StringBuilder row = new StringBuilder()
+                        .append(result.getAlgorithm())
+                        .append(',').append(result.getWorkload())
+                        .append(',').append(result.getSeed());
+                for (String key : WorkerStats.KEYS) {
+                    Double value = result.getStats().get(key);
+                    row.append(',').append(value == null ? "" : format(value));
+                }
+                out.println(row.append(',').append(format(result.getFinalPower())));
+            }
+        }
+    }
+
+    /** Write results as a JSON array with one object per run. */
+    static void writeJson(List<Result> results, File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println("[");
+            for (int r = 0; r < results.size(); r++) {
+                Result result = results.get(r);
+                StringBuilder object = new StringBuilder("  {")
+                        .append("\"algorithm\": ").append(quote(result.getAlgorithm()))
+                        .append(", \"workload\": ").append(quote(result.getWorkload()))
+                        .append(", \"seed\": ").append(result.getSeed());
+                for (String key : WorkerStats.KEYS) {
+                    Double value = result.getStats().get(key);
+                    object.append(", ").append(quote(key)).append(": ")
+                            .append(value == null ? "null" : jsonNumber(value));
+                }
+                object.append(", \"finalPower\": ").append(jsonNumber(result.getFinalPower())).append('}');
+                out.println(r + 1 < results.size() ? object.append(',') : object);
+            }
+            out.println("]");
+        }
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "";
+        }
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value)
+                : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String jsonNumber(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : format(value);
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static List<String> list(String arg) {
+        return Arrays.asList(arg.split(","));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: SimulationBenchmark <report.csv|report.json> [--algorithms A,B,...] "
+                    + "[--workloads dir1,dir2,...] [--seeds S1,S2,...] [--iterations N] [--workers N]");
+            System.exit(1);
+        }
+        File output = new File(args[0]);
+        List<String> algorithms = DEFAULT_ALGORITHMS;
+        List<String> workloads = DEFAULT_WORKLOADS;
+        List<Long> seeds = Arrays.asList(1L);
+        int iterations = 0;
+        int workers = 1;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--algorithms")) {
+                algorithms = list(args[++i]);
+            } else if (arg.equals("--workloads")) {
+                workloads = list(args[++i]);
+            } else if (arg.equals("--seeds")) {
+                seeds = new ArrayList<>();
+                for (String seed : list(args[++i])) {
+                    seeds.add(Long.parseLong(seed));
+                }
+            } else if (arg.equals("--iterations")) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--workers")) {
+                workers = Integer.parseInt(args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        SimulationBenchmark benchmark = new SimulationBenchmark(algorithms, workloads, seeds);
+        benchmark.setIterations(iterations);
+        benchmark.setWorkers(workers);
+
+        System.out.println("Running " + algorithms.size() * workloads.size() * seeds.size() + " benchmark runs");
+        List<Result> results = benchmark.run();
+        if (output.getName().endsWith(".json")) {
+            writeJson(results, output);
+        } else {
+            writeCsv(results, output);
+        }
+        System.out.println("Report written to " + output.getPath());
+    }
+}
@@ -1,40 +1,51 @@
 package newcloud.Test;
 
-import newcloud.Constants;
-import newcloud.executedata.*;
-
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Evaluates performance with varying numbers of VM placement requests.
  * Tests with different input folder sizes (50, 100, 150, 200, 250, 300 VMs).
+ * <p>
+ * Every (algorithm, size) pair runs in its own worker JVM through
+ * {@link ParallelRunner}, using up to "cloudsim.workers" cores.
+ * </p>
+ * <p>
+ * Each pair now starts from empty Q-tables and an empty power series. When
+ * they all ran in one JVM, the static tables carried training over from one
+ * size to the next, and the minimum printed for a pair was taken over the
+ * shared PowerDatacenterRL.allpower list, which held every earlier run.
+ * Output from before the switch to worker JVMs is not comparable with the
+ * current output.
+ * </p>
  */
 public class TaskCompare {
     public static void main(String[] args) {
         String baseFolder = "src/main/resources/datas/";
         String[] sizes = {"50", "100", "150", "200", "250", "300"};
+        String[] algorithms = {"Learning", "LearningLamda", "Greedy"};
+        String[] labels = {"Q-Learning", "Q-Learning(Lambda)", "Greedy"};
 
         try {
+            ParallelRunner runner = new ParallelRunner();
+            List<ParallelRunner.Job> jobs = new ArrayList<>();
             for (String size : sizes) {
-                System.out.println("\n=== Task size: " + size + " ===");
-                Constants.inputFolder = baseFolder + size;
-
-                LearningScheduleTest learningTest = new LearningScheduleTest();
-                List<Double> learningPower = learningTest.execute();
-                System.out.println("Q-Learning min power: " +
-                        (learningPower.isEmpty() ? "N/A" : Collections.min(learningPower)));
-
-                LearningLamdaScheduleTest lamdaTest = new LearningLamdaScheduleTest();
-                List<Double> lamdaPower = lamdaTest.execute();
-                System.out.println("Q-Learning(Lambda) min power: " +
-                        (lamdaPower.isEmpty() ? "N/A" : Collections.min(lamdaPower)));
+                for (String algorithm : algorithms) {
+                    jobs.add(runner.add(algorithm, baseFolder + size));
+                }
+            }
+            Map<ParallelRunner.Job, List<Double>> results = runner.run();
 
-                GreedyScheduleTest greedyTest = new GreedyScheduleTest();
-                List<Double> greedyPower = greedyTest.execute();
-                System.out.println("Greedy min power: " +
-                        (greedyPower.isEmpty() ? "N/A" : Collections.min(greedyPower)));
+            int job = 0;
+            for (String size : sizes) {
+                System.out.println("\n=== Task size: " + size + " ===");
+                for (String label : labels) {
+                    List<Double> power = results.get(jobs.get(job++));
+                    System.out.println(label + " min power: " +
+                            (power.isEmpty() ? "N/A" : Collections.min(power)));
+                }
             }
         } catch (Exception e) {
             System.out.println("Exception: " + e.toString());
@@ -0,0 +1,134 @@
+package newcloud.Test;
+
+import newcloud.datacenter.SimulationCounters;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Throughput and memory figures of one worker run, measured between
+ * {@link #start()} and {@link #finish()}.
+ * <p>
+ * Keys, in order: iterations; wallMillis; first, mean, median and max
+ * iteration time in milliseconds; placements and events with their rates
+ * per wall-clock second; peakHeapBytes, the sum of the heap pools' peak
+ * usage (an upper bound on the peak heap, as the pools need not peak
+ * together); and gcMillis and gcCount over all collectors.
+ * </p>
+ */
+class WorkerStats {
+
+    /** Stat names, in the order they are written. */
+    static final String[] KEYS = {
+            "iterations", "wallMillis",
+            "firstIterationMillis", "meanIterationMillis", "medianIterationMillis", "maxIterationMillis",
+            "placements", "placementsPerSecond", "events", "eventsPerSecond",
+            "peakHeapBytes", "gcMillis", "gcCount"};
+
+    private long startNanos;
+    private long gcMillis;
+    private long gcCount;
+
+    /** Reset the counters and peaks and start the clock. */
+    void start() {
+        SimulationCounters.reset();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+        gcMillis = totalGcMillis();
+        gcCount = totalGcCount();
+        startNanos = System.nanoTime();
+    }
+
+    /** Stop the clock and collect the stats. */
+    Map<String, Double> finish() {
+        long endNanos = System.nanoTime();
+        long[] iterations = SimulationCounters.iterationNanos(endNanos);
+        double wallSeconds = (endNanos - startNanos) / 1e9;
+
+        Map<String, Double> stats = new LinkedHashMap<>();
+        stats.put("iterations", (double) iterations.length);
+        stats.put("wallMillis", wallSeconds * 1e3);
+        long[] sorted = iterations.clone();
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long nanos : iterations) {
+            sum += nanos;
+        }
+        boolean any = iterations.length > 0;
+        stats.put("firstIterationMillis", any ? iterations[0] / 1e6 : 0);
+        stats.put("meanIterationMillis", any ? sum / 1e6 / iterations.length : 0);
+        stats.put("medianIterationMillis", any ? sorted[sorted.length / 2] / 1e6 : 0);
+        stats.put("maxIterationMillis", any ? sorted[sorted.length - 1] / 1e6 : 0);
+        stats.put("placements", (double) SimulationCounters.getPlacements());
+        stats.put("placementsPerSecond", SimulationCounters.getPlacements() / wallSeconds);
+        stats.put("events", (double) SimulationCounters.getEvents());
+        stats.put("eventsPerSecond", SimulationCounters.getEvents() / wallSeconds);
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        stats.put("peakHeapBytes", (double) peak);
+        stats.put("gcMillis", (double) (totalGcMillis() - gcMillis));
+        stats.put("gcCount", (double) (totalGcCount() - gcCount));
+        return stats;
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static long totalGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    /** Write stats as {@code key=value} lines. */
+    static void write(Map<String, Double> stats, File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            for (Map.Entry<String, Double> stat : stats.entrySet()) {
+                out.println(stat.getKey() + "=" + stat.getValue());
+            }
+        }
+    }
+
+    /** Read stats written by {@link #write(Map, File)}; empty if there is no file. */
+    static Map<String, Double> read(File file) throws IOException {
+        Map<String, Double> stats = new LinkedHashMap<>();
+        if (!file.isFile()) {
+            return stats;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int eq = line.indexOf('=');
+                if (eq > 0) {
+                    stats.put(line.substring(0, eq), Double.parseDouble(line.substring(eq + 1)));
+                }
+            }
+        }
+        return stats;
+    }
+}
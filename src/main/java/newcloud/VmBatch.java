@@ -0,0 +1,41 @@
+package newcloud;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Vm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payload of a {@link Constants#CREATE_VM_BATCH} event: VMs to place, each
+ * paired with the cloudlet to submit to it once it is placed.
+ */
+public class VmBatch {
+
+    private final List<Vm> vms = new ArrayList<>();
+    private final List<Cloudlet> cloudlets = new ArrayList<>();
+
+    /**
+     * Add a VM and the cloudlet bound to it.
+     *
+     * @param vm       the VM to place
+     * @param cloudlet the cloudlet to submit to it, or null
+     */
+    public void add(Vm vm, Cloudlet cloudlet) {
+        vms.add(vm);
+        cloudlets.add(cloudlet);
+    }
+
+    public int size() {
+        return vms.size();
+    }
+
+    public Vm getVm(int index) {
+        return vms.get(index);
+    }
+
+    /** The cloudlet paired with a VM, or null if it has none. */
+    public Cloudlet getCloudlet(int index) {
+        return cloudlets.get(index);
+    }
+}
@@ -0,0 +1,153 @@
+package newcloud.datacenter;
+
+import newcloud.LatencyHistogram;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static newcloud.Constants.PROFILE_FILE;
+
+/**
+ * Wall-clock time spent in each phase of the RL datacenters' event handling.
+ * <p>
+ * Enabled by setting Constants.PROFILE_FILE ("cloudsim.profile"). The call
+ * sites are guarded by {@link #ENABLED}, a static final flag, so with
+ * profiling off the JIT drops them and no clock is read. With profiling on,
+ * every phase run is recorded in a {@link LatencyHistogram}, and each time a
+ * datacenter appends to its power series a row with the phases' figures
+ * since the previous row is appended to PROFILE_FILE, so the file lines up
+ * with the power series:
+ * </p>
+ * <pre>
+ *   iteration,power,&lt;phase&gt;.count,&lt;phase&gt;.totalMicros,&lt;phase&gt;.p50Micros,
+ *   &lt;phase&gt;.p99Micros,&lt;phase&gt;.maxMicros,...   (one group per Phase)
+ * </pre>
+ * <p>
+ * Phases nest: CLOUDLET_PROCESSING includes ENERGY_LOOP. Like the rest of
+ * the simulation state this is kept per JVM and is not thread-safe.
+ * </p>
+ */
+public final class PhaseProfiler {
+
+    /** Whether the phases are timed. */
+    public static final boolean ENABLED = PROFILE_FILE != null;
+
+    public enum Phase {
+        /** selectHostForVm: the policy's host choice. */
+        SELECT_HOST,
+        /** The first-fit search after the chosen host rejected a VM. */
+        ALLOCATION_FALLBACK,
+        /** A processing tick: energy accounting plus migrations. */
+        CLOUDLET_PROCESSING,
+        /** The per-host VM update and energy pass of a tick. */
+        ENERGY_LOOP,
+        /** computeRewardAndUpdate. */
+        REWARD_UPDATE,
+        /**
+         * From the datacenter handing control back to the broker (a restart
+         * or a batch acknowledgment) to the broker's next VM request.
+         */
+        BROKER_ROUND_TRIP
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    /** Phase figures since the last row. */
+    private static final LatencyHistogram[] interval = new LatencyHistogram[PHASES.length];
+
+    /** Phase figures since the last reset. */
+    private static final LatencyHistogram[] cumulative = new LatencyHistogram[PHASES.length];
+
+    static {
+        for (int p = 0; p < PHASES.length; p++) {
+            interval[p] = new LatencyHistogram();
+            cumulative[p] = new LatencyHistogram();
+        }
+    }
+
+    private static Writer out;
+
+    private PhaseProfiler() {
+    }
+
+    /**
+     * Record a phase run that started at {@code startNanos}
+     * ({@link System#nanoTime()}) and ends now.
+     */
+    public static void record(Phase phase, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        interval[phase.ordinal()].record(nanos);
+        cumulative[phase.ordinal()].record(nanos);
+    }
+
+    /** All the runs of a phase since the last reset. */
+    public static LatencyHistogram getHistogram(Phase phase) {
+        return cumulative[phase.ordinal()];
+    }
+
+    /**
+     * Append a row with the phases' figures since the previous row to
+     * PROFILE_FILE, and start a new interval.
+     *
+     * @param power the power value recorded alongside
+     */
+    static void endRow(double power) {
+        try {
+            if (out == null) {
+                out = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(new File(PROFILE_FILE)), StandardCharsets.UTF_8));
+                out.write(header());
+            }
+            out.write(row(SimulationCounters.getIterations() - 1, power));
+            out.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        for (LatencyHistogram histogram : interval) {
+            histogram.reset();
+        }
+    }
+
+    static String header() {
+        StringBuilder line = new StringBuilder("iteration,power");
+        for (Phase phase : PHASES) {
+            String name = phase.name().toLowerCase(Locale.ROOT);
+            line.append(',').append(name).append(".count")
+                    .append(',').append(name).append(".totalMicros")
+                    .append(',').append(name).append(".p50Micros")
+                    .append(',').append(name).append(".p99Micros")
+                    .append(',').append(name).append(".maxMicros");
+        }
+        return line.append('\n').toString();
+    }
+
+    static String row(int iteration, double power) {
+        StringBuilder line = new StringBuilder().append(iteration).append(',').append(power);
+        for (LatencyHistogram histogram : interval) {
+            line.append(',').append(histogram.getCount())
+                    .append(',').append(micros(histogram.getTotal()))
+                    .append(',').append(micros(histogram.getValueAtPercentile(50)))
+                    .append(',').append(micros(histogram.getValueAtPercentile(99)))
+                    .append(',').append(micros(histogram.getMax()));
+        }
+        return line.append('\n').toString();
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e3);
+    }
+
+    /** Clear every histogram; the file stays open. */
+    public static void reset() {
+        for (int p = 0; p < PHASES.length; p++) {
+            interval[p].reset();
+            cumulative[p].reset();
+        }
+    }
+}
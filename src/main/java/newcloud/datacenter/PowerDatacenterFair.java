@@ -44,6 +44,16 @@ public class PowerDatacenterFair extends PowerDatacenterRL {
         return 0;
     }
 
+    @Override
+    protected void hostCapacityChanged(Host host) {
+        assigner.hostUpdated(host);
+    }
+
+    @Override
+    protected void hostCapacitiesRefreshed() {
+        assigner.hostsUpdated();
+    }
+
     @Override
     protected void computeRewardAndUpdate(Vm vm) {
         // No RL update for fair strategy
@@ -34,17 +34,15 @@ public class PowerDatacenterLearning extends PowerDatacenterRL {
 
     @Override
     protected int selectHostForVm(Vm vm) {
-        String state = computeFeatureState();
-        return assigner.createAction(state);
+        int state = encodeState();
+        return assigner.createAction(state, candidates, selectCandidates(vm));
     }
 
     @Override
     protected void computeRewardAndUpdate(Vm vm) {
         double reward = computeStableReward();
-        String currentState = computeFeatureState();
+        int currentState = encodeState();
         // Use the same state as both "last" and "current" since we compute after placement
-        assigner.createLastState_idx(currentState);
-        assigner.createState_idx(currentState);
         assigner.updateQList(targetHost.getId(), reward, currentState, currentState);
     }
 }
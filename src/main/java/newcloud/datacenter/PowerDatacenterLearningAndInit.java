@@ -33,16 +33,14 @@ public class PowerDatacenterLearningAndInit extends PowerDatacenterRL {
 
     @Override
     protected int selectHostForVm(Vm vm) {
-        String state = computeFeatureState();
-        return assigner.createAction(state, vm);
+        int state = encodeState();
+        return assigner.createAction(state, vm, candidates, selectCandidates(vm));
     }
 
     @Override
     protected void computeRewardAndUpdate(Vm vm) {
         double reward = computeStableReward();
-        String currentState = computeFeatureState();
-        assigner.createLastState_idx(currentState);
-        assigner.createState_idx(currentState);
+        int currentState = encodeState();
         assigner.updateQList(targetHost.getId(), reward, currentState, currentState, vm);
     }
 }
@@ -0,0 +1,45 @@
+package newcloud.datacenter;
+
+import newcloud.policy.VmAllocationAssignerLinear;
+import org.cloudbus.cloudsim.*;
+
+import java.util.List;
+
+/**
+ * Datacenter variant using Q-Learning with a linear function approximator
+ * for VM placement.
+ * <p>
+ * Every host is scored from its own features rather than looked up by
+ * index in a Q-table, so the learned weights work for any number of hosts.
+ * </p>
+ *
+ * @see VmAllocationAssignerLinear
+ * @see PowerDatacenterRL
+ */
+public class PowerDatacenterLinear extends PowerDatacenterRL {
+
+    private final VmAllocationAssignerLinear assigner;
+
+    public PowerDatacenterLinear(
+            String name,
+            DatacenterCharacteristics characteristics,
+            VmAllocationPolicy vmAllocationPolicy,
+            List<Storage> storageList,
+            double schedulingInterval,
+            VmAllocationAssignerLinear assigner,
+            int brokerId) throws Exception {
+        super(name, characteristics, vmAllocationPolicy, storageList, schedulingInterval, brokerId);
+        this.assigner = assigner;
+    }
+
+    @Override
+    protected int selectHostForVm(Vm vm) {
+        int state = encodeState();
+        return assigner.createAction(getHostList(), vm, state, candidates, selectCandidates(vm));
+    }
+
+    @Override
+    protected void computeRewardAndUpdate(Vm vm) {
+        assigner.observeReward(targetHost.getId(), computeStableReward());
+    }
+}
@@ -5,7 +5,14 @@
  */
 package newcloud.datacenter;
 
+import newcloud.CandidateHosts;
 import newcloud.NewPowerAllocatePolicy;
+import newcloud.PowerModel.PowerTable;
+import newcloud.SimLog;
+import newcloud.StateCodec;
+import newcloud.VmBatch;
+import newcloud.datacenter.PhaseProfiler.Phase;
+import newcloud.jfr.FlightEvents;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.CloudSimTags;
@@ -17,6 +24,7 @@ import org.cloudbus.cloudsim.power.PowerHost;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.DoubleConsumer;
 
 import static newcloud.Constants.*;
 
@@ -56,21 +64,48 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
     /** Current simulation clock time. */
     protected double currentTime;
 
+    /** When the processing tick scheduled by the last one is due; -1 if none was. */
+    private double nextTickTime = -1;
+
+    /** Whether a batch is waiting for the tick that gives its VMs their MIPS. */
+    private boolean batchAwaitingTick;
+
     /** The host selected for the most recent VM placement. */
     protected Host targetHost;
 
+    /** Per-host energy of the current tick; reused across ticks. */
+    private double[] tickHostEnergy = new double[0];
+
+    /** Power table of each host, in host list order; built on the first tick. */
+    private PowerTable[] hostPowerTables;
+
     /** Per-host power history (most recent first). Used for reward calculation. */
-    public static List<List<Double>> everyhosthistorypower = new ArrayList<>();
+    public static PowerHistory everyhosthistorypower = new PowerHistory(POWER_HISTORY_DEPTH);
 
     /** Running log of total datacenter power at each output interval. */
     public static List<Double> allpower = new ArrayList<>();
 
+    /** Notified of every value appended to allpower, or null. */
+    public static DoubleConsumer powerListener;
+
     /** Maximum observed total power; used for reward normalization. */
     protected static double maxObservedPower = 1.0;
 
     /** The broker ID that this datacenter communicates with. Set by subclasses. */
     protected int brokerId;
 
+    /** When control last went back to the broker, for PhaseProfiler; 0 if not yet. */
+    private long brokerHandoffNanos;
+
+    /** Whether rewards and model updates are skipped (frozen policy). */
+    private boolean evaluationOnly = EVALUATION_ONLY;
+
+    /** Candidate host positions of the current placement; see {@link #selectCandidates(Vm)}. */
+    protected int[] candidates = new int[Math.max(0, CANDIDATE_HOSTS)];
+
+    /** Candidate generator over the allocation policy's index; built on first use. */
+    private CandidateHosts candidateHosts;
+
     /**
      * Constructs a new PowerDatacenterRL.
      *
@@ -95,6 +130,7 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
         setCloudletSubmitted(-1);
         setMigrationCount(0);
         this.brokerId = brokerId;
+        SimulationCounters.iterationStarted();
     }
 
     // -----------------------------------------------------------------------
@@ -127,6 +163,44 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
         return true;
     }
 
+    /**
+     * Fill {@link #candidates} with up to {@link #getCandidateHosts()} hosts
+     * that fit a VM, for policies that choose among candidates instead of
+     * all hosts.
+     *
+     * @param vm the VM to place
+     * @return the number of candidates; 0 if candidate pruning is off or no
+     *         host fits, in which case the policy chooses among all hosts
+     */
+    protected int selectCandidates(Vm vm) {
+        if (candidates.length == 0 || !(getVmAllocationPolicy() instanceof NewPowerAllocatePolicy)) {
+            return 0;
+        }
+        if (candidateHosts == null) {
+            candidateHosts = new CandidateHosts(
+                    ((NewPowerAllocatePolicy) getVmAllocationPolicy()).getCapacityIndex());
+        }
+        return candidateHosts.select(vm, candidates);
+    }
+
+    /**
+     * Called after a host's allocated capacity changed outside a processing
+     * tick: a VM was created on it, destroyed, or migrated to or from it.
+     * Strategies that index hosts by capacity override this; the default
+     * does nothing.
+     *
+     * @param host the host whose capacity changed
+     */
+    protected void hostCapacityChanged(Host host) {
+    }
+
+    /**
+     * Called after a processing tick re-allocated capacity on every host.
+     * The default does nothing.
+     */
+    protected void hostCapacitiesRefreshed() {
+    }
+
     // -----------------------------------------------------------------------
     // State representation (feature-based, replacing the intractable string state)
     // -----------------------------------------------------------------------
@@ -140,38 +214,58 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
      * <ul>
      *   <li>Average CPU utilization across all hosts</li>
      *   <li>Number of active hosts (with at least one VM)</li>
-     *   <li>Current total power consumption</li>
      *   <li>Total number of VMs deployed</li>
      * </ul>
-     * These continuous features are discretized into bins to form a manageable state key.
+     * These continuous features are discretized into bins and packed into a single
+     * int code (see {@link StateCodec}), so the assigners can index their Q-tables
+     * without building or hashing a string key.
      * </p>
      *
-     * @return a string key representing the current state
+     * @return the packed state code, in [0, {@link StateCodec#STATE_COUNT})
      */
-    protected String computeFeatureState() {
+    protected int encodeState() {
         double totalCpu = 0.0;
         int activeHosts = 0;
-        double totalPower = 0.0;
         int totalVms = 0;
 
         for (PowerHost host : this.<PowerHost>getHostList()) {
-            double cpu = host.getUtilizationOfCpu();
-            totalCpu += cpu;
-            if (host.getVmList().size() > 0) {
+            totalCpu += host.getUtilizationOfCpu();
+            int vms = host.getVmList().size();
+            if (vms > 0) {
                 activeHosts++;
             }
-            totalVms += host.getVmList().size();
+            totalVms += vms;
         }
 
         int numHosts = getHostList().size();
         double avgCpu = numHosts > 0 ? totalCpu / numHosts : 0.0;
 
         // Discretize features into bins
-        int cpuBin = discretize(avgCpu, 10);                  // 0-9
-        int activeBin = discretize((double) activeHosts / Math.max(numHosts, 1), 10); // 0-9
-        int vmBin = Math.min(totalVms / 10, 9);               // 0-9 (capped)
+        int cpuBin = discretize(avgCpu, StateCodec.BINS);                  // 0-9
+        int activeBin = discretize((double) activeHosts / Math.max(numHosts, 1), StateCodec.BINS); // 0-9
+        int vmBin = Math.min(totalVms / 10, StateCodec.BINS - 1);          // 0-9 (capped)
 
-        return cpuBin + "_" + activeBin + "_" + vmBin;
+        return StateCodec.encode(cpuBin, activeBin, vmBin);
+    }
+
+    /**
+     * Compute the feature-based state as a string key.
+     *
+     * @return a string key of the form {@code cpuBin_activeBin_vmBin}
+     * @see #encodeState()
+     */
+    protected String computeFeatureState() {
+        return decodeState(encodeState());
+    }
+
+    /**
+     * Decode a packed state code into its {@code cpuBin_activeBin_vmBin} key for reporting.
+     *
+     * @param code the state code returned by {@link #encodeState()}
+     * @return the string key
+     */
+    public static String decodeState(int code) {
+        return StateCodec.decode(code);
     }
 
     /**
@@ -181,7 +275,7 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
      * @param numBins the number of discrete bins
      * @return the bin index [0, numBins-1]
      */
-    protected static int discretize(double value, int numBins) {
+    public static int discretize(double value, int numBins) {
         int bin = (int) (value * numBins);
         return Math.max(0, Math.min(bin, numBins - 1));
     }
@@ -207,15 +301,11 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
      * @return the computed reward signal
      */
     protected double computeStableReward() {
-        if (everyhosthistorypower.size() < 1) {
+        if (everyhosthistorypower.isEmpty()) {
             return 0.0;
         }
 
-        List<Double> currentPowers = everyhosthistorypower.get(0);
-        double totalCurrentPower = 0.0;
-        for (Double p : currentPowers) {
-            totalCurrentPower += p;
-        }
+        double totalCurrentPower = everyhosthistorypower.total(0);
 
         // Track maximum observed power for normalization
         if (totalCurrentPower > maxObservedPower) {
@@ -231,12 +321,21 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
     // Event processing (shared across all variants)
     // -----------------------------------------------------------------------
 
+    @Override
+    public void processEvent(SimEvent ev) {
+        SimulationCounters.eventProcessed();
+        super.processEvent(ev);
+    }
+
     @Override
     protected void processOtherEvent(SimEvent ev) {
         switch (ev.getTag()) {
             case CREATE_VM_ACK:
                 processVmCreate(ev, true);
                 break;
+            case CREATE_VM_BATCH:
+                processVmBatchCreate(ev);
+                break;
             default:
                 if (ev == null) {
                     Log.printConcatLine(getName(),
@@ -248,28 +347,124 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
 
     @Override
     protected void processVmCreate(SimEvent ev, boolean ack) {
+        if (PhaseProfiler.ENABLED) {
+            recordBrokerRoundTrip();
+        }
         Vm vm = (Vm) ev.getData();
+        boolean result = placeVm(vm);
+
+        if (ack) {
+            int[] data = new int[3];
+            data[0] = getId();
+            data[1] = vm.getId();
+            data[2] = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+            send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CREATE_VM_ACK, data);
+        }
+    }
+
+    /**
+     * Place a batch of VMs. Each VM gets its own placement decision and,
+     * once placed, its cloudlet is submitted and the model updated exactly
+     * as the single-VM path does, before the next VM of the batch is placed.
+     * One {@link newcloud.Constants#CREATE_VM_BATCH_ACK} with a
+     * {@code {datacenterId, vmId, result}} triple per VM goes back to the
+     * broker, instead of one acknowledgment and one restart per VM.
+     */
+    protected void processVmBatchCreate(SimEvent ev) {
+        if (PhaseProfiler.ENABLED) {
+            recordBrokerRoundTrip();
+        }
+        VmBatch batch = (VmBatch) ev.getData();
+        List<int[]> acks = new ArrayList<>(batch.size());
+        Host lastHost = null;
+        for (int i = 0; i < batch.size(); i++) {
+            Vm vm = batch.getVm(i);
+            boolean result = placeVm(vm);
+            acks.add(new int[]{getId(), vm.getId(), result ? CloudSimTags.TRUE : CloudSimTags.FALSE});
+
+            Cloudlet cloudlet = batch.getCloudlet(i);
+            if (result && cloudlet != null) {
+                updateCloudletProcessing();
+                Host host = getVmAllocationPolicy().getHost(vm);
+                if (lastHost != null && lastHost != host) {
+                    refreshHostAllocation(lastHost);
+                }
+                refreshHostAllocation(host);
+                submitCloudletAndUpdate(cloudlet);
+                lastHost = host;
+            }
+        }
+        if (lastHost != null && nextTickTime <= CloudSim.clock()) {
+            // No tick is scheduled, as when one batch holds every VM: without
+            // one, processing of the batch's cloudlets never starts
+            batchAwaitingTick = true;
+            send(getId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_DATACENTER_EVENT);
+        }
+        send(brokerId, CloudSim.getMinTimeBetweenEvents(), CREATE_VM_BATCH_ACK, acks);
+        if (PhaseProfiler.ENABLED) {
+            brokerHandoffNanos = System.nanoTime();
+        }
+    }
+
+    private void recordBrokerRoundTrip() {
+        if (brokerHandoffNanos != 0) {
+            PhaseProfiler.record(Phase.BROKER_ROUND_TRIP, brokerHandoffNanos);
+            brokerHandoffNanos = 0;
+        }
+    }
+
+    /**
+     * Re-allocate a host's MIPS to its VMs' current demand without advancing
+     * time. In the single-VM protocol every cloudlet submission starts with a
+     * processing tick; within a batch there is no tick, so the hosts changed
+     * since the last submission (the previous VM's, which has just received
+     * its cloudlet, and the new VM's) are brought up to date here instead.
+     */
+    private void refreshHostAllocation(Host host) {
+        ((PowerHost) host).updateVmsProcessing(CloudSim.clock());
+        if (getVmAllocationPolicy() instanceof NewPowerAllocatePolicy) {
+            ((NewPowerAllocatePolicy) getVmAllocationPolicy()).getCapacityIndex().update(host);
+        }
+        hostCapacityChanged(host);
+    }
 
+    /**
+     * Place a VM on the host chosen by {@link #selectHostForVm(Vm)}, falling
+     * back to the first suitable host if that one rejects it.
+     *
+     * @return whether the VM was placed
+     */
+    protected boolean placeVm(Vm vm) {
+        boolean placementEvent = FlightEvents.isPlacementEnabled();
+        int stateCode = placementEvent ? encodeState() : 0;
+        long decisionStart = placementEvent ? System.nanoTime() : 0;
+        long start = PhaseProfiler.ENABLED ? System.nanoTime() : 0;
         int hostId = selectHostForVm(vm);
+        if (PhaseProfiler.ENABLED) {
+            PhaseProfiler.record(Phase.SELECT_HOST, start);
+        }
         targetHost = getHostList().get(hostId);
         boolean result = getVmAllocationPolicy().allocateHostForVm(vm, targetHost);
+        boolean fallback = !result;
 
-        if (!result) {
+        if (fallback) {
             // Fallback: find any suitable host
+            start = PhaseProfiler.ENABLED ? System.nanoTime() : 0;
             NewPowerAllocatePolicy policy = (NewPowerAllocatePolicy) getVmAllocationPolicy();
             targetHost = policy.findHostForVm(vm);
-            result = policy.allocateHostForVm(vm);
+            result = policy.allocateHostForVm(vm, targetHost);
+            if (PhaseProfiler.ENABLED) {
+                PhaseProfiler.record(Phase.ALLOCATION_FALLBACK, start);
+            }
         }
-
-        if (ack) {
-            int[] data = new int[3];
-            data[0] = getId();
-            data[1] = vm.getId();
-            data[2] = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
-            send(vm.getUserId(), CloudSim.getMinTimeBetweenEvents(), CREATE_VM_ACK, data);
+        if (placementEvent) {
+            FlightEvents.placement(vm.getId(), result ? getVmAllocationPolicy().getHost(vm).getId() : -1,
+                    fallback, stateCode, decisionStart);
         }
 
         if (result) {
+            SimulationCounters.vmPlaced();
+            hostCapacityChanged(getVmAllocationPolicy().getHost(vm));
             getVmList().add(vm);
             if (vm.isBeingInstantiated()) {
                 vm.setBeingInstantiated(false);
@@ -277,6 +472,7 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
             vm.updateVmProcessing(CloudSim.clock(),
                     getVmAllocationPolicy().getHost(vm).getVmScheduler().getAllocatedMipsForVm(vm));
         }
+        return result;
     }
 
     @Override
@@ -284,7 +480,10 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
         currentTime = CloudSim.clock();
 
         if (currentTime > getLastProcessTime()) {
-            System.out.print(currentTime + " ");
+            long start = PhaseProfiler.ENABLED ? System.nanoTime() : 0;
+            if (SimLog.isEnabled(SimLog.Level.TRACE)) {
+                SimLog.trace("{}: processing tick", currentTime);
+            }
 
             double minTime = updateCloudletProcessingWithoutSchedulingFutureEventsForce();
 
@@ -307,6 +506,10 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
                         }
 
                         target.addMigratingInVm(vm);
+                        if (getVmAllocationPolicy() instanceof NewPowerAllocatePolicy) {
+                            ((NewPowerAllocatePolicy) getVmAllocationPolicy()).getCapacityIndex().update(target);
+                        }
+                        hostCapacityChanged(target);
                         incrementMigrationCount();
 
                         // VM migration delay = RAM / (bandwidth / 2)
@@ -322,9 +525,19 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
             if (minTime != Double.MAX_VALUE) {
                 CloudSim.cancelAll(getId(), new PredicateType(CloudSimTags.VM_DATACENTER_EVENT));
                 send(getId(), getSchedulingInterval(), CloudSimTags.VM_DATACENTER_EVENT);
+                nextTickTime = currentTime + getSchedulingInterval();
+            } else if (batchAwaitingTick) {
+                // The batch's VMs were given the MIPS of their cloudlets only
+                // at the end of this tick, too late for minTime: tick again
+                send(getId(), CloudSim.getMinTimeBetweenEvents(), CloudSimTags.VM_DATACENTER_EVENT);
+                nextTickTime = currentTime + CloudSim.getMinTimeBetweenEvents();
             }
+            batchAwaitingTick = false;
 
             setLastProcessTime(currentTime);
+            if (PhaseProfiler.ENABLED) {
+                PhaseProfiler.record(Phase.CLOUDLET_PROCESSING, start);
+            }
         }
     }
 
@@ -346,53 +559,78 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
      * @return expected completion time of the next cloudlet, or Double.MAX_VALUE
      */
     protected double updateCloudletProcessingWithoutSchedulingFutureEventsForce() {
+        boolean tickEvent = FlightEvents.isTickEnabled();
+        long tickStart = tickEvent ? System.nanoTime() : 0;
         double currentTime = CloudSim.clock();
         double minTime = Double.MAX_VALUE;
-        double timeDiff = currentTime - getLastProcessTime();
+        double lastProcessTime = getLastProcessTime();
+        double timeDiff = currentTime - lastProcessTime;
         double timeFrameDatacenterEnergy = 0.0;
-        List<Double> everyhostpower = new ArrayList<>();
+        boolean logging = !Log.isDisabled();
 
-        Log.printLine("\n\n--------------------------------------------------------------\n\n");
-        Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+        List<PowerHost> hosts = this.<PowerHost>getHostList();
+        if (tickHostEnergy.length < hosts.size()) {
+            tickHostEnergy = new double[hosts.size()];
+        }
+        int hostCount = 0;
+        PowerTable[] powerTables = getHostPowerTables(hosts);
 
-        for (PowerHost host : this.<PowerHost>getHostList()) {
-            Log.printLine();
+        if (logging) {
+            Log.printLine("\n\n--------------------------------------------------------------\n\n");
+            Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+        }
+
+        // One pass per host: advance its VMs, then account for its energy
+        long start = PhaseProfiler.ENABLED ? System.nanoTime() : 0;
+        for (int h = 0; h < hosts.size(); h++) {
+            PowerHost host = hosts.get(h);
             double time = host.updateVmsProcessing(currentTime);
             if (time < minTime) {
                 minTime = time;
             }
-            Log.formatLine("%.2f: [Host #%d] utilization is %.2f%%",
-                    currentTime, host.getId(), host.getUtilizationOfCpu() * 100);
-        }
-
-        if (timeDiff > 0) {
-            Log.formatLine("\nEnergy consumption for the last time frame from %.2f to %.2f:",
-                    getLastProcessTime(), currentTime);
+            if (logging) {
+                Log.printLine();
+                Log.formatLine("%.2f: [Host #%d] utilization is %.2f%%",
+                        currentTime, host.getId(), host.getUtilizationOfCpu() * 100);
+            }
 
-            for (PowerHost host : this.<PowerHost>getHostList()) {
+            if (timeDiff > 0) {
                 double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
                 double utilizationOfCpu = host.getUtilizationOfCpu();
-                double timeFrameHostEnergy = host.getEnergyLinearInterpolation(
+                double timeFrameHostEnergy = powerTables[h].getEnergy(
                         previousUtilizationOfCpu, utilizationOfCpu, timeDiff);
                 timeFrameDatacenterEnergy += timeFrameHostEnergy;
 
                 // Record per-host energy for reward computation
-                everyhostpower.add(timeFrameHostEnergy);
-
-                Log.printLine();
-                Log.formatLine("%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
-                        currentTime, host.getId(), getLastProcessTime(),
-                        previousUtilizationOfCpu * 100, utilizationOfCpu * 100);
-                Log.formatLine("%.2f: [Host #%d] energy is %.2f W*sec",
-                        currentTime, host.getId(), timeFrameHostEnergy);
+                tickHostEnergy[hostCount++] = timeFrameHostEnergy;
+
+                if (logging) {
+                    Log.formatLine("%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
+                            currentTime, host.getId(), lastProcessTime,
+                            previousUtilizationOfCpu * 100, utilizationOfCpu * 100);
+                    Log.formatLine("%.2f: [Host #%d] energy is %.2f W*sec",
+                            currentTime, host.getId(), timeFrameHostEnergy);
+                }
             }
+        }
+
+        if (PhaseProfiler.ENABLED) {
+            PhaseProfiler.record(Phase.ENERGY_LOOP, start);
+        }
 
+        // Updating VM processing reallocated MIPS on every host
+        if (getVmAllocationPolicy() instanceof NewPowerAllocatePolicy) {
+            ((NewPowerAllocatePolicy) getVmAllocationPolicy()).refreshCapacityIndex();
+        }
+        hostCapacitiesRefreshed();
+
+        if (timeDiff > 0 && logging) {
             Log.formatLine("\n%.2f: Data center's energy is %.2f W*sec\n",
                     currentTime, timeFrameDatacenterEnergy);
         }
 
         // Store power history (most recent first)
-        everyhosthistorypower.add(0, everyhostpower);
+        everyhosthistorypower.push(tickHostEnergy, hostCount);
 
         setPower(getPower() + timeFrameDatacenterEnergy);
         checkCloudletCompletion();
@@ -400,16 +638,43 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
         Log.printLine();
         if (currentTime > outputTime) {
             allpower.add(getPower());
+            if (powerListener != null) {
+                powerListener.accept(getPower());
+            }
+            if (PhaseProfiler.ENABLED) {
+                PhaseProfiler.endRow(getPower());
+            }
         }
 
         setLastProcessTime(currentTime);
+        if (tickEvent) {
+            FlightEvents.tick(currentTime, hosts.size(), timeFrameDatacenterEnergy, tickStart);
+        }
         return minTime;
     }
 
+    /** The power table of every host, in host list order. */
+    private PowerTable[] getHostPowerTables(List<PowerHost> hosts) {
+        if (hostPowerTables == null || hostPowerTables.length != hosts.size()) {
+            hostPowerTables = new PowerTable[hosts.size()];
+            for (int i = 0; i < hostPowerTables.length; i++) {
+                hostPowerTables[i] = PowerTable.of(hosts.get(i).getPowerModel());
+            }
+        }
+        return hostPowerTables;
+    }
+
     @Override
     protected void processVmMigrate(SimEvent ev, boolean ack) {
         updateCloudletProcessingWithoutSchedulingFutureEvents();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> migrate = (Map<String, Object>) ev.getData();
+        Host source = ((Vm) migrate.get("vm")).getHost();
         super.processVmMigrate(ev, ack);
+        if (source != null) {
+            hostCapacityChanged(source);
+        }
+        hostCapacityChanged((Host) migrate.get("host"));
         SimEvent event = CloudSim.findFirstDeferred(getId(),
                 new PredicateType(CloudSimTags.VM_MIGRATE));
         if (event == null || event.eventTime() > CloudSim.clock()) {
@@ -417,13 +682,38 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
         }
     }
 
+    @Override
+    protected void processVmDestroy(SimEvent ev, boolean ack) {
+        Host host = ((Vm) ev.getData()).getHost();
+        super.processVmDestroy(ev, ack);
+        if (host != null) {
+            hostCapacityChanged(host);
+        }
+    }
+
     @Override
     protected void processCloudletSubmit(SimEvent ev, boolean ack) {
         updateCloudletProcessing();
+        if (submitCloudletAndUpdate(ev.getData(), ack)) {
+            send(brokerId, 0, CLOUDSIM_RESTART);
+            if (PhaseProfiler.ENABLED) {
+                brokerHandoffNanos = System.nanoTime();
+            }
+        }
+    }
 
+    /** Submit a cloudlet without acknowledgment, then compute the reward and update the model. */
+    protected void submitCloudletAndUpdate(Cloudlet cl) {
+        submitCloudletAndUpdate(cl, false);
+    }
+
+    /**
+     * @return false if the cloudlet had already finished and was returned as is
+     */
+    private boolean submitCloudletAndUpdate(Object event, boolean ack) {
         Vm vm = null;
         try {
-            Cloudlet cl = (Cloudlet) ev.getData();
+            Cloudlet cl = (Cloudlet) event;
 
             if (cl.isFinished()) {
                 String name = CloudSim.getEntityName(cl.getUserId());
@@ -440,7 +730,7 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
                     sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_SUBMIT_ACK, data);
                 }
                 sendNow(cl.getUserId(), CloudSimTags.CLOUDLET_RETURN, cl);
-                return;
+                return false;
             }
 
             cl.setResourceParameter(getId(),
@@ -459,7 +749,10 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
 
             if (estimatedFinishTime > 0.0 && !Double.isInfinite(estimatedFinishTime)) {
                 estimatedFinishTime += fileTransferTime;
-                System.out.println("estimatedFinishTime:" + estimatedFinishTime);
+                if (SimLog.isEnabled(SimLog.Level.DEBUG)) {
+                    SimLog.debug("{}: cloudlet #{} estimated to finish at {}",
+                            currentTime, cl.getCloudletId(), estimatedFinishTime);
+                }
                 send(getId(), currentTime, CloudSimTags.VM_DATACENTER_EVENT);
             }
 
@@ -482,11 +775,14 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
         setCloudletSubmitted(CloudSim.clock());
 
         // Compute reward and update RL model (no-op for non-RL variants)
-        if (usesReinforcementLearning()) {
+        if (usesReinforcementLearning() && !evaluationOnly) {
+            long start = PhaseProfiler.ENABLED ? System.nanoTime() : 0;
             computeRewardAndUpdate(vm);
+            if (PhaseProfiler.ENABLED) {
+                PhaseProfiler.record(Phase.REWARD_UPDATE, start);
+            }
         }
-
-        send(brokerId, 0, CLOUDSIM_RESTART);
+        return true;
     }
 
     // -----------------------------------------------------------------------
@@ -511,6 +807,19 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
         return false;
     }
 
+    public boolean isEvaluationOnly() {
+        return evaluationOnly;
+    }
+
+    /**
+     * Run with a frozen policy: placements still consult the assigner, but
+     * no reward is computed and the model is never updated. Defaults to
+     * Constants.EVALUATION_ONLY.
+     */
+    public void setEvaluationOnly(boolean evaluationOnly) {
+        this.evaluationOnly = evaluationOnly;
+    }
+
     public boolean isDisableMigrations() {
         return disableMigrations;
     }
@@ -519,6 +828,22 @@ public abstract class PowerDatacenterRL extends PowerDatacenter {
         this.disableMigrations = disableMigrations;
     }
 
+    public int getCandidateHosts() {
+        return candidates.length;
+    }
+
+    /**
+     * Let policies choose among up to this many candidate hosts instead of
+     * every host; 0 turns candidate pruning off. Defaults to
+     * Constants.CANDIDATE_HOSTS.
+     */
+    public void setCandidateHosts(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Candidate count must be non-negative: " + count);
+        }
+        candidates = new int[count];
+    }
+
     protected double getCloudletSubmitted() {
         return cloudletSubmitted;
     }
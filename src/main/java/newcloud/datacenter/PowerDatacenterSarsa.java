@@ -32,16 +32,14 @@ public class PowerDatacenterSarsa extends PowerDatacenterRL {
 
     @Override
     protected int selectHostForVm(Vm vm) {
-        String state = computeFeatureState();
-        return assigner.createAction(state);
+        int state = encodeState();
+        return assigner.createAction(state, candidates, selectCandidates(vm));
     }
 
     @Override
     protected void computeRewardAndUpdate(Vm vm) {
         double reward = computeStableReward();
-        String currentState = computeFeatureState();
-        assigner.createLastState_idx(currentState);
-        assigner.createState_idx(currentState);
+        int currentState = encodeState();
         assigner.updateQList(targetHost.getId(), reward, currentState, currentState);
     }
 }
@@ -0,0 +1,127 @@
+package newcloud.datacenter;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring buffer of per-host energy snapshots, most recent first.
+ * <p>
+ * Each processing tick records one energy value per host. Only the most
+ * recent snapshots are ever read, so the buffer keeps the last
+ * {@link #capacity()} of them in reused primitive arrays: recording a tick
+ * costs O(hosts) with no boxing and no shifting, and memory stays constant
+ * however many ticks and iterations a training run has.
+ * </p>
+ */
+public class PowerHistory {
+
+    /** Snapshot slots; slot arrays grow to the largest host count seen. */
+    private final double[][] slots;
+
+    /** Number of hosts recorded in each slot. */
+    private final int[] lengths;
+
+    /** Sum of each slot, computed when it is recorded. */
+    private final double[] totals;
+
+    /** Slot holding the most recent snapshot. */
+    private int head = -1;
+
+    /** Number of snapshots held. */
+    private int size;
+
+    public PowerHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.slots = new double[capacity][];
+        this.lengths = new int[capacity];
+        this.totals = new double[capacity];
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /** Number of snapshots held, at most {@link #capacity()}. */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Record a snapshot as the most recent one, evicting the oldest if full.
+     *
+     * @param hostEnergy per-host energy values; copied
+     */
+    public void push(double[] hostEnergy) {
+        push(hostEnergy, hostEnergy.length);
+    }
+
+    /**
+     * Record the first {@code length} values of an array as the most recent
+     * snapshot, evicting the oldest if full.
+     *
+     * @param hostEnergy per-host energy values; copied
+     * @param length     number of hosts to record
+     */
+    public void push(double[] hostEnergy, int length) {
+        head = (head + 1) % slots.length;
+        double[] slot = slots[head];
+        if (slot == null || slot.length < length) {
+            slot = new double[length];
+            slots[head] = slot;
+        }
+        double total = 0.0;
+        for (int i = 0; i < length; i++) {
+            slot[i] = hostEnergy[i];
+            total += hostEnergy[i];
+        }
+        lengths[head] = length;
+        totals[head] = total;
+        if (size < slots.length) {
+            size++;
+        }
+    }
+
+    /** Number of hosts in a snapshot; age 0 is the most recent. */
+    public int hostCount(int age) {
+        return lengths[slot(age)];
+    }
+
+    /** Energy of one host in a snapshot; age 0 is the most recent. */
+    public double get(int age, int host) {
+        int slot = slot(age);
+        if (host < 0 || host >= lengths[slot]) {
+            throw new IndexOutOfBoundsException("Host " + host + " not in [0, " + lengths[slot] + ")");
+        }
+        return slots[slot][host];
+    }
+
+    /** Total energy over all hosts of a snapshot; age 0 is the most recent. */
+    public double total(int age) {
+        return totals[slot(age)];
+    }
+
+    /** Copy of a snapshot; age 0 is the most recent. */
+    public double[] snapshot(int age) {
+        int slot = slot(age);
+        return Arrays.copyOf(slots[slot], lengths[slot]);
+    }
+
+    /** Drop all snapshots. The slot arrays are kept for reuse. */
+    public void clear() {
+        head = -1;
+        size = 0;
+    }
+
+    private int slot(int age) {
+        if (age < 0 || age >= size) {
+            throw new IndexOutOfBoundsException("Age " + age + " not in [0, " + size + ")");
+        }
+        int slot = head - age;
+        return slot < 0 ? slot + slots.length : slot;
+    }
+}
@@ -0,0 +1,72 @@
+package newcloud.datacenter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counters for throughput measurements, kept per JVM like the rest of the
+ * simulation state.
+ * <p>
+ * The RL datacenters count the events they process and the VMs they place,
+ * and the broker counts its events. Every harness builds one datacenter per
+ * iteration, so the datacenter constructor also marks the start of an
+ * iteration. The counters are plain fields: CloudSim runs every entity on
+ * one thread at a time.
+ * </p>
+ */
+public final class SimulationCounters {
+
+    private static long events;
+    private static long placements;
+    private static final List<Long> iterationStarts = new ArrayList<>();
+
+    private SimulationCounters() {
+    }
+
+    /** Count one event processed by a datacenter or broker. */
+    public static void eventProcessed() {
+        events++;
+    }
+
+    /** Count one VM placed on a host. */
+    public static void vmPlaced() {
+        placements++;
+    }
+
+    /** Mark the start of an iteration, at {@link System#nanoTime()}. */
+    public static synchronized void iterationStarted() {
+        iterationStarts.add(System.nanoTime());
+    }
+
+    public static long getEvents() {
+        return events;
+    }
+
+    public static long getPlacements() {
+        return placements;
+    }
+
+    public static synchronized int getIterations() {
+        return iterationStarts.size();
+    }
+
+    /**
+     * Wall time of every iteration so far, in nanoseconds. Each iteration
+     * runs until the next one starts; the last one until {@code endNanos}.
+     */
+    public static synchronized long[] iterationNanos(long endNanos) {
+        long[] nanos = new long[iterationStarts.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            long end = i + 1 < nanos.length ? iterationStarts.get(i + 1) : endNanos;
+            nanos[i] = end - iterationStarts.get(i);
+        }
+        return nanos;
+    }
+
+    /** Clear every counter. */
+    public static synchronized void reset() {
+        events = 0;
+        placements = 0;
+        iterationStarts.clear();
+    }
+}
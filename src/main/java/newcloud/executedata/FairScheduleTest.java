@@ -5,7 +5,6 @@ import newcloud.datacenter.PowerDatacenterFair;
 import newcloud.policy.VmAllocationAssignerFair;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabHelper;
 import org.cloudbus.cloudsim.power.PowerHost;
 
 import java.util.Calendar;
@@ -31,7 +30,7 @@ public class FairScheduleTest {
             broker = createBroker();
             brokerId = broker.getId();
 
-            cloudletList = PlanetLabHelper.createCloudletListPlanetLab(brokerId, inputFolder);
+            cloudletList = PlanetLabTraceCache.createCloudletList(brokerId, inputFolder);
             vmList = newHelper.createVmList(brokerId, cloudletList.size());
             hostList = newHelper.createHostList(NUMBER_OF_HOSTS);
             VmAllocationPolicy vmAllocationPolicy = new NewPowerAllocatePolicy(hostList);
@@ -49,7 +48,7 @@ public class FairScheduleTest {
             CloudSim.terminateSimulation(terminateTime);
             CloudSim.startSimulation();
             CloudSim.stopSimulation();
-            System.out.println(i + "----------------------------------");
+            SimLog.info("Iteration {} finished", i);
         }
         return PowerDatacenterFair.allpower;
     }
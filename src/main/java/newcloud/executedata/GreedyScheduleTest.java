@@ -5,7 +5,6 @@ import newcloud.datacenter.PowerDatacenterGready;
 import newcloud.policy.VmAllocationAssignerGready;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabHelper;
 import org.cloudbus.cloudsim.power.PowerHost;
 
 import java.util.ArrayList;
@@ -32,7 +31,7 @@ public class GreedyScheduleTest {
             broker = createBroker();
             brokerId = broker.getId();
 
-            cloudletList = PlanetLabHelper.createCloudletListPlanetLab(brokerId, inputFolder);
+            cloudletList = PlanetLabTraceCache.createCloudletList(brokerId, inputFolder);
             vmList = newHelper.createVmList(brokerId, cloudletList.size());
             hostList = newHelper.createHostList(NUMBER_OF_HOSTS);
             VmAllocationPolicy vmAllocationPolicy = new NewPowerAllocatePolicy(hostList);
@@ -50,7 +49,7 @@ public class GreedyScheduleTest {
             CloudSim.terminateSimulation(terminateTime);
             CloudSim.startSimulation();
             CloudSim.stopSimulation();
-            System.out.println(i + "----------------------------------");
+            SimLog.info("Iteration {} finished", i);
         }
         return PowerDatacenterGready.allpower;
     }
@@ -2,10 +2,10 @@ package newcloud.executedata;
 
 import newcloud.*;
 import newcloud.datacenter.PowerDatacenterLearningAndInit;
+import newcloud.policy.QTableCheckpoint;
 import newcloud.policy.VmAllocationAssignerLearningAndInit;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabHelper;
 import org.cloudbus.cloudsim.power.PowerHost;
 
 import java.util.Calendar;
@@ -25,20 +25,23 @@ public class LearningAndInitScheduleTest {
     private static DatacenterBroker broker;
     public static int brokerId;
 
-    double LEARNING_GAMMA = 0.9;
-    double LEARNING_ALPHA = 0.8;
+    double LEARNING_GAMMA = RL_GAMMA;
+    double LEARNING_ALPHA = RL_ALPHA;
     double LEARNING_EPSILON = 0.2;
 
     public List<Double> execute() throws Exception {
-        for (int i = 0; i < Iteration; i++) {
-            LEARNING_EPSILON = 1.0 / (i + 1);
+        int start = QTableCheckpoint.start(VmAllocationAssignerLearningAndInit.QList, null);
+        // A frozen policy placing with epsilon 0 repeats the same run: evaluate once
+        int end = EVALUATION_ONLY ? start + 1 : Iteration;
+        for (int i = start; i < end; i++) {
+            LEARNING_EPSILON = EVALUATION_ONLY ? 0 : 1.0 / (1 + RL_EPSILON_DECAY * i);
             VmAllocationAssignerLearningAndInit assigner = new VmAllocationAssignerLearningAndInit(LEARNING_GAMMA, LEARNING_ALPHA, LEARNING_EPSILON, GenExcel.getInstance());
 
             CloudSim.init(1, Calendar.getInstance(), false);
             broker = createBroker();
             brokerId = broker.getId();
 
-            cloudletList = PlanetLabHelper.createCloudletListPlanetLab(brokerId, inputFolder);
+            cloudletList = PlanetLabTraceCache.createCloudletList(brokerId, inputFolder);
             vmList = newHelper.createVmList(brokerId, cloudletList.size());
             hostList = newHelper.createHostList(NUMBER_OF_HOSTS);
             VmAllocationPolicy vmAllocationPolicy = new NewPowerAllocatePolicy(hostList);
@@ -53,7 +56,8 @@ public class LearningAndInitScheduleTest {
             CloudSim.terminateSimulation(terminateTime);
             CloudSim.startSimulation();
             CloudSim.stopSimulation();
-            System.out.println(i + "----------------------------------");
+            SimLog.info("Iteration {} finished", i);
+            QTableCheckpoint.afterIteration(i + 1, VmAllocationAssignerLearningAndInit.QList, null);
         }
         return PowerDatacenterLearningAndInit.allpower;
     }
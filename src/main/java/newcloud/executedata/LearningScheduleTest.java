@@ -2,10 +2,10 @@ package newcloud.executedata;
 
 import newcloud.*;
 import newcloud.datacenter.PowerDatacenterLearning;
+import newcloud.policy.QTableCheckpoint;
 import newcloud.policy.VmAllocationAssignerLearning;
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabHelper;
 import org.cloudbus.cloudsim.power.PowerHost;
 
 import java.text.DecimalFormat;
@@ -31,8 +31,8 @@ public class LearningScheduleTest {
     private static VmAllocationAssignerLearning vmAllocationAssignerLearning;
     private static double smallestdata = Double.MAX_VALUE;
 
-    double LEARNING_GAMMA = 0.9;
-    double LEARNING_ALPHA = 0.8;
+    double LEARNING_GAMMA = RL_GAMMA;
+    double LEARNING_ALPHA = RL_ALPHA;
     double LEARNING_EPSILON = 0.2;
 
     public double getLEARNING_GAMMA() { return LEARNING_GAMMA; }
@@ -43,8 +43,11 @@ public class LearningScheduleTest {
     public void setLEARNING_EPSILON(double v) { this.LEARNING_EPSILON = v; }
 
     public List<Double> execute() throws Exception {
-        for (int i = 0; i < Iteration; i++) {
-            LEARNING_EPSILON = 1.0 / (i + 1);
+        int start = QTableCheckpoint.start(VmAllocationAssignerLearning.QList, null);
+        // A frozen policy placing with epsilon 0 repeats the same run: evaluate once
+        int end = EVALUATION_ONLY ? start + 1 : Iteration;
+        for (int i = start; i < end; i++) {
+            LEARNING_EPSILON = EVALUATION_ONLY ? 0 : 1.0 / (1 + RL_EPSILON_DECAY * i);
             vmAllocationAssignerLearning = new VmAllocationAssignerLearning(
                     LEARNING_GAMMA, LEARNING_ALPHA, LEARNING_EPSILON, GenExcel.getInstance());
 
@@ -52,7 +55,7 @@ public class LearningScheduleTest {
             broker = createBroker();
             brokerId = broker.getId();
 
-            cloudletList = PlanetLabHelper.createCloudletListPlanetLab(brokerId, inputFolder);
+            cloudletList = PlanetLabTraceCache.createCloudletList(brokerId, inputFolder);
             vmList = newHelper.createVmList(brokerId, cloudletList.size());
             hostList = newHelper.createHostList(Constants.NUMBER_OF_HOSTS);
             VmAllocationPolicy vmAllocationPolicy = new NewPowerAllocatePolicy(hostList);
@@ -74,21 +77,24 @@ public class LearningScheduleTest {
             double lastClock = CloudSim.startSimulation();
             List<Cloudlet> newList = broker.getCloudletReceivedList();
             CloudSim.stopSimulation();
-            System.out.println(i + "----------------------------------");
+            SimLog.info("Iteration {} finished", i);
+            QTableCheckpoint.afterIteration(i + 1, VmAllocationAssignerLearning.QList, null);
         }
 
-        for (String s : QList.keySet()) {
-            System.out.println(s + ":" + QList.get(s));
+        if (SimLog.isEnabled(SimLog.Level.DEBUG)) {
+            for (int s = 0; s < QList.size(); s++) {
+                SimLog.debug("{}:{}", QList.stateKey(s), QList.rowToString(s));
+            }
         }
-        System.out.println(QList.size());
+        SimLog.info("Q-table states: {}", QList.size());
 
         for (int i = 0; i < PowerDatacenterLearning.allpower.size(); i++) {
-            System.out.println(PowerDatacenterLearning.allpower.get(i));
+            SimLog.debug("{}", PowerDatacenterLearning.allpower.get(i));
             if (PowerDatacenterLearning.allpower.get(i) < smallestdata) {
                 smallestdata = PowerDatacenterLearning.allpower.get(i);
             }
         }
-        System.out.println("Minimum power: " + smallestdata);
+        SimLog.info("Minimum power: {}", smallestdata);
         return PowerDatacenterLearning.allpower;
     }
 
@@ -0,0 +1,120 @@
+package newcloud.executedata;
+
+import newcloud.*;
+import newcloud.datacenter.PowerDatacenterLinear;
+import newcloud.policy.HostFeatures;
+import newcloud.policy.LinearQFunction;
+import newcloud.policy.VmAllocationAssignerLinear;
+import org.cloudbus.cloudsim.*;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerHost;
+
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import static newcloud.Constants.*;
+import static newcloud.policy.VmAllocationAssignerLinear.QFunction;
+
+/**
+ * Test harness for Q-Learning with a linear function approximator.
+ * Runs multiple iterations and collects power consumption data.
+ * <p>
+ * The weights are checkpointed, resumed and warm-started through the same
+ * Constants settings as the Q-tables (see {@link LinearQFunction}), so a
+ * model trained here on NUMBER_OF_HOSTS hosts can be evaluated with
+ * cloudsim.eval on a datacenter of any size.
+ * </p>
+ */
+public class LinearScheduleTest {
+
+    private static List<Cloudlet> cloudletList;
+    public static List<Vm> vmList;
+    private static List<PowerHost> hostList;
+    private static DatacenterBroker broker;
+    public static int brokerId;
+    private static VmAllocationAssignerLinear vmAllocationAssignerLinear;
+    private static double smallestdata = Double.MAX_VALUE;
+
+    double LEARNING_GAMMA = RL_GAMMA;
+    double LEARNING_ALPHA = RL_ALPHA;
+    double LEARNING_EPSILON = 0.2;
+
+    public double getLEARNING_GAMMA() { return LEARNING_GAMMA; }
+    public void setLEARNING_GAMMA(double v) { this.LEARNING_GAMMA = v; }
+    public double getLEARNING_ALPHA() { return LEARNING_ALPHA; }
+    public void setLEARNING_ALPHA(double v) { this.LEARNING_ALPHA = v; }
+    public double getLEARNING_EPSILON() { return LEARNING_EPSILON; }
+    public void setLEARNING_EPSILON(double v) { this.LEARNING_EPSILON = v; }
+
+    public List<Double> execute() throws Exception {
+        int start = LinearQFunction.start(QFunction);
+        // A frozen policy placing with epsilon 0 repeats the same run: evaluate once
+        int end = EVALUATION_ONLY ? start + 1 : Iteration;
+        for (int i = start; i < end; i++) {
+            LEARNING_EPSILON = EVALUATION_ONLY ? 0 : 1.0 / (1 + RL_EPSILON_DECAY * i);
+            vmAllocationAssignerLinear = new VmAllocationAssignerLinear(
+                    LEARNING_GAMMA, LEARNING_ALPHA, LEARNING_EPSILON, GenExcel.getInstance());
+
+            CloudSim.init(1, Calendar.getInstance(), false);
+            broker = createBroker();
+            brokerId = broker.getId();
+
+            cloudletList = PlanetLabTraceCache.createCloudletList(brokerId, inputFolder);
+            vmList = newHelper.createVmList(brokerId, cloudletList.size());
+            hostList = newHelper.createHostList(Constants.NUMBER_OF_HOSTS);
+            VmAllocationPolicy vmAllocationPolicy = new NewPowerAllocatePolicy(hostList);
+
+            PowerDatacenterLinear datacenter = new PowerDatacenterLinear(
+                    "Datacenter",
+                    createCharacteristics(hostList),
+                    vmAllocationPolicy,
+                    new LinkedList<Storage>(),
+                    300,
+                    vmAllocationAssignerLinear,
+                    brokerId);
+            datacenter.setDisableMigrations(false);
+
+            broker.submitVmList(vmList);
+            broker.submitCloudletList(cloudletList);
+            CloudSim.terminateSimulation(terminateTime);
+
+            double lastClock = CloudSim.startSimulation();
+            List<Cloudlet> newList = broker.getCloudletReceivedList();
+            CloudSim.stopSimulation();
+            SimLog.info("Iteration {} finished", i);
+            LinearQFunction.afterIteration(i + 1, QFunction);
+        }
+
+        if (SimLog.isEnabled(SimLog.Level.DEBUG)) {
+            for (int f = 0; f < HostFeatures.COUNT; f++) {
+                SimLog.debug("w[{}] = {}", f, QFunction.getWeight(f));
+            }
+        }
+
+        for (int i = 0; i < PowerDatacenterLinear.allpower.size(); i++) {
+            SimLog.debug("{}", PowerDatacenterLinear.allpower.get(i));
+            if (PowerDatacenterLinear.allpower.get(i) < smallestdata) {
+                smallestdata = PowerDatacenterLinear.allpower.get(i);
+            }
+        }
+        SimLog.info("Minimum power: {}", smallestdata);
+        return PowerDatacenterLinear.allpower;
+    }
+
+    private DatacenterCharacteristics createCharacteristics(List<PowerHost> hostList) {
+        return new DatacenterCharacteristics("x86", "Linux", "Xen",
+                hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+    }
+
+    public DatacenterBroker createBroker() {
+        NewPowerDatacenterBroker broker = null;
+        try {
+            broker = new NewPowerDatacenterBroker("Broker");
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(0);
+        }
+        return broker;
+    }
+}
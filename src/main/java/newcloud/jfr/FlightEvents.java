@@ -0,0 +1,87 @@
+package newcloud.jfr;
+
+/**
+ * JDK Flight Recorder events for placements, Q-table updates and
+ * processing ticks.
+ * <p>
+ * The events are recorded like any other JFR event, e.g. with
+ * {@code -XX:StartFlightRecording=filename=run.jfr}, and are named
+ * "newcloud.Placement", "newcloud.QUpdate" and "newcloud.Tick". Callers
+ * check {@code isXEnabled()} first and only then read the clock and build
+ * the event's values, so without a recording that enables the event a call
+ * site costs one flag check. On a JVM without JFR the event classes are
+ * never loaded and every check returns false.
+ * </p>
+ * <p>
+ * Latencies are event fields rather than the events' own durations, since
+ * the decisions are timed where the values are known; duration thresholds
+ * in the recording settings therefore do not apply to them.
+ * </p>
+ */
+public final class FlightEvents {
+
+    /** Whether this JVM has a usable Flight Recorder. */
+    public static final boolean AVAILABLE = detect();
+
+    private FlightEvents() {
+    }
+
+    private static boolean detect() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, FlightEvents.class.getClassLoader());
+            return Recorder.isAvailable();
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    public static boolean isPlacementEnabled() {
+        return AVAILABLE && Recorder.isPlacementEnabled();
+    }
+
+    public static boolean isQUpdateEnabled() {
+        return AVAILABLE && Recorder.isQUpdateEnabled();
+    }
+
+    public static boolean isTickEnabled() {
+        return AVAILABLE && Recorder.isTickEnabled();
+    }
+
+    /**
+     * Emit a placement event.
+     *
+     * @param vmId       the VM placed
+     * @param hostId     the host it was placed on, or -1 if it was not placed
+     * @param fallback   whether first fit replaced the policy's choice
+     * @param stateCode  the datacenter state code when the decision was made
+     * @param startNanos {@link System#nanoTime()} when the decision started
+     */
+    public static void placement(int vmId, int hostId, boolean fallback, int stateCode, long startNanos) {
+        Recorder.placement(vmId, hostId, fallback, stateCode, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Emit a Q-table update event.
+     *
+     * @param assigner   the assigner's class
+     * @param state      the key of the updated state
+     * @param action     the updated action
+     * @param tdError    the temporal-difference error of the update
+     * @param startNanos {@link System#nanoTime()} when the update started
+     */
+    public static void qUpdate(Class<?> assigner, String state, int action, double tdError, long startNanos) {
+        Recorder.qUpdate(assigner.getSimpleName(), state, action, tdError, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Emit a tick event.
+     *
+     * @param clock      the simulation time of the tick
+     * @param hostCount  hosts advanced
+     * @param energy     energy consumed since the previous tick
+     * @param startNanos {@link System#nanoTime()} when the tick started
+     */
+    public static void tick(double clock, int hostCount, double energy, long startNanos) {
+        Recorder.tick(clock, hostCount, energy, System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,36 @@
+package newcloud.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** One VM placement decision of a datacenter. */
+@Name("newcloud.Placement")
+@Label("VM Placement")
+@Category({"CloudPowerDeployment", "Simulation"})
+@Description("A VM placed by a datacenter's policy")
+@StackTrace(false)
+class PlacementEvent extends jdk.jfr.Event {
+
+    @Label("VM Id")
+    int vmId;
+
+    @Label("Host Id")
+    @Description("The host the VM ended up on, or -1 if it was not placed")
+    int hostId;
+
+    @Label("Fallback Used")
+    @Description("Whether the policy's host rejected the VM and first fit was used")
+    boolean fallback;
+
+    @Label("State Code")
+    @Description("The datacenter state when the decision was made, see StateCodec")
+    int stateCode;
+
+    @Label("Decision Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
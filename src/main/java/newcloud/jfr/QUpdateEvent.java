@@ -0,0 +1,33 @@
+package newcloud.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** One learning update of an RL assigner. */
+@Name("newcloud.QUpdate")
+@Label("Q Update")
+@Category({"CloudPowerDeployment", "Learning"})
+@Description("A temporal-difference update of an assigner's Q-table")
+@StackTrace(false)
+class QUpdateEvent extends jdk.jfr.Event {
+
+    @Label("Assigner")
+    String assigner;
+
+    @Label("State")
+    String state;
+
+    @Label("Action")
+    int action;
+
+    @Label("TD Error")
+    double tdError;
+
+    @Label("Update Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
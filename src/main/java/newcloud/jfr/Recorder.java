@@ -0,0 +1,63 @@
+package newcloud.jfr;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * The part of {@link FlightEvents} that touches the JFR API, loaded only
+ * once FlightEvents has found it.
+ */
+final class Recorder {
+
+    private static final EventType PLACEMENT = EventType.getEventType(PlacementEvent.class);
+    private static final EventType Q_UPDATE = EventType.getEventType(QUpdateEvent.class);
+    private static final EventType TICK = EventType.getEventType(TickEvent.class);
+
+    private Recorder() {
+    }
+
+    static boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+    static boolean isPlacementEnabled() {
+        return PLACEMENT.isEnabled();
+    }
+
+    static boolean isQUpdateEnabled() {
+        return Q_UPDATE.isEnabled();
+    }
+
+    static boolean isTickEnabled() {
+        return TICK.isEnabled();
+    }
+
+    static void placement(int vmId, int hostId, boolean fallback, int stateCode, long latency) {
+        PlacementEvent event = new PlacementEvent();
+        event.vmId = vmId;
+        event.hostId = hostId;
+        event.fallback = fallback;
+        event.stateCode = stateCode;
+        event.latency = latency;
+        event.commit();
+    }
+
+    static void qUpdate(String assigner, String state, int action, double tdError, long latency) {
+        QUpdateEvent event = new QUpdateEvent();
+        event.assigner = assigner;
+        event.state = state;
+        event.action = action;
+        event.tdError = tdError;
+        event.latency = latency;
+        event.commit();
+    }
+
+    static void tick(double clock, int hostCount, double energy, long latency) {
+        TickEvent event = new TickEvent();
+        event.clock = clock;
+        event.hostCount = hostCount;
+        event.energy = energy;
+        event.latency = latency;
+        event.commit();
+    }
+}
@@ -0,0 +1,31 @@
+package newcloud.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** One processing tick of a datacenter. */
+@Name("newcloud.Tick")
+@Label("Simulation Tick")
+@Category({"CloudPowerDeployment", "Simulation"})
+@Description("A datacenter advancing its hosts and accounting for their energy")
+@StackTrace(false)
+class TickEvent extends jdk.jfr.Event {
+
+    @Label("Simulation Time")
+    double clock;
+
+    @Label("Host Count")
+    int hostCount;
+
+    @Label("Energy")
+    @Description("Energy consumed by all hosts since the previous tick, in W*sec")
+    double energy;
+
+    @Label("Tick Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
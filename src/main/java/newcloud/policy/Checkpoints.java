@@ -0,0 +1,183 @@
+package newcloud.policy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static newcloud.Constants.CHECKPOINT_FILE;
+import static newcloud.Constants.CHECKPOINT_INTERVAL;
+import static newcloud.Constants.EVALUATION_ONLY;
+import static newcloud.Constants.Iteration;
+import static newcloud.Constants.RESUME;
+import static newcloud.Constants.WARM_START_FILE;
+
+/**
+ * File handling and checkpoint settings shared by the model files,
+ * {@link QTableCheckpoint} and {@link LinearQFunction}. Each file starts
+ * with
+ * <pre>
+ *   int    MAGIC
+ *   int    VERSION
+ *   int    iterations completed when written
+ * </pre>
+ * followed by the model's own payload. Files are written to a temporary
+ * file in the target directory and moved over the target, so a crash while
+ * writing leaves the previous file intact.
+ */
+final class Checkpoints {
+
+    /** Writes a model's payload after the header. */
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /** Reads a model's payload after the header. */
+    interface PayloadReader {
+        void read(DataInputStream in) throws IOException;
+    }
+
+    /** A model the checkpoint settings apply to. */
+    interface Model {
+        /**
+         * Load a file into the model.
+         *
+         * @param evaluation whether only what an evaluation-only run uses is needed
+         * @return the iterations completed when the file was written
+         */
+        int read(File file, boolean evaluation) throws IOException;
+
+        void write(File file, int iterations) throws IOException;
+
+        boolean isFrozen();
+
+        void freeze();
+    }
+
+    private Checkpoints() {
+    }
+
+    /**
+     * Write a file atomically.
+     *
+     * @param file       the file to write
+     * @param magic      the file magic
+     * @param version    the format version
+     * @param iterations iterations completed so far
+     * @param payload    writes the model
+     */
+    static void write(File file, int magic, int version, int iterations, PayloadWriter payload)
+            throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(magic);
+                out.writeInt(version);
+                out.writeInt(iterations);
+                payload.write(out);
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Read a file written by {@link #write(File, int, int, int, PayloadWriter)}.
+     *
+     * @param file    the file to read
+     * @param magic   the expected file magic
+     * @param version the supported format version
+     * @param kind    what the file holds, for error messages, e.g. "Q-table checkpoint"
+     * @param payload reads the model
+     * @return the iterations completed when the file was written
+     */
+    static int read(File file, int magic, int version, String kind, PayloadReader payload)
+            throws IOException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(capitalize(kind) + " not found: " + file.getPath());
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != magic) {
+                throw new IOException("Not a " + kind + " (bad magic): " + file.getPath());
+            }
+            int found = in.readInt();
+            if (found != version) {
+                throw new IOException("Unsupported " + kind + " version " + found + ": " + file.getPath());
+            }
+            int iterations = in.readInt();
+            payload.read(in);
+            return iterations;
+        } catch (EOFException e) {
+            throw new IOException("Truncated " + kind + ": " + file.getPath(), e);
+        }
+    }
+
+    private static String capitalize(String kind) {
+        return Character.toUpperCase(kind.charAt(0)) + kind.substring(1);
+    }
+
+    /**
+     * Prepare a harness's model before its first iteration. With
+     * Constants.EVALUATION_ONLY the model is loaded from WARM_START_FILE, or
+     * else CHECKPOINT_FILE, and frozen. With Constants.RESUME and an existing
+     * CHECKPOINT_FILE the model is loaded from it and training continues
+     * where it stopped; otherwise, if WARM_START_FILE is set, the model is
+     * loaded from that file and training starts over.
+     *
+     * @return the first iteration to run
+     */
+    static int start(Model model) throws IOException {
+        if (EVALUATION_ONLY) {
+            String file = WARM_START_FILE != null ? WARM_START_FILE : CHECKPOINT_FILE;
+            if (file == null) {
+                throw new IllegalStateException(
+                        "Evaluation-only runs need a trained model: set cloudsim.warmstart");
+            }
+            if (!model.isFrozen()) {
+                model.read(new File(file), true);
+                model.freeze();
+            }
+            return 0;
+        }
+        if (RESUME && CHECKPOINT_FILE != null && new File(CHECKPOINT_FILE).isFile()) {
+            return model.read(new File(CHECKPOINT_FILE), false);
+        }
+        if (WARM_START_FILE != null) {
+            model.read(new File(WARM_START_FILE), false);
+        }
+        return 0;
+    }
+
+    /**
+     * Write CHECKPOINT_FILE, if set, every CHECKPOINT_INTERVAL iterations and
+     * after the last one.
+     *
+     * @param completed iterations completed so far
+     */
+    static void afterIteration(int completed, Model model) throws IOException {
+        if (CHECKPOINT_FILE == null || model.isFrozen()) {
+            return;
+        }
+        if (completed % Math.max(1, CHECKPOINT_INTERVAL) == 0 || completed == Iteration) {
+            model.write(new File(CHECKPOINT_FILE), completed);
+        }
+    }
+}
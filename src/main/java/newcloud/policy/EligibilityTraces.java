@@ -0,0 +1,162 @@
+package newcloud.policy;
+
+import java.util.Arrays;
+
+import static newcloud.Constants.TRACE_CUTOFF;
+
+/**
+ * Sparse eligibility-trace store for the Q(Lambda) and SARSA(Lambda) assigners.
+ * <p>
+ * Every trace decays by gamma * lambda per step, so after a few dozen steps
+ * almost all of them are effectively zero. Instead of a dense (state x action)
+ * table that has to be swept in full on every update, this store keeps only
+ * the active (state, action) pairs in parallel primitive arrays and drops a
+ * pair once its trace falls below the cutoff. A step therefore costs
+ * O(active traces) rather than O(|S| * N).
+ * </p>
+ * <p>
+ * States are the row ids of the {@link QTable} the traces are applied to.
+ * </p>
+ */
+public class EligibilityTraces {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Traces below this value are treated as zero and dropped. */
+    private double cutoff;
+
+    private int[] states = new int[INITIAL_CAPACITY];
+    private int[] actions = new int[INITIAL_CAPACITY];
+    private double[] traces = new double[INITIAL_CAPACITY];
+
+    /** Number of active traces. */
+    private int count;
+
+    public EligibilityTraces() {
+        this(TRACE_CUTOFF);
+    }
+
+    public EligibilityTraces(double cutoff) {
+        setCutoff(cutoff);
+    }
+
+    public double getCutoff() {
+        return cutoff;
+    }
+
+    public void setCutoff(double cutoff) {
+        if (cutoff < 0) {
+            throw new IllegalArgumentException("Trace cutoff must be non-negative: " + cutoff);
+        }
+        this.cutoff = cutoff;
+    }
+
+    /** Number of active (non-negligible) traces. */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Add to the trace of a state-action pair, activating it if needed.
+     *
+     * @param state  the Q-table row id
+     * @param action the action index
+     * @param amount the amount to add (1 for accumulating traces)
+     */
+    public void accumulate(int state, int action, double amount) {
+        int slot = indexOf(state, action);
+        if (slot >= 0) {
+            traces[slot] += amount;
+            return;
+        }
+        if (count == traces.length) {
+            int capacity = count * 2;
+            states = Arrays.copyOf(states, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+            traces = Arrays.copyOf(traces, capacity);
+        }
+        states[count] = state;
+        actions[count] = action;
+        traces[count] = amount;
+        count++;
+    }
+
+    /** State of the active trace in a slot, 0 <= slot < size(). */
+    public int stateAt(int slot) {
+        return states[slot];
+    }
+
+    /** Action of the active trace in a slot, 0 <= slot < size(). */
+    public int actionAt(int slot) {
+        return actions[slot];
+    }
+
+    /** Value of the active trace in a slot, 0 <= slot < size(). */
+    public double traceAt(int slot) {
+        return traces[slot];
+    }
+
+    /** Current trace of a state-action pair; inactive pairs read as 0. */
+    public double get(int state, int action) {
+        int slot = indexOf(state, action);
+        return slot < 0 ? 0.0 : traces[slot];
+    }
+
+    /**
+     * Apply one eligibility-trace step to a Q-table:
+     * Q(s,a) += step * E(s,a), then E(s,a) *= decay, for every active pair.
+     * Pairs whose trace falls below the cutoff are dropped.
+     *
+     * @param qTable the table to update
+     * @param step   alpha * delta for this transition
+     * @param decay  gamma * lambda
+     */
+    public void applyAndDecay(QTable qTable, double step, double decay) {
+        int i = 0;
+        while (i < count) {
+            double trace = traces[i];
+            qTable.add(states[i], actions[i], step * trace);
+            trace *= decay;
+            if (Math.abs(trace) < cutoff) {
+                removeAt(i);
+            } else {
+                traces[i] = trace;
+                i++;
+            }
+        }
+    }
+
+    /** Drop all traces of one state. */
+    public void clearState(int state) {
+        int i = 0;
+        while (i < count) {
+            if (states[i] == state) {
+                removeAt(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /** Drop all traces. */
+    public void clear() {
+        count = 0;
+    }
+
+    private int indexOf(int state, int action) {
+        for (int i = 0; i < count; i++) {
+            if (states[i] == state && actions[i] == action) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Remove a slot by moving the last active trace into it. */
+    private void removeAt(int slot) {
+        count--;
+        states[slot] = states[count];
+        actions[slot] = actions[count];
+        traces[slot] = traces[count];
+    }
+}
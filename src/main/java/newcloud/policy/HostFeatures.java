@@ -0,0 +1,126 @@
+package newcloud.policy;
+
+import newcloud.Constants;
+import newcloud.PowerModel.PowerTable;
+import newcloud.StateCodec;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+
+/**
+ * Feature vector of a (state, candidate host, VM) triple, for
+ * {@link LinearQFunction}.
+ * <p>
+ * Every feature describes one host and the VM being placed, never the
+ * host's position in the list, so a model trained on one datacenter size
+ * scores hosts of any other. All features are in [0, 1]:
+ * </p>
+ * <pre>
+ *   0       bias (always 1)
+ *   1..3    host type, one-hot over Constants.HOST_TYPES
+ *   4       allocated CPU of the host before placement
+ *   5       allocated CPU of the host after placement (capped at 1)
+ *   6       marginal power of the placement, over the largest peak power
+ *   7       1 if the host has fewer free MIPS than the VM asks for
+ *   8       VM MIPS, over the largest of Constants.VM_MIPS
+ *   9       VM RAM, over the largest of Constants.VM_RAM
+ *   10      VM MIPS over host MIPS (capped at 1)
+ *   11..13  datacenter state: CPU, active host and VM density bins
+ * </pre>
+ * <p>
+ * Marginal power counts the idle power of a host that has no VMs yet, as
+ * PowerTable.getEnergy does, so switching a host on is charged to the VM
+ * that causes it.
+ * </p>
+ */
+public final class HostFeatures {
+
+    /** Number of features. */
+    public static final int COUNT = 14;
+
+    public static final int BIAS = 0;
+    public static final int HOST_TYPE = 1;
+    public static final int UTILIZATION = 4;
+    public static final int UTILIZATION_AFTER = 5;
+    public static final int MARGINAL_POWER = 6;
+    public static final int OVERCOMMIT = 7;
+    public static final int VM_MIPS = 8;
+    public static final int VM_RAM = 9;
+    public static final int VM_SHARE = 10;
+    public static final int STATE = 11;
+
+    private static final double MAX_VM_MIPS = max(Constants.VM_MIPS);
+    private static final double MAX_VM_RAM = max(Constants.VM_RAM);
+    private static final double MAX_POWER = maxPower();
+
+    private HostFeatures() {
+    }
+
+    /**
+     * Fill a feature vector.
+     *
+     * @param out   the vector to fill, of length {@link #COUNT}
+     * @param state the datacenter state code (see {@link StateCodec})
+     * @param host  the candidate host
+     * @param vm    the VM being placed
+     */
+    public static void fill(double[] out, int state, PowerHost host, Vm vm) {
+        double totalMips = host.getTotalMips();
+        double freeMips = host.getAvailableMips();
+        double vmMips = vm.getMips() * vm.getNumberOfPes();
+        double before = clamp(1 - freeMips / totalMips);
+        double after = clamp(before + vmMips / totalMips);
+        PowerTable table = PowerTable.of(host.getPowerModel());
+        double powerBefore = host.getVmList().isEmpty() ? 0 : table.getPower(before);
+
+        out[BIAS] = 1;
+        int type = hostType(host);
+        for (int t = 0; t < Constants.HOST_TYPES.length; t++) {
+            out[HOST_TYPE + t] = t == type ? 1 : 0;
+        }
+        out[UTILIZATION] = before;
+        out[UTILIZATION_AFTER] = after;
+        out[MARGINAL_POWER] = clamp((table.getPower(after) - powerBefore) / MAX_POWER);
+        out[OVERCOMMIT] = freeMips < vmMips ? 1 : 0;
+        out[VM_MIPS] = clamp(vm.getMips() / MAX_VM_MIPS);
+        out[VM_RAM] = clamp(vm.getRam() / MAX_VM_RAM);
+        out[VM_SHARE] = clamp(vmMips / totalMips);
+        out[STATE] = (StateCodec.cpuBin(state) + 0.5) / StateCodec.BINS;
+        out[STATE + 1] = (StateCodec.activeBin(state) + 0.5) / StateCodec.BINS;
+        out[STATE + 2] = (StateCodec.vmBin(state) + 0.5) / StateCodec.BINS;
+    }
+
+    /**
+     * Index of a host's type in Constants.HOST_TYPES, matched by power
+     * model instance, or -1 for a host of no known type.
+     */
+    public static int hostType(PowerHost host) {
+        PowerModel model = host.getPowerModel();
+        for (int t = 0; t < Constants.HOST_POWER.length; t++) {
+            if (Constants.HOST_POWER[t] == model) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    private static double clamp(double value) {
+        return value < 0 ? 0 : value > 1 ? 1 : value;
+    }
+
+    private static double max(int[] values) {
+        int max = 1;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static double maxPower() {
+        double max = 1;
+        for (PowerModel model : Constants.HOST_POWER) {
+            max = Math.max(max, PowerTable.of(model).getPower(1));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,206 @@
+package newcloud.policy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Linear action-value function Q(s, a) = w . phi(s, a).
+ * <p>
+ * The weight vector has one entry per feature (see {@link HostFeatures}),
+ * so its size does not depend on the number of hosts: a model trained on
+ * 300 hosts scores 30,000 as well.
+ * </p>
+ * <p>
+ * {@link #update(double[], double, double)} is the semi-gradient TD step
+ * {@code w += alpha * delta * phi / |phi|^2}. Dividing by the squared
+ * feature norm (normalized LMS) moves Q(s, a) by exactly
+ * {@code alpha * delta}, as the tabular update does, so the learning rates
+ * used with the Q-tables carry over and any alpha in (0, 2) is stable.
+ * </p>
+ * <p>
+ * Like a {@link QTable}, a function can be frozen for evaluation-only runs,
+ * after which updates throw. Weights are saved as
+ * </p>
+ * <pre>
+ *   int    MAGIC ("LQFN")
+ *   int    VERSION
+ *   int    iterations completed when written
+ *   int    features
+ *   double weights[features]
+ * </pre>
+ * <p>
+ * and written atomically by {@link Checkpoints}, like a Q-table checkpoint.
+ * {@link #start(LinearQFunction)} and
+ * {@link #afterIteration(int, LinearQFunction)} apply the checkpoint
+ * settings in Constants as {@link QTableCheckpoint} does for Q-tables.
+ * </p>
+ */
+public class LinearQFunction {
+
+    /** File magic, "LQFN" in ASCII. */
+    public static final int MAGIC = 0x4C51464E;
+
+    public static final int VERSION = 1;
+
+    private final double[] weights;
+
+    /** Whether the weights are read-only. */
+    private boolean frozen;
+
+    public LinearQFunction(int features) {
+        if (features <= 0) {
+            throw new IllegalArgumentException("Need at least one feature: " + features);
+        }
+        this.weights = new double[features];
+    }
+
+    /** Number of features. */
+    public int size() {
+        return weights.length;
+    }
+
+    public double getWeight(int feature) {
+        return weights[feature];
+    }
+
+    public void setWeight(int feature, double weight) {
+        checkWritable();
+        weights[feature] = weight;
+    }
+
+    /** Q-value of a feature vector. */
+    public double score(double[] features) {
+        double q = 0;
+        for (int i = 0; i < weights.length; i++) {
+            q += weights[i] * features[i];
+        }
+        return q;
+    }
+
+    /**
+     * Semi-gradient TD step on the weights.
+     *
+     * @param features the features of the updated (state, action)
+     * @param delta    the TD error, target minus {@link #score(double[])}
+     * @param alpha    the step size
+     */
+    public void update(double[] features, double delta, double alpha) {
+        checkWritable();
+        double norm = 0;
+        for (int i = 0; i < weights.length; i++) {
+            norm += features[i] * features[i];
+        }
+        if (norm == 0) {
+            return;
+        }
+        double step = alpha * delta / norm;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] += step * features[i];
+        }
+    }
+
+    /** Reset every weight to 0. */
+    public void clear() {
+        checkWritable();
+        Arrays.fill(weights, 0.0);
+    }
+
+    /** Make the weights read-only. */
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkWritable() {
+        if (frozen) {
+            throw new IllegalStateException("Linear Q-function is frozen");
+        }
+    }
+
+    /**
+     * Write the weights atomically.
+     *
+     * @param file       the file to write
+     * @param iterations iterations completed so far
+     * @param function   the function to save
+     */
+    public static void write(File file, int iterations, LinearQFunction function) throws IOException {
+        Checkpoints.write(file, MAGIC, VERSION, iterations, out -> {
+            out.writeInt(function.size());
+            for (double weight : function.weights) {
+                out.writeDouble(weight);
+            }
+        });
+    }
+
+    /**
+     * Load weights into a function.
+     *
+     * @param file     a file written by {@link #write(File, int, LinearQFunction)}
+     * @param function the function to fill; must have the file's feature count
+     * @return the iterations completed when the file was written
+     */
+    public static int read(File file, LinearQFunction function) throws IOException {
+        return Checkpoints.read(file, MAGIC, VERSION, "linear Q-function", in -> {
+            int features = in.readInt();
+            if (features != function.size()) {
+                throw new IOException("File has " + features + " features, function has "
+                        + function.size() + ": " + file.getPath());
+            }
+            double[] weights = new double[features];
+            for (int i = 0; i < features; i++) {
+                weights[i] = in.readDouble();
+            }
+            function.checkWritable();
+            System.arraycopy(weights, 0, function.weights, 0, features);
+        });
+    }
+
+    /**
+     * Prepare a harness's function before its first iteration, with the same
+     * rules as {@link QTableCheckpoint#start(QTable, EligibilityTraces)}.
+     *
+     * @return the first iteration to run
+     */
+    public static int start(LinearQFunction function) throws IOException {
+        return Checkpoints.start(function.model());
+    }
+
+    /**
+     * Write CHECKPOINT_FILE, if set, every CHECKPOINT_INTERVAL iterations and
+     * after the last one.
+     *
+     * @param completed iterations completed so far
+     */
+    public static void afterIteration(int completed, LinearQFunction function) throws IOException {
+        Checkpoints.afterIteration(completed, function.model());
+    }
+
+    private Checkpoints.Model model() {
+        return new Checkpoints.Model() {
+            @Override
+            public int read(File file, boolean evaluation) throws IOException {
+                return LinearQFunction.read(file, LinearQFunction.this);
+            }
+
+            @Override
+            public void write(File file, int iterations) throws IOException {
+                LinearQFunction.write(file, iterations, LinearQFunction.this);
+            }
+
+            @Override
+            public boolean isFrozen() {
+                return frozen;
+            }
+
+            @Override
+            public void freeze() {
+                LinearQFunction.this.freeze();
+            }
+        };
+    }
+}
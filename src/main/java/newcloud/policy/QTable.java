@@ -0,0 +1,380 @@
+package newcloud.policy;
+
+import newcloud.StateCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense tabular value store shared by the tabular RL assigners.
+ * <p>
+ * Values live in a single flat {@code double[]} laid out row-major as
+ * (state x action), so a lookup is one array index instead of two boxed
+ * map lookups. States are assigned consecutive int ids the first time they
+ * are seen; the state dictionary is only consulted when a caller still
+ * identifies a state by its string key.
+ * </p>
+ * <p>
+ * Callers holding a packed {@link StateCodec} code use {@link #rowForCode(int)},
+ * which resolves the row through a plain int array. The dictionary is only
+ * touched the first time a code is seen, and a code and its decoded key
+ * always share the same row.
+ * </p>
+ * <p>
+ * Each row also caches its greedy action and value. A write only rescans
+ * the row when it lowers the current maximum, so {@link #argmax(int)} and
+ * {@link #max(int)} are O(1) amortized for the single-entry updates the
+ * assigners make.
+ * </p>
+ * <p>
+ * A table can be frozen for evaluation-only runs with {@link #freeze()}.
+ * From then on every write throws, lookups of unseen states resolve to a
+ * shared all-zero row instead of adding one, and no lookup writes to the
+ * table's caches, so one frozen table can be read by several simulations
+ * at once.
+ * </p>
+ */
+public class QTable {
+
+    private static final int DEFAULT_INITIAL_STATES = 64;
+
+    /** Number of actions (columns) per state row. */
+    private final int numActions;
+
+    /** Row-major value block: entry (s, a) is at {@code s * numActions + a}. */
+    private double[] values;
+
+    /** Number of rows in use. */
+    private int rows;
+
+    /** Cached greedy action per row; -1 means the row must be rescanned. */
+    private int[] bestActions;
+
+    /** Cached maximum value per row; only valid when bestActions[s] >= 0. */
+    private double[] bestValues;
+
+    /** State dictionary: state key -> row id. */
+    private final Map<String, Integer> stateIds = new HashMap<>();
+
+    /** Reverse dictionary: row id -> state key. */
+    private final List<String> stateKeys = new ArrayList<>();
+
+    /** State code -> row id cache; -1 means not resolved yet. */
+    private int[] codeRows = newCodeRows(StateCodec.STATE_COUNT);
+
+    /** Whether the table is read-only; see {@link #freeze()}. */
+    private boolean frozen;
+
+    public QTable(int numActions) {
+        this(numActions, DEFAULT_INITIAL_STATES);
+    }
+
+    public QTable(int numActions, int initialStates) {
+        if (numActions <= 0) {
+            throw new IllegalArgumentException("numActions must be positive: " + numActions);
+        }
+        this.numActions = numActions;
+        int capacity = Math.max(1, initialStates);
+        this.values = new double[capacity * numActions];
+        this.bestActions = new int[capacity];
+        this.bestValues = new double[capacity];
+    }
+
+    /** Number of actions (columns) per row. */
+    public int numActions() {
+        return numActions;
+    }
+
+    /** Number of states currently stored. */
+    public int size() {
+        return rows;
+    }
+
+    public boolean containsState(String state) {
+        return stateIds.containsKey(state);
+    }
+
+    /**
+     * Look up the row id of a state.
+     *
+     * @param state the state key
+     * @return the row id, or -1 if the state has not been seen
+     */
+    public int stateId(String state) {
+        Integer id = stateIds.get(state);
+        return id == null ? -1 : id;
+    }
+
+    /** The state key for a row id. */
+    public String stateKey(int state) {
+        return stateKeys.get(state);
+    }
+
+    /** All state keys, in row id order. */
+    public List<String> states() {
+        return Collections.unmodifiableList(stateKeys);
+    }
+
+    /**
+     * Return the row id of a state, appending a zero-initialized row if the
+     * state has not been seen yet.
+     */
+    public int rowFor(String state) {
+        Integer id = stateIds.get(state);
+        if (id != null) {
+            return id;
+        }
+        if (frozen) {
+            return rows;
+        }
+        return appendRow(state);
+    }
+
+    /**
+     * (Re)initialize the row of a state to all zeros, creating it if needed.
+     *
+     * @return the row id
+     */
+    public int initRow(String state) {
+        checkWritable();
+        Integer id = stateIds.get(state);
+        if (id == null) {
+            return appendRow(state);
+        }
+        fillRow(id, 0.0);
+        return id;
+    }
+
+    /**
+     * Return the row id of a packed state code, appending a zero-initialized
+     * row if the state has not been seen yet.
+     *
+     * @param code a {@link StateCodec} state code
+     * @return the row id
+     */
+    public int rowForCode(int code) {
+        int id = codeId(code);
+        if (id < 0 && frozen) {
+            return rows;
+        }
+        if (id < 0) {
+            id = rowFor(StateCodec.decode(code));
+            codeRows[code] = id;
+        }
+        return id;
+    }
+
+    /**
+     * Look up the row id of a packed state code without creating it.
+     *
+     * @param code a {@link StateCodec} state code
+     * @return the row id, or -1 if the state has not been seen
+     */
+    public int codeId(int code) {
+        if (code < 0) {
+            throw new IllegalArgumentException("State code must be non-negative: " + code);
+        }
+        if (frozen) {
+            // Every stored state was resolved by freeze()
+            return code < codeRows.length ? codeRows[code] : -1;
+        }
+        if (code >= codeRows.length) {
+            int[] grown = newCodeRows(Math.max(code + 1, codeRows.length * 2));
+            System.arraycopy(codeRows, 0, grown, 0, codeRows.length);
+            codeRows = grown;
+        }
+        int id = codeRows[code];
+        if (id < 0) {
+            id = stateId(StateCodec.decode(code));
+            codeRows[code] = id;
+        }
+        return id;
+    }
+
+    private static int[] newCodeRows(int length) {
+        int[] rows = new int[length];
+        Arrays.fill(rows, -1);
+        return rows;
+    }
+
+    private int appendRow(String state) {
+        int id = rows;
+        ensureCapacity(id + 1);
+        rows++;
+        bestActions[id] = 0;
+        bestValues[id] = 0.0;
+        stateIds.put(state, id);
+        stateKeys.add(state);
+        return id;
+    }
+
+    private void ensureCapacity(int minRows) {
+        int capacity = values.length / numActions;
+        if (minRows > capacity) {
+            int newCapacity = Math.max(minRows, capacity * 2);
+            values = Arrays.copyOf(values, newCapacity * numActions);
+            bestActions = Arrays.copyOf(bestActions, newCapacity);
+            bestValues = Arrays.copyOf(bestValues, newCapacity);
+        }
+    }
+
+    public double get(int state, int action) {
+        return values[state * numActions + action];
+    }
+
+    /** Convenience lookup by state key; unseen states read as 0. */
+    public double get(String state, int action) {
+        int id = stateId(state);
+        return id < 0 ? 0.0 : get(id, action);
+    }
+
+    public void set(int state, int action, double value) {
+        checkWritable();
+        values[state * numActions + action] = value;
+        updateBest(state, action, value);
+    }
+
+    public void add(int state, int action, double delta) {
+        checkWritable();
+        int index = state * numActions + action;
+        values[index] += delta;
+        updateBest(state, action, values[index]);
+    }
+
+    /** Set every entry of a row to the given value. */
+    public void fillRow(int state, double value) {
+        checkWritable();
+        int from = state * numActions;
+        Arrays.fill(values, from, from + numActions, value);
+        bestActions[state] = 0;
+        bestValues[state] = value;
+    }
+
+    /** Keep the cached maximum of a row in step with a write to one entry. */
+    private void updateBest(int state, int action, double value) {
+        int best = bestActions[state];
+        if (best < 0) {
+            return;
+        }
+        double bestValue = bestValues[state];
+        if (action == best) {
+            if (value >= bestValue) {
+                bestValues[state] = value;
+            } else {
+                bestActions[state] = -1;
+            }
+        } else if (value > bestValue || (value == bestValue && action < best)) {
+            bestActions[state] = action;
+            bestValues[state] = value;
+        }
+    }
+
+    /** Rescan a row whose cached maximum was invalidated. */
+    private void rescan(int state) {
+        int offset = state * numActions;
+        int bestAction = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numActions; i++) {
+            double v = values[offset + i];
+            if (bestValue < v) {
+                bestValue = v;
+                bestAction = i;
+            }
+        }
+        bestActions[state] = bestAction;
+        bestValues[state] = bestValue;
+    }
+
+    /**
+     * Greedy action of a row. Ties are broken towards the lowest action index,
+     * matching the strict-greater scan the assigners used before.
+     */
+    public int argmax(int state) {
+        if (bestActions[state] < 0) {
+            rescan(state);
+        }
+        return bestActions[state];
+    }
+
+    /**
+     * Greedy action of a row among some actions. Ties are broken towards
+     * the action listed first. O(count).
+     *
+     * @param state   the row
+     * @param actions the actions to choose among
+     * @param count   the number of actions in use, at least 1
+     */
+    public int argmax(int state, int[] actions, int count) {
+        int base = state * numActions;
+        int bestAction = actions[0];
+        double bestValue = values[base + bestAction];
+        for (int i = 1; i < count; i++) {
+            double value = values[base + actions[i]];
+            if (value > bestValue) {
+                bestValue = value;
+                bestAction = actions[i];
+            }
+        }
+        return bestAction;
+    }
+
+    /** Maximum value of a row. */
+    public double max(int state) {
+        if (bestActions[state] < 0) {
+            rescan(state);
+        }
+        return bestValues[state];
+    }
+
+    /**
+     * Make the table read-only. Unseen states then resolve to an all-zero row
+     * (greedy action 0) that is not added to the table.
+     */
+    public void freeze() {
+        if (frozen) {
+            return;
+        }
+        // The shared row for unseen states sits just past the last real row
+        ensureCapacity(rows + 1);
+        fillRow(rows, 0.0);
+        for (int s = 0; s < rows; s++) {
+            if (bestActions[s] < 0) {
+                rescan(s);
+            }
+        }
+        for (int code = 0; code < codeRows.length; code++) {
+            codeId(code);
+        }
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkWritable() {
+        if (frozen) {
+            throw new IllegalStateException("Q-table is frozen");
+        }
+    }
+
+    /** Remove all states. */
+    public void clear() {
+        checkWritable();
+        Arrays.fill(values, 0, rows * numActions, 0.0);
+        rows = 0;
+        stateIds.clear();
+        stateKeys.clear();
+        Arrays.fill(codeRows, -1);
+    }
+
+    /** Render one row for reporting, e.g. {@code [0.0, -0.4, ...]}. */
+    public String rowToString(int state) {
+        int from = state * numActions;
+        return Arrays.toString(Arrays.copyOfRange(values, from, from + numActions));
+    }
+}
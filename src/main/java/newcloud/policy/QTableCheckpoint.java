@@ -0,0 +1,188 @@
+package newcloud.policy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Binary checkpoints of a {@link QTable} and, optionally, its
+ * {@link EligibilityTraces}.
+ * <pre>
+ *   int    MAGIC ("QTCK")
+ *   int    VERSION
+ *   int    iterations completed when written
+ *   int    numActions
+ *   int    rows
+ *   UTF    state key, per row in row id order
+ *   double values[rows][numActions]          (row-major)
+ *   int    traces (-1 if no trace store was written)
+ *   (int state, int action, double trace)    per active trace
+ * </pre>
+ * <p>
+ * Row ids are preserved, so traces, which refer to rows by id, load back
+ * against the same states. Checkpoints are written atomically by
+ * {@link Checkpoints}.
+ * </p>
+ * <p>
+ * The harness helpers {@link #start(QTable, EligibilityTraces)} and
+ * {@link #afterIteration(int, QTable, EligibilityTraces)} apply the
+ * checkpoint settings in Constants.
+ * </p>
+ */
+public final class QTableCheckpoint {
+
+    /** File magic, "QTCK" in ASCII. */
+    public static final int MAGIC = 0x5154434B;
+
+    public static final int VERSION = 1;
+
+    private QTableCheckpoint() {
+    }
+
+    /**
+     * Write a checkpoint atomically.
+     *
+     * @param file       the checkpoint file
+     * @param iterations iterations completed so far
+     * @param table      the Q-table
+     * @param traces     the eligibility traces, or null
+     */
+    public static void write(File file, int iterations, QTable table, EligibilityTraces traces) throws IOException {
+        Checkpoints.write(file, MAGIC, VERSION, iterations, out -> {
+            out.writeInt(table.numActions());
+            out.writeInt(table.size());
+            for (int s = 0; s < table.size(); s++) {
+                out.writeUTF(table.stateKey(s));
+            }
+            for (int s = 0; s < table.size(); s++) {
+                for (int a = 0; a < table.numActions(); a++) {
+                    out.writeDouble(table.get(s, a));
+                }
+            }
+            if (traces == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(traces.size());
+                for (int i = 0; i < traces.size(); i++) {
+                    out.writeInt(traces.stateAt(i));
+                    out.writeInt(traces.actionAt(i));
+                    out.writeDouble(traces.traceAt(i));
+                }
+            }
+        });
+    }
+
+    /**
+     * Load a checkpoint, replacing the contents of the given stores. The
+     * stores are only changed once the whole checkpoint has been read.
+     *
+     * @param file   the checkpoint file
+     * @param table  the Q-table to fill; must have the checkpoint's action count
+     * @param traces the trace store to fill, or null to skip the traces
+     * @return the iterations completed when the checkpoint was written
+     */
+    public static int read(File file, QTable table, EligibilityTraces traces) throws IOException {
+        return Checkpoints.read(file, MAGIC, VERSION, "Q-table checkpoint", in -> {
+            int numActions = in.readInt();
+            if (numActions != table.numActions()) {
+                throw new IOException("Checkpoint has " + numActions + " actions, table has "
+                        + table.numActions() + ": " + file.getPath());
+            }
+            int rows = in.readInt();
+            // Each row takes at least a key length and its values
+            if (rows < 0 || rows > file.length() / (2 + 8L * numActions)) {
+                throw new IOException("Corrupt checkpoint header: " + file.getPath());
+            }
+            // Read everything first, so a bad file leaves the stores as they were
+            String[] keys = new String[rows];
+            Set<String> seen = new HashSet<>();
+            for (int s = 0; s < rows; s++) {
+                keys[s] = in.readUTF();
+                if (!seen.add(keys[s])) {
+                    throw new IOException("Duplicate state keys in checkpoint: " + file.getPath());
+                }
+            }
+            double[] values = new double[rows * numActions];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readDouble();
+            }
+            int count = in.readInt();
+            int[] states = null;
+            int[] actions = null;
+            double[] amounts = null;
+            if (traces != null && count > 0) {
+                if (count > file.length() / 16) {
+                    throw new IOException("Corrupt checkpoint traces: " + file.getPath());
+                }
+                states = new int[count];
+                actions = new int[count];
+                amounts = new double[count];
+                for (int i = 0; i < count; i++) {
+                    states[i] = in.readInt();
+                    actions[i] = in.readInt();
+                    amounts[i] = in.readDouble();
+                }
+            }
+
+            table.clear();
+            for (int s = 0; s < rows; s++) {
+                table.rowFor(keys[s]);
+                for (int a = 0; a < numActions; a++) {
+                    table.set(s, a, values[s * numActions + a]);
+                }
+            }
+            if (traces != null) {
+                traces.clear();
+                for (int i = 0; i < count; i++) {
+                    traces.accumulate(states[i], actions[i], amounts[i]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Prepare a harness's tables before its first iteration, as described
+     * in {@link Checkpoints#start(Checkpoints.Model)}. Evaluation-only runs
+     * load the table alone, frozen.
+     *
+     * @return the first iteration to run
+     */
+    public static int start(QTable table, EligibilityTraces traces) throws IOException {
+        return Checkpoints.start(model(table, traces));
+    }
+
+    /**
+     * Write CHECKPOINT_FILE, if set, every CHECKPOINT_INTERVAL iterations and
+     * after the last one.
+     *
+     * @param completed iterations completed so far
+     */
+    public static void afterIteration(int completed, QTable table, EligibilityTraces traces) throws IOException {
+        Checkpoints.afterIteration(completed, model(table, traces));
+    }
+
+    private static Checkpoints.Model model(QTable table, EligibilityTraces traces) {
+        return new Checkpoints.Model() {
+            @Override
+            public int read(File file, boolean evaluation) throws IOException {
+                return QTableCheckpoint.read(file, table, evaluation ? null : traces);
+            }
+
+            @Override
+            public void write(File file, int iterations) throws IOException {
+                QTableCheckpoint.write(file, iterations, table, traces);
+            }
+
+            @Override
+            public boolean isFrozen() {
+                return table.isFrozen();
+            }
+
+            @Override
+            public void freeze() {
+                table.freeze();
+            }
+        };
+    }
+}
@@ -1,9 +1,12 @@
 package newcloud.policy;
 
 import newcloud.GenExcel;
+import newcloud.IndexedMaxHeap;
 import org.cloudbus.cloudsim.Host;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Fair (round-robin by capacity) VM allocation strategy.
@@ -16,6 +19,15 @@ public class VmAllocationAssignerFair {
 
     private GenExcel genExcel;
 
+    /** The host list the heap was built for. */
+    private List<Host> hosts;
+
+    /** Host -> position in {@link #hosts}. */
+    private final Map<Host, Integer> positions = new IdentityHashMap<>();
+
+    /** Hosts by available MIPS. */
+    private IndexedMaxHeap heap;
+
     public VmAllocationAssignerFair(GenExcel genExcel) {
         this.genExcel = genExcel;
         this.genExcel.init();
@@ -24,21 +36,70 @@ public class VmAllocationAssignerFair {
     /**
      * Select the host with the most available MIPS capacity.
      * (Method name fixed from original "getVmAllcaotionHost")
+     * <p>
+     * Hosts are kept in a max-heap keyed on available MIPS, so selection is
+     * O(1). The heap is built from the host list on first use; afterwards
+     * the datacenter reports changes through {@link #hostUpdated(Host)} and
+     * {@link #hostsUpdated()}. Among hosts with equal available MIPS the
+     * last one in the list is chosen, as the original scan did.
+     * </p>
      *
      * @param hostList the list of available hosts
-     * @return the selected host
+     * @return the selected host, or null if no host has free MIPS
      */
     public Host getVmAllocationHost(List<Host> hostList) {
-        double availableMips = Double.MIN_VALUE;
-        Host targetHost = null;
-        for (Host host : hostList) {
-            double mips = host.getAvailableMips();
-            if (mips >= availableMips) {
-                availableMips = mips;
-                targetHost = host;
+        if (hostList.isEmpty()) {
+            return null;
+        }
+        if (hosts != hostList) {
+            track(hostList);
+        }
+        int best = heap.peek();
+        // Like the original scan, a host without any free MIPS is never chosen
+        return heap.key(best) >= Double.MIN_VALUE ? hosts.get(best) : null;
+    }
+
+    /**
+     * Re-read the available MIPS of one host after an allocation,
+     * deallocation or migration changed it. O(log N).
+     */
+    public void hostUpdated(Host host) {
+        if (hosts == null) {
+            return;
+        }
+        Integer position = positions.get(host);
+        if (position != null) {
+            heap.set(position, host.getAvailableMips());
+        }
+    }
+
+    /**
+     * Re-read the available MIPS of every host after a processing tick,
+     * which reallocates MIPS on all of them. Only the hosts whose MIPS
+     * changed are moved in the heap: O(N + k log N) for k changed hosts.
+     */
+    public void hostsUpdated() {
+        if (hosts == null) {
+            return;
+        }
+        for (int i = 0; i < hosts.size(); i++) {
+            double mips = hosts.get(i).getAvailableMips();
+            if (mips != heap.key(i)) {
+                heap.set(i, mips);
             }
         }
-        return targetHost;
+    }
+
+    private void track(List<Host> hostList) {
+        hosts = hostList;
+        heap = new IndexedMaxHeap(hostList.size());
+        positions.clear();
+        double[] mips = new double[hostList.size()];
+        for (int i = 0; i < hostList.size(); i++) {
+            positions.put(hostList.get(i), i);
+            mips[i] = hostList.get(i).getAvailableMips();
+        }
+        heap.setAll(mips);
     }
 
     /**
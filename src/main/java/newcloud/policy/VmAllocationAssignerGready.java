@@ -1,20 +1,21 @@
 package newcloud.policy;
 
 import newcloud.GenExcel;
+import newcloud.HostCapacityIndex;
+import newcloud.NewPowerAllocatePolicy;
+import newcloud.PowerModel.PowerTable;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.VmAllocationPolicy;
 import org.cloudbus.cloudsim.power.PowerHost;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * Greedy VM allocation strategy.
  * <p>
- * Evaluates all hosts and places the VM on the host that results in the
- * minimum incremental energy consumption.
+ * Evaluates every host that can fit the VM and places it on the one that
+ * results in the minimum energy consumption.
  * </p>
  */
 public class VmAllocationAssignerGready {
@@ -31,30 +32,48 @@ public class VmAllocationAssignerGready {
     /**
      * Select the host with the minimum energy increase for the given VM.
      * (Method name fixed from original "getVmAllcaotionHost")
+     * <p>
+     * Each candidate is scored by the energy it would use over 100 seconds
+     * with the VM placed on it. The post-placement utilization is computed
+     * from the host's allocated MIPS and the VM's requested MIPS, so no
+     * provisioner is touched, and hosts that cannot fit the VM are skipped
+     * through the policy's {@link HostCapacityIndex}. Ties go to the lowest
+     * host index.
+     * </p>
      *
      * @param hostList the list of available hosts
      * @param vm       the VM to place
-     * @return the selected host
+     * @return the selected host, or null if no host fits the VM
      */
     public Host getVmAllocationHost(List<PowerHost> hostList, Vm vm) {
+        HostCapacityIndex index = capacityIndex(hostList);
+        double vmMips = vm.getCurrentRequestedTotalMips();
         Host targetHost = null;
-        List<Double> totalPowerList = new ArrayList<>();
-        for (int i = 0; i < hostList.size(); i++) {
+        double minEnergy = Double.MAX_VALUE;
+        for (int i = index.firstFit(vm); i >= 0; i = index.nextFit(i + 1, vm)) {
             PowerHost host = hostList.get(i);
-            double previousUtilizationOfCpu = (host.getTotalMips() - host.getAvailableMips()) / host.getTotalMips();
-            vmAllocationPolicy.allocateHostForVm(vm, host);
-            double utilizationOfCpu = (host.getTotalMips() - host.getAvailableMips()) / host.getTotalMips();
-            double timeFrameHostEnergy = host.getEnergyLinearInterpolation(
+            double totalMips = host.getTotalMips();
+            double usedMips = totalMips - host.getAvailableMips();
+            double previousUtilizationOfCpu = usedMips / totalMips;
+            double utilizationOfCpu = Math.min(1.0, (usedMips + vmMips) / totalMips);
+            double timeFrameHostEnergy = PowerTable.of(host.getPowerModel()).getEnergy(
                     previousUtilizationOfCpu, utilizationOfCpu, 100);
-            totalPowerList.add(i, timeFrameHostEnergy);
-            vmAllocationPolicy.deallocateHostForVm(vm);
+            if (timeFrameHostEnergy < minEnergy) {
+                minEnergy = timeFrameHostEnergy;
+                targetHost = host;
+            }
         }
-        double minValue = Collections.min(totalPowerList);
-        int index = totalPowerList.indexOf(minValue);
-        targetHost = hostList.get(index);
         return targetHost;
     }
 
+    /** The policy's capacity index, or a fresh one if the policy keeps none. */
+    private HostCapacityIndex capacityIndex(List<PowerHost> hostList) {
+        if (vmAllocationPolicy instanceof NewPowerAllocatePolicy) {
+            return ((NewPowerAllocatePolicy) vmAllocationPolicy).getCapacityIndex();
+        }
+        return new HostCapacityIndex(hostList);
+    }
+
     /**
      * @deprecated Use {@link #getVmAllocationHost(List, Vm)} instead.
      */
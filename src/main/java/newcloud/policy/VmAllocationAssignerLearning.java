@@ -1,9 +1,9 @@
 package newcloud.policy;
 
 import newcloud.GenExcel;
+import newcloud.RandomSource;
+import newcloud.jfr.FlightEvents;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import static newcloud.Constants.NUMBER_OF_HOSTS;
@@ -21,9 +21,10 @@ public class VmAllocationAssignerLearning {
     private double gamma;   // Discount factor
     private double alpha;   // Learning rate
     private double epsilon; // Exploration rate
+    private final Random random = RandomSource.create();
 
-    /** Q-value table: state -> (action/hostId -> Q-value) */
-    public static Map<String, Map<Integer, Double>> QList = new HashMap<>();
+    /** Q-value table: state x action/hostId -> Q-value */
+    public static QTable QList = new QTable(NUMBER_OF_HOSTS);
 
     public VmAllocationAssignerLearning(double gamma, double alpha, double epsilon, GenExcel genExcel) {
         this.gamma = gamma;
@@ -38,10 +39,7 @@ public class VmAllocationAssignerLearning {
      * All Q-values are initialized to 0.
      */
     public void initRowOfQList(String state_idx) {
-        QList.put(state_idx, new HashMap<Integer, Double>());
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            QList.get(state_idx).put(i, 0.0);
-        }
+        QList.initRow(state_idx);
     }
 
     /** Generate a random integer in [min, max] inclusive. */
@@ -49,7 +47,6 @@ public class VmAllocationAssignerLearning {
         if (min == max) {
             return min;
         }
-        Random random = new Random();
         return random.nextInt(max - min + 1) + min;
     }
 
@@ -70,26 +67,46 @@ public class VmAllocationAssignerLearning {
      * @return the selected host ID
      */
     public int createAction(String cpulist) {
+        return chooseAction(QList.rowFor(createState_idx(cpulist)));
+    }
+
+    /**
+     * Select an action (host ID) for a packed state code.
+     *
+     * @param state the current state code (see {@link newcloud.StateCodec})
+     * @return the selected host ID
+     */
+    public int createAction(int state) {
+        return chooseAction(QList.rowForCode(state));
+    }
+
+    /**
+     * Select an action among candidate hosts for a packed state code.
+     *
+     * @param state      the current state code (see {@link newcloud.StateCodec})
+     * @param candidates the candidate host IDs
+     * @param count      the number of candidates; 0 to choose among all hosts
+     * @return the selected host ID
+     */
+    public int createAction(int state, int[] candidates, int count) {
+        return chooseAction(QList.rowForCode(state), candidates, count);
+    }
+
+    private int chooseAction(int state) {
+        return chooseAction(state, null, 0);
+    }
+
+    private int chooseAction(int state, int[] candidates, int count) {
         int current_action;
         int x = randomInt(0, 100);
-        String state_idx = createState_idx(cpulist);
-
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
 
         // Epsilon-greedy: exploit with probability (1 - epsilon), explore otherwise
-        if (((double) x / 100) < (1 - epsilon)) {
+        if (epsilon <= 0 || ((double) x / 100) < (1 - epsilon)) {
             // Exploit: choose action with highest Q-value
-            int bestAction = 0;
-            double bestValue = Double.NEGATIVE_INFINITY;
-            for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-                if (bestValue < QList.get(state_idx).get(i)) {
-                    bestValue = QList.get(state_idx).get(i);
-                    bestAction = i;
-                }
-            }
-            current_action = bestAction;
+            current_action = count > 0 ? QList.argmax(state, candidates, count) : QList.argmax(state);
+        } else if (count > 0) {
+            // Explore: choose a random candidate
+            current_action = candidates[randomInt(0, count - 1)];
         } else {
             // Explore: choose a random action
             current_action = randomInt(0, NUMBER_OF_HOSTS - 1);
@@ -107,27 +124,35 @@ public class VmAllocationAssignerLearning {
      * @param cpulist     the current (next) state
      */
     public void updateQList(int action_idx, double reward, String lastcpulist, String cpulist) {
-        String state_idx = createLastState_idx(lastcpulist);
-        String next_state_idx = createState_idx(cpulist);
+        update(action_idx, reward,
+                QList.rowFor(createLastState_idx(lastcpulist)), QList.rowFor(createState_idx(cpulist)));
+    }
 
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
-        if (!QList.containsKey(next_state_idx)) {
-            initRowOfQList(next_state_idx);
-        }
+    /**
+     * Q-Learning update for packed state codes.
+     *
+     * @param action_idx the action taken (host ID)
+     * @param reward     the observed reward
+     * @param lastState  the previous state code
+     * @param state      the current (next) state code
+     */
+    public void updateQList(int action_idx, double reward, int lastState, int state) {
+        update(action_idx, reward, QList.rowForCode(lastState), QList.rowForCode(state));
+    }
+
+    private void update(int action_idx, double reward, int state, int next_state) {
+        boolean updateEvent = FlightEvents.isQUpdateEnabled();
+        long start = updateEvent ? System.nanoTime() : 0;
 
         // Find max Q-value in the next state
-        double qMaxNextState = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            if (qMaxNextState < QList.get(next_state_idx).get(i)) {
-                qMaxNextState = QList.get(next_state_idx).get(i);
-            }
-        }
+        double qMaxNextState = QList.max(next_state);
 
         // Q-Learning update
-        double oldQ = QList.get(state_idx).get(action_idx);
-        double newQ = oldQ + alpha * (reward + gamma * qMaxNextState - oldQ);
-        QList.get(state_idx).put(action_idx, newQ);
+        double oldQ = QList.get(state, action_idx);
+        double delta = reward + gamma * qMaxNextState - oldQ;
+        QList.set(state, action_idx, oldQ + alpha * delta);
+        if (updateEvent) {
+            FlightEvents.qUpdate(getClass(), QList.stateKey(state), action_idx, delta, start);
+        }
     }
 }
@@ -1,10 +1,11 @@
 package newcloud.policy;
 
 import newcloud.GenExcel;
+import newcloud.RandomSource;
+import newcloud.StateCodec;
+import newcloud.jfr.FlightEvents;
 import org.cloudbus.cloudsim.Vm;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import static newcloud.Constants.NUMBER_OF_HOSTS;
@@ -23,9 +24,10 @@ public class VmAllocationAssignerLearningAndInit {
     private double gamma;
     private double alpha;
     private double epsilon;
+    private final Random random = RandomSource.create();
     private double lastReward = 0;
 
-    public static Map<String, Map<Integer, Double>> QList = new HashMap<>();
+    public static QTable QList = new QTable(NUMBER_OF_HOSTS);
 
     public VmAllocationAssignerLearningAndInit(double gamma, double alpha, double epsilon, GenExcel genExcel) {
         this.gamma = gamma;
@@ -37,19 +39,40 @@ public class VmAllocationAssignerLearningAndInit {
 
     /** Initialize Q-table row with reward-based bootstrapping. */
     public void initRowOfQList(String state_idx, double reward, Vm vm) {
-        QList.put(state_idx, new HashMap<Integer, Double>());
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            if (vm != null && i == vm.getId()) {
-                QList.get(state_idx).put(i, reward);
-            } else {
-                QList.get(state_idx).put(i, 0.0);
-            }
+        int state = QList.initRow(state_idx);
+        if (vm != null && vm.getId() >= 0 && vm.getId() < NUMBER_OF_HOSTS) {
+            QList.set(state, vm.getId(), reward);
         }
     }
 
+    /** Row id of a state, bootstrapping a new row from the latest reward. */
+    private int rowFor(String state_idx, Vm vm) {
+        int state = QList.stateId(state_idx);
+        if (state < 0 && QList.isFrozen()) {
+            return QList.rowFor(state_idx);
+        }
+        if (state < 0) {
+            initRowOfQList(state_idx, lastReward, vm);
+            state = QList.stateId(state_idx);
+        }
+        return state;
+    }
+
+    /** Row id of a state code, bootstrapping a new row from the latest reward. */
+    private int rowForCode(int code, Vm vm) {
+        int state = QList.codeId(code);
+        if (state < 0 && QList.isFrozen()) {
+            return QList.rowForCode(code);
+        }
+        if (state < 0) {
+            initRowOfQList(StateCodec.decode(code), lastReward, vm);
+            state = QList.rowForCode(code);
+        }
+        return state;
+    }
+
     public int randomInt(int min, int max) {
         if (min == max) return min;
-        Random random = new Random();
         return random.nextInt(max - min + 1) + min;
     }
 
@@ -57,24 +80,38 @@ public class VmAllocationAssignerLearningAndInit {
     public String createState_idx(String cpulist) { return cpulist; }
 
     public int createAction(String cpulist, Vm vm) {
+        return chooseAction(rowFor(createState_idx(cpulist), vm));
+    }
+
+    public int createAction(int state, Vm vm) {
+        return chooseAction(rowForCode(state, vm));
+    }
+
+    /**
+     * Select an action among candidate hosts for a packed state code.
+     *
+     * @param state      the current state code
+     * @param vm         the VM to place
+     * @param candidates the candidate host IDs
+     * @param count      the number of candidates; 0 to choose among all hosts
+     * @return the selected host ID
+     */
+    public int createAction(int state, Vm vm, int[] candidates, int count) {
+        return chooseAction(rowForCode(state, vm), candidates, count);
+    }
+
+    private int chooseAction(int state) {
+        return chooseAction(state, null, 0);
+    }
+
+    private int chooseAction(int state, int[] candidates, int count) {
         int current_action;
         int x = randomInt(0, 100);
-        String state_idx = createState_idx(cpulist);
 
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx, lastReward, vm);
-        }
-
-        if (((double) x / 100) < (1 - epsilon)) {
-            int bestAction = 0;
-            double bestValue = Double.NEGATIVE_INFINITY;
-            for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-                if (bestValue < QList.get(state_idx).get(i)) {
-                    bestValue = QList.get(state_idx).get(i);
-                    bestAction = i;
-                }
-            }
-            current_action = bestAction;
+        if (epsilon <= 0 || ((double) x / 100) < (1 - epsilon)) {
+            current_action = count > 0 ? QList.argmax(state, candidates, count) : QList.argmax(state);
+        } else if (count > 0) {
+            current_action = candidates[randomInt(0, count - 1)];
         } else {
             current_action = randomInt(0, NUMBER_OF_HOSTS - 1);
         }
@@ -83,25 +120,26 @@ public class VmAllocationAssignerLearningAndInit {
 
     public void updateQList(int action_idx, double reward, String lastcpulist, String cpulist, Vm vm) {
         lastReward = reward;
-        String state_idx = createLastState_idx(lastcpulist);
-        String next_state_idx = createState_idx(cpulist);
+        update(action_idx, reward,
+                rowFor(createLastState_idx(lastcpulist), vm), rowFor(createState_idx(cpulist), vm));
+    }
 
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx, lastReward, vm);
-        }
-        if (!QList.containsKey(next_state_idx)) {
-            initRowOfQList(next_state_idx, lastReward, vm);
-        }
+    public void updateQList(int action_idx, double reward, int lastState, int state, Vm vm) {
+        lastReward = reward;
+        update(action_idx, reward, rowForCode(lastState, vm), rowForCode(state, vm));
+    }
 
-        double qMaxNextState = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            if (qMaxNextState < QList.get(next_state_idx).get(i)) {
-                qMaxNextState = QList.get(next_state_idx).get(i);
-            }
-        }
+    private void update(int action_idx, double reward, int state, int next_state) {
+        boolean updateEvent = FlightEvents.isQUpdateEnabled();
+        long start = updateEvent ? System.nanoTime() : 0;
+
+        double qMaxNextState = QList.max(next_state);
 
-        double oldQ = QList.get(state_idx).get(action_idx);
-        double newQ = oldQ + alpha * (reward + gamma * qMaxNextState - oldQ);
-        QList.get(state_idx).put(action_idx, newQ);
+        double oldQ = QList.get(state, action_idx);
+        double delta = reward + gamma * qMaxNextState - oldQ;
+        QList.set(state, action_idx, oldQ + alpha * delta);
+        if (updateEvent) {
+            FlightEvents.qUpdate(getClass(), QList.stateKey(state), action_idx, delta, start);
+        }
     }
 }
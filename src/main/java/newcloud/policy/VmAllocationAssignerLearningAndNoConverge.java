@@ -1,9 +1,9 @@
 package newcloud.policy;
 
 import newcloud.GenExcel;
+import newcloud.RandomSource;
+import newcloud.jfr.FlightEvents;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import static newcloud.Constants.NUMBER_OF_HOSTS;
@@ -21,8 +21,9 @@ public class VmAllocationAssignerLearningAndNoConverge {
     private double gamma;
     private double alpha;
     private double epsilon;
+    private final Random random = RandomSource.create();
 
-    public static Map<String, Map<Integer, Double>> QList = new HashMap<>();
+    public static QTable QList = new QTable(NUMBER_OF_HOSTS);
 
     public VmAllocationAssignerLearningAndNoConverge(double gamma, double alpha, double epsilon, GenExcel genExcel) {
         this.gamma = gamma;
@@ -33,15 +34,11 @@ public class VmAllocationAssignerLearningAndNoConverge {
     }
 
     public void initRowOfQList(String state_idx) {
-        QList.put(state_idx, new HashMap<Integer, Double>());
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            QList.get(state_idx).put(i, 0.0);
-        }
+        QList.initRow(state_idx);
     }
 
     public int randomInt(int min, int max) {
         if (min == max) return min;
-        Random random = new Random();
         return random.nextInt(max - min + 1) + min;
     }
 
@@ -49,24 +46,37 @@ public class VmAllocationAssignerLearningAndNoConverge {
     public String createState_idx(String cpulist) { return cpulist; }
 
     public int createAction(String cpulist) {
+        return chooseAction(QList.rowFor(createState_idx(cpulist)));
+    }
+
+    public int createAction(int state) {
+        return chooseAction(QList.rowForCode(state));
+    }
+
+    /**
+     * Select an action among candidate hosts for a packed state code.
+     *
+     * @param state      the current state code (see {@link newcloud.StateCodec})
+     * @param candidates the candidate host IDs
+     * @param count      the number of candidates; 0 to choose among all hosts
+     * @return the selected host ID
+     */
+    public int createAction(int state, int[] candidates, int count) {
+        return chooseAction(QList.rowForCode(state), candidates, count);
+    }
+
+    private int chooseAction(int state) {
+        return chooseAction(state, null, 0);
+    }
+
+    private int chooseAction(int state, int[] candidates, int count) {
         int current_action;
         int x = randomInt(0, 100);
-        String state_idx = createState_idx(cpulist);
 
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
-
-        if (((double) x / 100) < (1 - epsilon)) {
-            int bestAction = 0;
-            double bestValue = Double.NEGATIVE_INFINITY;
-            for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-                if (bestValue < QList.get(state_idx).get(i)) {
-                    bestValue = QList.get(state_idx).get(i);
-                    bestAction = i;
-                }
-            }
-            current_action = bestAction;
+        if (epsilon <= 0 || ((double) x / 100) < (1 - epsilon)) {
+            current_action = count > 0 ? QList.argmax(state, candidates, count) : QList.argmax(state);
+        } else if (count > 0) {
+            current_action = candidates[randomInt(0, count - 1)];
         } else {
             current_action = randomInt(0, NUMBER_OF_HOSTS - 1);
         }
@@ -74,25 +84,25 @@ public class VmAllocationAssignerLearningAndNoConverge {
     }
 
     public void updateQList(int action_idx, double reward, String lastcpulist, String cpulist) {
-        String state_idx = createLastState_idx(lastcpulist);
-        String next_state_idx = createState_idx(cpulist);
+        update(action_idx, reward,
+                QList.rowFor(createLastState_idx(lastcpulist)), QList.rowFor(createState_idx(cpulist)));
+    }
 
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
-        if (!QList.containsKey(next_state_idx)) {
-            initRowOfQList(next_state_idx);
-        }
+    public void updateQList(int action_idx, double reward, int lastState, int state) {
+        update(action_idx, reward, QList.rowForCode(lastState), QList.rowForCode(state));
+    }
 
-        double qMaxNextState = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            if (qMaxNextState < QList.get(next_state_idx).get(i)) {
-                qMaxNextState = QList.get(next_state_idx).get(i);
-            }
-        }
+    private void update(int action_idx, double reward, int state, int next_state) {
+        boolean updateEvent = FlightEvents.isQUpdateEnabled();
+        long start = updateEvent ? System.nanoTime() : 0;
 
-        double oldQ = QList.get(state_idx).get(action_idx);
-        double newQ = oldQ + alpha * (reward + gamma * qMaxNextState - oldQ);
-        QList.get(state_idx).put(action_idx, newQ);
+        double qMaxNextState = QList.max(next_state);
+
+        double oldQ = QList.get(state, action_idx);
+        double delta = reward + gamma * qMaxNextState - oldQ;
+        QList.set(state, action_idx, oldQ + alpha * delta);
+        if (updateEvent) {
+            FlightEvents.qUpdate(getClass(), QList.stateKey(state), action_idx, delta, start);
+        }
     }
 }
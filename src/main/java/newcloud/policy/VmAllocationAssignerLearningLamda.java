@@ -1,9 +1,9 @@
 package newcloud.policy;
 
 import newcloud.GenExcel;
+import newcloud.RandomSource;
+import newcloud.jfr.FlightEvents;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import static newcloud.Constants.NUMBER_OF_HOSTS;
@@ -11,8 +11,9 @@ import static newcloud.Constants.NUMBER_OF_HOSTS;
 /**
  * Q-Learning(Lambda) VM allocation strategy with eligibility traces.
  * <p>
- * Extends Q-Learning by maintaining an eligibility trace table (E-table)
- * that distributes temporal credit across multiple state-action pairs.
+ * Extends Q-Learning by maintaining eligibility traces (E-table)
+ * that distribute temporal credit across multiple state-action pairs.
+ * Only non-negligible traces are kept (see {@link EligibilityTraces}).
  * </p>
  */
 public class VmAllocationAssignerLearningLamda {
@@ -22,12 +23,16 @@ public class VmAllocationAssignerLearningLamda {
     private double alpha;   // Learning rate
     private double epsilon; // Exploration rate
     private double lamda;   // Eligibility trace decay rate
+    private final Random random = RandomSource.create();
 
-    /** Q-value table: state -> (action -> Q-value) */
-    public static Map<String, Map<Integer, Double>> QList = new HashMap<>();
+    /** Q-value table: state x action -> Q-value */
+    public static QTable QList = new QTable(NUMBER_OF_HOSTS);
 
-    /** Eligibility trace table: state -> (action -> trace value) */
-    public static Map<String, Map<Integer, Double>> EList = new HashMap<>();
+    /**
+     * Active eligibility traces, keyed by Q-table row and action. Shared by
+     * every assigner, so the cutoff is Constants.TRACE_CUTOFF for all of them.
+     */
+    public static EligibilityTraces EList = new EligibilityTraces();
 
     public VmAllocationAssignerLearningLamda(double gamma, double alpha, double epsilon, double lamda, GenExcel genExcel) {
         this.gamma = gamma;
@@ -38,19 +43,13 @@ public class VmAllocationAssignerLearningLamda {
         this.genExcel.init();
     }
 
-    /** Initialize Q-table and E-table rows for the given state. */
+    /** Initialize the Q-table row and clear the traces of the given state. */
     public void initRowOfQList(String state_idx) {
-        QList.put(state_idx, new HashMap<Integer, Double>());
-        EList.put(state_idx, new HashMap<Integer, Double>());
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            QList.get(state_idx).put(i, 0.0);
-            EList.get(state_idx).put(i, 0.0);
-        }
+        EList.clearState(QList.initRow(state_idx));
     }
 
     public int randomInt(int min, int max) {
         if (min == max) return min;
-        Random random = new Random();
         return random.nextInt(max - min + 1) + min;
     }
 
@@ -66,24 +65,37 @@ public class VmAllocationAssignerLearningLamda {
      * Select an action using epsilon-greedy policy.
      */
     public int createAction(String cpulist) {
+        return chooseAction(QList.rowFor(createState_idx(cpulist)));
+    }
+
+    public int createAction(int state) {
+        return chooseAction(QList.rowForCode(state));
+    }
+
+    /**
+     * Select an action among candidate hosts for a packed state code.
+     *
+     * @param state      the current state code (see {@link newcloud.StateCodec})
+     * @param candidates the candidate host IDs
+     * @param count      the number of candidates; 0 to choose among all hosts
+     * @return the selected host ID
+     */
+    public int createAction(int state, int[] candidates, int count) {
+        return chooseAction(QList.rowForCode(state), candidates, count);
+    }
+
+    private int chooseAction(int state) {
+        return chooseAction(state, null, 0);
+    }
+
+    private int chooseAction(int state, int[] candidates, int count) {
         int current_action;
         int x = randomInt(0, 100);
-        String state_idx = createState_idx(cpulist);
-
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
 
-        if (((double) x / 100) < (1 - epsilon)) {
-            int bestAction = 0;
-            double bestValue = Double.NEGATIVE_INFINITY;
-            for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-                if (bestValue < QList.get(state_idx).get(i)) {
-                    bestValue = QList.get(state_idx).get(i);
-                    bestAction = i;
-                }
-            }
-            current_action = bestAction;
+        if (epsilon <= 0 || ((double) x / 100) < (1 - epsilon)) {
+            current_action = count > 0 ? QList.argmax(state, candidates, count) : QList.argmax(state);
+        } else if (count > 0) {
+            current_action = candidates[randomInt(0, count - 1)];
         } else {
             current_action = randomInt(0, NUMBER_OF_HOSTS - 1);
         }
@@ -99,36 +111,31 @@ public class VmAllocationAssignerLearningLamda {
      * </p>
      */
     public void updateQList(int action_idx, double reward, String lastcpulist, String cpulist) {
-        String state_idx = createLastState_idx(lastcpulist);
-        String next_state_idx = createState_idx(cpulist);
+        update(action_idx, reward,
+                QList.rowFor(createLastState_idx(lastcpulist)), QList.rowFor(createState_idx(cpulist)));
+    }
 
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
-        if (!QList.containsKey(next_state_idx)) {
-            initRowOfQList(next_state_idx);
-        }
+    public void updateQList(int action_idx, double reward, int lastState, int state) {
+        update(action_idx, reward, QList.rowForCode(lastState), QList.rowForCode(state));
+    }
+
+    private void update(int action_idx, double reward, int state, int next_state) {
+        boolean updateEvent = FlightEvents.isQUpdateEnabled();
+        long start = updateEvent ? System.nanoTime() : 0;
 
         // Find max Q-value in next state
-        double qMaxNextState = Double.NEGATIVE_INFINITY;
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            if (qMaxNextState < QList.get(next_state_idx).get(i)) {
-                qMaxNextState = QList.get(next_state_idx).get(i);
-            }
-        }
+        double qMaxNextState = QList.max(next_state);
 
         // Compute TD error
-        double delta = reward + gamma * qMaxNextState - QList.get(state_idx).get(action_idx);
+        double delta = reward + gamma * qMaxNextState - QList.get(state, action_idx);
 
         // Increment eligibility trace for current state-action
-        EList.get(state_idx).put(action_idx, EList.get(state_idx).get(action_idx) + 1);
-
-        // Update all state-action pairs using eligibility traces
-        for (String key : EList.keySet()) {
-            for (int j = 0; j < NUMBER_OF_HOSTS; j++) {
-                QList.get(key).put(j, QList.get(key).get(j) + alpha * delta * EList.get(key).get(j));
-                EList.get(key).put(j, EList.get(key).get(j) * gamma * lamda);
-            }
+        EList.accumulate(state, action_idx, 1);
+
+        // Update all active state-action pairs using eligibility traces
+        EList.applyAndDecay(QList, alpha * delta, gamma * lamda);
+        if (updateEvent) {
+            FlightEvents.qUpdate(getClass(), QList.stateKey(state), action_idx, delta, start);
         }
     }
 }
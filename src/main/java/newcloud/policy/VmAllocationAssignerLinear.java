@@ -0,0 +1,161 @@
+package newcloud.policy;
+
+import newcloud.GenExcel;
+import newcloud.RandomSource;
+import newcloud.StateCodec;
+import newcloud.jfr.FlightEvents;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Q-Learning VM allocation strategy with a linear function approximator.
+ * <p>
+ * Instead of a Q-table row per state with one column per host, each
+ * candidate host is scored by {@link LinearQFunction} from the features of
+ * {@link HostFeatures}: host type, utilization, marginal power of the
+ * placement and the VM's size. The model has a fixed number of weights, so
+ * it can be trained on a small datacenter and used on a large one.
+ * </p>
+ * <p>
+ * Hosts are chosen epsilon-greedily. The semi-gradient Q-Learning update of
+ * a placement, {@code delta = reward + gamma * max_h Q(s', h) - Q(s, a)},
+ * needs the scores of the next placement, so it is applied when the next
+ * VM is placed: the greedy pass over the hosts that picks that VM's host
+ * yields the max for free. The last placement of a run is not updated.
+ * </p>
+ */
+public class VmAllocationAssignerLinear {
+
+    private GenExcel genExcel;
+    private double gamma;   // Discount factor
+    private double alpha;   // Learning rate
+    private double epsilon; // Exploration rate
+    private final Random random = RandomSource.create();
+
+    /** Weights over {@link HostFeatures}, shared by every run of a harness. */
+    public static LinearQFunction QFunction = new LinearQFunction(HostFeatures.COUNT);
+
+    /** Scratch vector for scoring hosts. */
+    private final double[] features = new double[HostFeatures.COUNT];
+
+    /** Features of the last placement. */
+    private final double[] lastFeatures = new double[HostFeatures.COUNT];
+    private int lastState;
+    private int lastAction = -1;
+
+    /** Reward of the last placement, and whether it awaits its update. */
+    private double lastReward;
+    private boolean pending;
+
+    public VmAllocationAssignerLinear(double gamma, double alpha, double epsilon, GenExcel genExcel) {
+        this.gamma = gamma;
+        this.alpha = alpha;
+        this.epsilon = epsilon;
+        this.genExcel = genExcel;
+        this.genExcel.init();
+    }
+
+    /** Generate a random integer in [min, max] inclusive. */
+    public int randomInt(int min, int max) {
+        if (min == max) {
+            return min;
+        }
+        return random.nextInt(max - min + 1) + min;
+    }
+
+    /**
+     * Select a host for a VM using an epsilon-greedy policy over the
+     * linear Q-values, and apply the pending update of the previous
+     * placement.
+     *
+     * @param hosts the candidate hosts
+     * @param vm    the VM to place
+     * @param state the current state code (see {@link StateCodec})
+     * @return the position of the selected host in the list
+     */
+    public int createAction(List<? extends Host> hosts, Vm vm, int state) {
+        return createAction(hosts, vm, state, null, 0);
+    }
+
+    /**
+     * Select a host among candidates. Only the candidates are scored, so
+     * the cost is O(count) instead of O(hosts), and the max of the pending
+     * update is taken over them.
+     *
+     * @param hosts      the hosts
+     * @param vm         the VM to place
+     * @param state      the current state code (see {@link StateCodec})
+     * @param candidates positions of the candidate hosts in the list
+     * @param count      the number of candidates; 0 to choose among all hosts
+     * @return the position of the selected host in the list
+     */
+    public int createAction(List<? extends Host> hosts, Vm vm, int state, int[] candidates, int count) {
+        int choices = count > 0 ? count : hosts.size();
+        int best = count > 0 ? candidates[0] : 0;
+        double bestQ = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < choices; i++) {
+            int h = count > 0 ? candidates[i] : i;
+            HostFeatures.fill(features, state, (PowerHost) hosts.get(h), vm);
+            double q = QFunction.score(features);
+            if (q > bestQ) {
+                bestQ = q;
+                best = h;
+            }
+        }
+        if (pending) {
+            update(bestQ);
+        }
+
+        int current_action;
+        int x = randomInt(0, 100);
+
+        // Epsilon-greedy: exploit with probability (1 - epsilon), explore otherwise
+        if (epsilon <= 0 || ((double) x / 100) < (1 - epsilon)) {
+            current_action = best;
+        } else {
+            current_action = randomInt(0, choices - 1);
+            if (count > 0) {
+                current_action = candidates[current_action];
+            }
+        }
+        HostFeatures.fill(lastFeatures, state, (PowerHost) hosts.get(current_action), vm);
+        lastState = state;
+        lastAction = current_action;
+        return current_action;
+    }
+
+    /**
+     * Record the reward of the last placement. It is only learned from if
+     * the VM went to the host {@link #createAction(List, Vm, int)} chose,
+     * since the features of a fallback host are not known.
+     *
+     * @param placed the id (list position) of the host the VM was placed on
+     * @param reward the observed reward
+     */
+    public void observeReward(int placed, double reward) {
+        pending = placed == lastAction && lastAction >= 0;
+        lastReward = reward;
+    }
+
+    /**
+     * Semi-gradient Q-Learning update of the last placement:
+     * w += alpha * (reward + gamma * max_h Q(s', h) - Q(s, a)) * phi(s, a)
+     *
+     * @param qMaxNextState the best Q-value of the next placement
+     */
+    private void update(double qMaxNextState) {
+        pending = false;
+        boolean updateEvent = FlightEvents.isQUpdateEnabled();
+        long start = updateEvent ? System.nanoTime() : 0;
+
+        double delta = lastReward + gamma * qMaxNextState - QFunction.score(lastFeatures);
+        QFunction.update(lastFeatures, delta, alpha);
+        if (updateEvent) {
+            FlightEvents.qUpdate(getClass(), StateCodec.decode(lastState), lastAction, delta, start);
+        }
+    }
+}
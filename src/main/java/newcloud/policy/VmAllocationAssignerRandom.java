@@ -1,6 +1,7 @@
 package newcloud.policy;
 
 import newcloud.GenExcel;
+import newcloud.RandomSource;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
 
@@ -17,6 +18,7 @@ import java.util.Random;
 public class VmAllocationAssignerRandom {
 
     private GenExcel genExcel;
+    private final Random random = RandomSource.create();
 
     public VmAllocationAssignerRandom(GenExcel genExcel) {
         this.genExcel = genExcel;
@@ -46,7 +48,6 @@ public class VmAllocationAssignerRandom {
 
     private int randomInt(int min, int max) {
         if (min == max) return min;
-        Random random = new Random();
         return random.nextInt(max - min + 1) + min;
     }
 }
@@ -1,9 +1,9 @@
 package newcloud.policy;
 
 import newcloud.GenExcel;
+import newcloud.RandomSource;
+import newcloud.jfr.FlightEvents;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Random;
 
 import static newcloud.Constants.NUMBER_OF_HOSTS;
@@ -18,9 +18,10 @@ public class VmAllocationAssignerSarsa_lamda {
     private double alpha;
     private double epsilon;
     private double lamda;
+    private final Random random = RandomSource.create();
 
-    public static Map<String, Map<Integer, Double>> QList = new HashMap<>();
-    public static Map<String, Map<Integer, Double>> EList = new HashMap<>();
+    public static QTable QList = new QTable(NUMBER_OF_HOSTS);
+    public static EligibilityTraces EList = new EligibilityTraces();
 
     public VmAllocationAssignerSarsa_lamda(double gamma, double alpha, double epsilon, double lamda, GenExcel genExcel) {
         this.gamma = gamma;
@@ -32,17 +33,11 @@ public class VmAllocationAssignerSarsa_lamda {
     }
 
     public void initRowOfQList(String state_idx) {
-        QList.put(state_idx, new HashMap<Integer, Double>());
-        EList.put(state_idx, new HashMap<Integer, Double>());
-        for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-            QList.get(state_idx).put(i, 0.0);
-            EList.get(state_idx).put(i, 0.0);
-        }
+        EList.clearState(QList.initRow(state_idx));
     }
 
     public int randomInt(int min, int max) {
         if (min == max) return min;
-        Random random = new Random();
         return random.nextInt(max - min + 1) + min;
     }
 
@@ -50,24 +45,37 @@ public class VmAllocationAssignerSarsa_lamda {
     public String createState_idx(String cpulist) { return cpulist; }
 
     public int createAction(String cpulist) {
+        return chooseAction(QList.rowFor(createState_idx(cpulist)));
+    }
+
+    public int createAction(int state) {
+        return chooseAction(QList.rowForCode(state));
+    }
+
+    /**
+     * Select an action among candidate hosts for a packed state code.
+     *
+     * @param state      the current state code (see {@link newcloud.StateCodec})
+     * @param candidates the candidate host IDs
+     * @param count      the number of candidates; 0 to choose among all hosts
+     * @return the selected host ID
+     */
+    public int createAction(int state, int[] candidates, int count) {
+        return chooseAction(QList.rowForCode(state), candidates, count);
+    }
+
+    private int chooseAction(int state) {
+        return chooseAction(state, null, 0);
+    }
+
+    private int chooseAction(int state, int[] candidates, int count) {
         int current_action;
         int x = randomInt(0, 100);
-        String state_idx = createState_idx(cpulist);
 
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
-
-        if (((double) x / 100) < (1 - epsilon)) {
-            int bestAction = 0;
-            double bestValue = Double.NEGATIVE_INFINITY;
-            for (int i = 0; i < NUMBER_OF_HOSTS; i++) {
-                if (bestValue < QList.get(state_idx).get(i)) {
-                    bestValue = QList.get(state_idx).get(i);
-                    bestAction = i;
-                }
-            }
-            current_action = bestAction;
+        if (epsilon <= 0 || ((double) x / 100) < (1 - epsilon)) {
+            current_action = count > 0 ? QList.argmax(state, candidates, count) : QList.argmax(state);
+        } else if (count > 0) {
+            current_action = candidates[randomInt(0, count - 1)];
         } else {
             current_action = randomInt(0, NUMBER_OF_HOSTS - 1);
         }
@@ -78,27 +86,27 @@ public class VmAllocationAssignerSarsa_lamda {
      * SARSA(Lambda) update with eligibility traces.
      */
     public void updateQList(int action_idx, double reward, String lastcpulist, String cpulist) {
-        String state_idx = createLastState_idx(lastcpulist);
-        String next_state_idx = createState_idx(cpulist);
+        update(action_idx, reward,
+                QList.rowFor(createLastState_idx(lastcpulist)), QList.rowFor(createState_idx(cpulist)));
+    }
 
-        if (!QList.containsKey(state_idx)) {
-            initRowOfQList(state_idx);
-        }
-        if (!QList.containsKey(next_state_idx)) {
-            initRowOfQList(next_state_idx);
-        }
+    public void updateQList(int action_idx, double reward, int lastState, int state) {
+        update(action_idx, reward, QList.rowForCode(lastState), QList.rowForCode(state));
+    }
+
+    private void update(int action_idx, double reward, int state, int next_state) {
+        boolean updateEvent = FlightEvents.isQUpdateEnabled();
+        long start = updateEvent ? System.nanoTime() : 0;
 
-        int next_action = createAction(next_state_idx);
-        double delta = reward + gamma * QList.get(next_state_idx).get(next_action)
-                - QList.get(state_idx).get(action_idx);
+        int next_action = chooseAction(next_state);
+        double delta = reward + gamma * QList.get(next_state, next_action)
+                - QList.get(state, action_idx);
 
-        EList.get(state_idx).put(action_idx, EList.get(state_idx).get(action_idx) + 1);
+        EList.accumulate(state, action_idx, 1);
 
-        for (String key : EList.keySet()) {
-            for (int j = 0; j < NUMBER_OF_HOSTS; j++) {
-                QList.get(key).put(j, QList.get(key).get(j) + alpha * delta * EList.get(key).get(j));
-                EList.get(key).put(j, EList.get(key).get(j) * gamma * lamda);
-            }
+        EList.applyAndDecay(QList, alpha * delta, gamma * lamda);
+        if (updateEvent) {
+            FlightEvents.qUpdate(getClass(), QList.stateKey(state), action_idx, delta, start);
         }
     }
 }
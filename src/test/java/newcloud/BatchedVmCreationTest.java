@@ -0,0 +1,188 @@
+package newcloud;
+
+import newcloud.datacenter.PowerDatacenterFair;
+import newcloud.datacenter.PowerDatacenterRL;
+import newcloud.policy.VmAllocationAssignerFair;
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVm;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import static newcloud.Constants.terminateTime;
+import static org.junit.Assert.*;
+
+/**
+ * Runs small simulations through the broker's batched VM creation
+ * (CREATE_VM_BATCH) and checks them against one VM per request.
+ */
+public class BatchedVmCreationTest {
+
+    private static final String INPUT = "src/main/resources/datas/50";
+
+    /** 11 cloudlets: the broker requests 10 VMs, so a batch of 4 ends with 2. */
+    private static final int CLOUDLETS = 11;
+
+    /** Short enough for every cloudlet to finish before terminateTime. */
+    private static final long CLOUDLET_LENGTH = 1000;
+
+    private static final int HOSTS = 8;
+
+    /** Power of the unbatched run, recorded before batched creation was added. */
+    private static final double UNBATCHED_POWER = 48928.76466555556;
+
+    /**
+     * Batch sizes and the power of their runs. Batches tick less often than
+     * single VMs do, and a host's energy is only accounted up to the tick
+     * after its cloudlets finish, so batched runs draw more power.
+     */
+    private static final int[] BATCH_SIZES = {2, 4, 16};
+    private static final double[] BATCHED_POWER = {79558.14291638888, 93713.98133888889, 65076.60392592594};
+
+    @Before
+    public void setUp() {
+        PowerDatacenterRL.allpower.clear();
+        PowerDatacenterRL.everyhosthistorypower.clear();
+    }
+
+    @Test
+    public void testBatchOfOneMatchesUnbatchedBroker() throws Exception {
+        Run unbatched = run(0, -1);
+        Run single = run(1, -1);
+        assertEquals(1, unbatched.power.size());
+        assertEquals(UNBATCHED_POWER, unbatched.power.get(0), 0.0);
+        assertEquals(unbatched.power, single.power);
+        assertEquals(unbatched.broker.acks, single.broker.acks);
+        assertEquals(unbatched.placed, single.placed);
+        assertEquals(unbatched.received, single.received);
+    }
+
+    @Test
+    public void testBatchesAcknowledgeAndReturnEveryVm() throws Exception {
+        Run unbatched = run(0, -1);
+        // 4 leaves a final batch of 2; 16 sends every VM in one batch
+        for (int i = 0; i < BATCH_SIZES.length; i++) {
+            Run batched = run(BATCH_SIZES[i], -1);
+            assertEquals(CLOUDLETS - 1, batched.broker.getVmsRequested());
+            assertEquals(batched.broker.getVmsRequested(), batched.broker.acks);
+            assertEquals(unbatched.placed, batched.placed);
+            assertEquals(batched.placed, batched.submitted);
+            assertEquals(batched.placed, batched.received);
+            assertEquals(1, batched.power.size());
+            assertEquals(BATCHED_POWER[i], batched.power.get(0), 0.0);
+        }
+    }
+
+    @Test
+    public void testFailedVmIsAcknowledged() throws Exception {
+        Run batched = run(4, 5);
+        int requested = batched.broker.getVmsRequested();
+        assertEquals(CLOUDLETS - 1, requested);
+        assertEquals(requested, batched.broker.acks);
+        assertEquals(requested - 1, batched.placed.size());
+        assertFalse(batched.placed.contains(5));
+        assertEquals(batched.placed, batched.submitted);
+        assertEquals(batched.placed, batched.received);
+    }
+
+    /** Counts acknowledgments and opens up the broker's bookkeeping. */
+    private static class ExposedBroker extends NewPowerDatacenterBroker {
+        int acks;
+
+        ExposedBroker(int batchSize) throws Exception {
+            super("Broker", batchSize);
+        }
+
+        ExposedBroker() throws Exception {
+            super("Broker");
+        }
+
+        @Override
+        public int getVmsRequested() {
+            return super.getVmsRequested();
+        }
+
+        @Override
+        protected void incrementVmsAcks() {
+            super.incrementVmsAcks();
+            // Not reset between single-VM requests, unlike getVmsAcks()
+            acks++;
+        }
+
+        /** Ids of the VMs placed; unlike getVmsCreatedList() it outlives clearDatacenters(). */
+        Set<Integer> placed() {
+            return new HashSet<>(getVmsToDatacentersMap().keySet());
+        }
+    }
+
+    /** What one simulation left behind. */
+    private static class Run {
+        ExposedBroker broker;
+        List<Double> power;
+        /** Ids of the VMs placed. */
+        Set<Integer> placed;
+        /** VM ids of the cloudlets submitted. */
+        Set<Integer> submitted = new HashSet<>();
+        /** VM ids of the cloudlets that came back. */
+        Set<Integer> received = new HashSet<>();
+    }
+
+    /**
+     * @param batchSize VMs per request, or 0 for the broker's default
+     * @param tooLarge  id of a VM no host has the RAM for, or -1
+     */
+    private Run run(int batchSize, int tooLarge) throws Exception {
+        PowerDatacenterRL.allpower.clear();
+        CloudSim.init(1, Calendar.getInstance(), false);
+        ExposedBroker broker = batchSize > 0 ? new ExposedBroker(batchSize) : new ExposedBroker();
+        int brokerId = broker.getId();
+
+        List<Cloudlet> cloudlets = new ArrayList<>(
+                PlanetLabTraceCache.createCloudletList(brokerId, INPUT).subList(0, CLOUDLETS));
+        for (Cloudlet cloudlet : cloudlets) {
+            cloudlet.setCloudletLength(CLOUDLET_LENGTH);
+        }
+        List<Vm> vms = newHelper.createVmList(brokerId, cloudlets.size());
+        if (tooLarge >= 0) {
+            vms.set(tooLarge, new PowerVm(tooLarge, brokerId, 1000, 1, 1 << 20, 1000, 1000, 1, "Xen",
+                    new CloudletSchedulerDynamicWorkload(1000, 1), 300));
+        }
+        List<PowerHost> hostList = newHelper.createHostList(HOSTS);
+        DatacenterCharacteristics chars = new DatacenterCharacteristics(
+                "x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+        PowerDatacenterFair datacenter = new PowerDatacenterFair(
+                "Datacenter", chars, new NewPowerAllocatePolicy(hostList),
+                new LinkedList<Storage>(), 300, new VmAllocationAssignerFair(GenExcel.getInstance()), brokerId);
+        datacenter.setDisableMigrations(false);
+
+        broker.submitVmList(vms);
+        broker.submitCloudletList(cloudlets);
+        CloudSim.terminateSimulation(terminateTime);
+        CloudSim.startSimulation();
+        CloudSim.stopSimulation();
+
+        Run run = new Run();
+        run.broker = broker;
+        run.power = new ArrayList<>(PowerDatacenterRL.allpower);
+        run.placed = broker.placed();
+        for (Cloudlet cloudlet : broker.getCloudletSubmittedList()) {
+            run.submitted.add(cloudlet.getVmId());
+        }
+        for (Cloudlet cloudlet : broker.getCloudletReceivedList()) {
+            run.received.add(cloudlet.getVmId());
+        }
+        return run;
+    }
+}
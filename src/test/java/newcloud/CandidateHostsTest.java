@@ -0,0 +1,266 @@
+package newcloud;
+
+import newcloud.datacenter.PowerDatacenterLearning;
+import newcloud.datacenter.PowerDatacenterRL;
+import newcloud.policy.QTable;
+import newcloud.policy.VmAllocationAssignerLearning;
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for bucketed capacity searches and candidate host generation.
+ */
+public class CandidateHostsTest {
+
+    @Test
+    public void testBucketOfHostTypeAndBand() {
+        List<PowerHost> hosts = newHelper.createHostList(3);
+        for (int type = 0; type < 3; type++) {
+            assertEquals(type * CandidateHosts.BANDS, CandidateHosts.bucketOf(hosts.get(type)));
+        }
+        PowerHost g9 = hosts.get(2);
+        assertTrue(g9.vmCreate(newHelper.createVmList(1, 1).get(0)));
+        int band = CandidateHosts.bucketOf(g9) - 2 * CandidateHosts.BANDS;
+        assertTrue(band > 0 && band < CandidateHosts.BANDS);
+    }
+
+    @Test
+    public void testBucketedNextFitMatchesScan() {
+        List<PowerHost> hosts = newHelper.createHostList(41);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(hosts);
+        HostCapacityIndex index = policy.getCapacityIndex();
+        Random random = new Random(9);
+        for (Vm vm : newHelper.createVmList(1, 120)) {
+            for (int bucket = 0; bucket < CandidateHosts.BUCKETS; bucket++) {
+                int from = random.nextInt(hosts.size());
+                int expected = -1;
+                for (int i = from; i < hosts.size() && expected < 0; i++) {
+                    if (CandidateHosts.bucketOf(hosts.get(i)) == bucket && hosts.get(i).isSuitableForVm(vm)) {
+                        expected = i;
+                    }
+                }
+                assertEquals(expected, index.nextFit(from, vm, bucket));
+            }
+            policy.allocateHostForVm(vm, hosts.get(random.nextInt(hosts.size())));
+        }
+    }
+
+    @Test
+    public void testCandidatesFitAndCoverEveryBucket() {
+        List<PowerHost> hosts = newHelper.createHostList(60);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(hosts);
+        List<Vm> vms = newHelper.createVmList(1, 80);
+        for (int i = 0; i < 40; i++) {
+            policy.allocateHostForVm(vms.get(i), hosts.get(i % 20));
+        }
+        CandidateHosts candidateHosts = new CandidateHosts(policy.getCapacityIndex());
+        int[] candidates = new int[24];
+        Vm vm = vms.get(40);
+        int count = candidateHosts.select(vm, candidates);
+
+        Set<Integer> buckets = new HashSet<>();
+        for (PowerHost host : hosts) {
+            if (host.isSuitableForVm(vm)) {
+                buckets.add(CandidateHosts.bucketOf(host));
+            }
+        }
+        assertTrue(count > 0 && count <= candidates.length);
+        Set<Integer> seen = new HashSet<>();
+        Set<Integer> covered = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            assertTrue("duplicate candidate", seen.add(candidates[i]));
+            PowerHost host = hosts.get(candidates[i]);
+            assertTrue(host.isSuitableForVm(vm));
+            covered.add(CandidateHosts.bucketOf(host));
+        }
+        assertEquals(buckets, covered);
+    }
+
+    @Test
+    public void testSelectionsRotateOverBuckets() {
+        List<PowerHost> hosts = newHelper.createHostList(60);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(hosts);
+        // Small VMs, one or two per host, so hosts of each type are in several bands
+        for (int i = 0; i < 30; i++) {
+            policy.allocateHostForVm(smallVm(i), hosts.get(i % 20));
+        }
+        CandidateHosts candidateHosts = new CandidateHosts(policy.getCapacityIndex());
+        Vm vm = smallVm(30);
+        Set<Integer> buckets = new HashSet<>();
+        for (PowerHost host : hosts) {
+            if (host.isSuitableForVm(vm)) {
+                buckets.add(CandidateHosts.bucketOf(host));
+            }
+        }
+        assertTrue(buckets.size() > 3);
+
+        // One candidate per selection: the first bucket of the round changes
+        int[] candidates = new int[1];
+        Set<Integer> offered = new HashSet<>();
+        for (int i = 0; i < CandidateHosts.BUCKETS; i++) {
+            assertEquals(1, candidateHosts.select(vm, candidates));
+            offered.add(CandidateHosts.bucketOf(hosts.get(candidates[0])));
+        }
+        assertEquals(buckets, offered);
+    }
+
+    private static Vm smallVm(int id) {
+        return new Vm(id, 1, 100, 1, 128, 1000, 1000, "Xen", new CloudletSchedulerDynamicWorkload(100, 1));
+    }
+
+    @Test
+    public void testNoCandidatesWhenNothingFits() {
+        List<PowerHost> hosts = newHelper.createHostList(5);
+        CandidateHosts candidateHosts = new CandidateHosts(new NewPowerAllocatePolicy(hosts).getCapacityIndex());
+        Vm huge = new Vm(0, 1, 1e9, 1, 1024, 1000, 1000, "Xen", new CloudletSchedulerDynamicWorkload(1e9, 1));
+        assertEquals(0, candidateHosts.select(huge, new int[8]));
+    }
+
+    @Test
+    public void testArgmaxAmongCandidates() {
+        QTable table = new QTable(6);
+        int s = table.rowFor("s");
+        table.set(s, 0, 5.0);
+        table.set(s, 2, 1.0);
+        table.set(s, 4, 1.0);
+        assertEquals(0, table.argmax(s));
+        assertEquals(4, table.argmax(s, new int[]{4, 2, 3}, 3));
+        assertEquals(3, table.argmax(s, new int[]{3, 0}, 1));
+    }
+
+    @Test
+    public void testPolicyChoosesOnlyCandidates() {
+        VmAllocationAssignerLearning explorer =
+                new VmAllocationAssignerLearning(0.9, 0.8, 1.0, GenExcel.getInstance());
+        int[] candidates = {7, 42, 199};
+        for (int i = 0; i < 200; i++) {
+            int action = explorer.createAction(StateCodec.encode(1, 2, 3), candidates, candidates.length);
+            assertTrue(action == 7 || action == 42 || action == 199);
+        }
+    }
+
+    @Test
+    public void testDatacenterChoosesAmongCandidates() throws Exception {
+        for (double epsilon : new double[]{0.0, 1.0}) {
+            Placements run = simulate(4, epsilon, false);
+            assertFalse(run.hosts.isEmpty());
+            assertEquals(run.hosts.size(), run.candidates.size());
+            for (int i = 0; i < run.hosts.size(); i++) {
+                int[] candidates = run.candidates.get(i);
+                assertTrue(candidates.length > 0 && candidates.length <= 4);
+                boolean found = false;
+                for (int candidate : candidates) {
+                    found |= candidate == run.hosts.get(i);
+                }
+                assertTrue("host " + run.hosts.get(i) + " is not a candidate", found);
+            }
+        }
+    }
+
+    @Test
+    public void testNoCandidatesMatchesAllHostPolicy() throws Exception {
+        Placements allHosts = simulate(0, 0.0, true);
+        Placements noCandidates = simulate(0, 0.0, false);
+        assertEquals(allHosts.hosts, noCandidates.hosts);
+        assertEquals(allHosts.power, noCandidates.power);
+        for (int[] candidates : noCandidates.candidates) {
+            assertEquals(0, candidates.length);
+        }
+    }
+
+    /** Host choices and power of one simulation. */
+    private static class Placements {
+        List<Integer> hosts = new ArrayList<>();
+        List<int[]> candidates = new ArrayList<>();
+        List<Double> power;
+    }
+
+    /** Q-Learning datacenter that records its candidates and choices. */
+    private static class RecordingDatacenter extends PowerDatacenterLearning {
+        private final VmAllocationAssignerLearning assigner;
+        private final boolean allHosts;
+        private final Placements placements;
+
+        RecordingDatacenter(DatacenterCharacteristics characteristics, VmAllocationPolicy policy,
+                            VmAllocationAssignerLearning assigner, int brokerId, boolean allHosts,
+                            Placements placements) throws Exception {
+            super("Datacenter", characteristics, policy, new LinkedList<Storage>(), 300, assigner, brokerId);
+            this.assigner = assigner;
+            this.allHosts = allHosts;
+            this.placements = placements;
+            // Rewards are normalized by the highest power seen in this JVM
+            maxObservedPower = 1.0;
+        }
+
+        @Override
+        protected int selectCandidates(Vm vm) {
+            int count = super.selectCandidates(vm);
+            placements.candidates.add(Arrays.copyOf(candidates, count));
+            return count;
+        }
+
+        @Override
+        protected int selectHostForVm(Vm vm) {
+            // The all-host path as it was before candidates were added
+            int host = allHosts ? assigner.createAction(encodeState()) : super.selectHostForVm(vm);
+            placements.hosts.add(host);
+            return host;
+        }
+    }
+
+    /**
+     * Place 30 VMs with Q-Learning on Constants.NUMBER_OF_HOSTS hosts.
+     *
+     * @param candidateHosts the datacenter's candidate count
+     * @param epsilon        the exploration rate
+     * @param allHosts       whether to bypass candidates as the old policy did
+     */
+    private Placements simulate(int candidateHosts, double epsilon, boolean allHosts) throws Exception {
+        PowerDatacenterRL.allpower.clear();
+        PowerDatacenterRL.everyhosthistorypower.clear();
+        VmAllocationAssignerLearning.QList.clear();
+        CloudSim.init(1, Calendar.getInstance(), false);
+        NewPowerDatacenterBroker broker = new NewPowerDatacenterBroker("Broker");
+        int brokerId = broker.getId();
+
+        List<Cloudlet> cloudlets = new ArrayList<>(
+                PlanetLabTraceCache.createCloudletList(brokerId, "src/main/resources/datas/50").subList(0, 31));
+        List<Vm> vms = newHelper.createVmList(brokerId, cloudlets.size());
+        List<PowerHost> hostList = newHelper.createHostList(Constants.NUMBER_OF_HOSTS);
+        DatacenterCharacteristics chars = new DatacenterCharacteristics(
+                "x86", "Linux", "Xen", hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+        VmAllocationAssignerLearning assigner =
+                new VmAllocationAssignerLearning(0.9, 0.8, epsilon, GenExcel.getInstance());
+        Placements placements = new Placements();
+        RecordingDatacenter datacenter = new RecordingDatacenter(
+                chars, new NewPowerAllocatePolicy(hostList), assigner, brokerId, allHosts, placements);
+        datacenter.setDisableMigrations(false);
+        datacenter.setCandidateHosts(candidateHosts);
+
+        broker.submitVmList(vms);
+        broker.submitCloudletList(cloudlets);
+        CloudSim.terminateSimulation(Constants.terminateTime);
+        CloudSim.startSimulation();
+        CloudSim.stopSimulation();
+        placements.power = new ArrayList<>(PowerDatacenterRL.allpower);
+        return placements;
+    }
+}
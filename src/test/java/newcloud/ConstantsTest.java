@@ -81,4 +81,11 @@ public class ConstantsTest {
         assertTrue("PSO inertia weight W should be positive", Constants.W > 0);
         assertTrue("PSO acceleration coefficient C should be positive", Constants.C > 0);
     }
+
+    @Test
+    public void testVmBatchTagsDistinct() {
+        assertTrue("VM creation batch size should be positive", Constants.VM_CREATION_BATCH_SIZE > 0);
+        assertTrue("Batch event tags must differ",
+                Constants.CREATE_VM_BATCH != Constants.CREATE_VM_BATCH_ACK);
+    }
 }
@@ -0,0 +1,96 @@
+package newcloud;
+
+import newcloud.policy.EligibilityTraces;
+import newcloud.policy.QTable;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the sparse eligibility-trace store.
+ */
+public class EligibilityTracesTest {
+
+    @Test
+    public void testAccumulateAndGet() {
+        EligibilityTraces traces = new EligibilityTraces(0.0);
+        traces.accumulate(0, 2, 1.0);
+        traces.accumulate(0, 2, 1.0);
+        traces.accumulate(1, 0, 0.5);
+        assertEquals(2, traces.size());
+        assertEquals(2.0, traces.get(0, 2), 1e-10);
+        assertEquals(0.5, traces.get(1, 0), 1e-10);
+        assertEquals(0.0, traces.get(1, 1), 1e-10);
+    }
+
+    @Test
+    public void testApplyAndDecayMatchesDenseUpdate() {
+        QTable table = new QTable(3);
+        int s0 = table.rowFor("s0");
+        int s1 = table.rowFor("s1");
+        EligibilityTraces traces = new EligibilityTraces(0.0);
+
+        // Dense reference: every entry updated with its trace, then decayed
+        double[][] q = new double[2][3];
+        double[][] e = new double[2][3];
+
+        int[][] steps = {{s0, 1}, {s1, 2}, {s0, 1}, {s1, 0}};
+        double[] deltas = {0.5, -0.25, 1.0, 0.75};
+        double decay = 0.9 * 0.8;
+        for (int t = 0; t < steps.length; t++) {
+            int s = steps[t][0];
+            int a = steps[t][1];
+            traces.accumulate(s, a, 1);
+            traces.applyAndDecay(table, deltas[t], decay);
+
+            e[s][a] += 1;
+            for (int i = 0; i < 2; i++) {
+                for (int j = 0; j < 3; j++) {
+                    q[i][j] += deltas[t] * e[i][j];
+                    e[i][j] *= decay;
+                }
+            }
+        }
+
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(q[i][j], table.get(i, j), 1e-10);
+                assertEquals(e[i][j], traces.get(i, j), 1e-10);
+            }
+        }
+    }
+
+    @Test
+    public void testTracesBelowCutoffAreDropped() {
+        QTable table = new QTable(2);
+        int s = table.rowFor("s");
+        EligibilityTraces traces = new EligibilityTraces(0.1);
+        traces.accumulate(s, 0, 1.0);
+        traces.applyAndDecay(table, 1.0, 0.5);
+        assertEquals(1, traces.size());
+        traces.applyAndDecay(table, 1.0, 0.5);
+        traces.applyAndDecay(table, 1.0, 0.5);
+        traces.applyAndDecay(table, 1.0, 0.5);
+        // 1 -> 0.5 -> 0.25 -> 0.125 -> 0.0625 (< 0.1, dropped)
+        assertEquals(0, traces.size());
+        assertEquals(1.0 + 0.5 + 0.25 + 0.125, table.get(s, 0), 1e-10);
+    }
+
+    @Test
+    public void testClearState() {
+        EligibilityTraces traces = new EligibilityTraces();
+        traces.accumulate(0, 0, 1.0);
+        traces.accumulate(1, 0, 1.0);
+        traces.accumulate(0, 1, 1.0);
+        traces.clearState(0);
+        assertEquals(1, traces.size());
+        assertEquals(1.0, traces.get(1, 0), 1e-10);
+        traces.clear();
+        assertEquals(0, traces.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeCutoffRejected() {
+        new EligibilityTraces(-1.0);
+    }
+}
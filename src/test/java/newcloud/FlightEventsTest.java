@@ -0,0 +1,71 @@
+package newcloud;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import newcloud.jfr.FlightEvents;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for the JFR events of FlightEvents.
+ */
+public class FlightEventsTest {
+
+    @Test
+    public void testEventsDisabledWithoutRecording() {
+        // A recording started with -XX:StartFlightRecording enables the events
+        assumeTrue(!FlightEvents.AVAILABLE || FlightRecorder.getFlightRecorder().getRecordings().isEmpty());
+        assertFalse(FlightEvents.isPlacementEnabled());
+        assertFalse(FlightEvents.isQUpdateEnabled());
+        assertFalse(FlightEvents.isTickEnabled());
+    }
+
+    @Test
+    public void testEventsAreRecorded() throws Exception {
+        assumeTrue(FlightEvents.AVAILABLE);
+        File file = File.createTempFile("events", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("newcloud.Placement");
+                recording.enable("newcloud.QUpdate");
+                recording.start();
+                assertTrue(FlightEvents.isPlacementEnabled());
+                assertTrue(FlightEvents.isQUpdateEnabled());
+
+                FlightEvents.placement(7, 42, true, 123, System.nanoTime());
+                FlightEvents.qUpdate(FlightEventsTest.class, "1_2_3", 42, -0.5, System.nanoTime());
+                recording.stop();
+                recording.dump(file.toPath());
+            }
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            RecordedEvent placement = null;
+            RecordedEvent update = null;
+            for (RecordedEvent event : events) {
+                String name = event.getEventType().getName();
+                if (name.equals("newcloud.Placement")) {
+                    placement = event;
+                } else if (name.equals("newcloud.QUpdate")) {
+                    update = event;
+                }
+            }
+            assertNotNull(placement);
+            assertEquals(7, placement.getInt("vmId"));
+            assertEquals(42, placement.getInt("hostId"));
+            assertTrue(placement.getBoolean("fallback"));
+            assertEquals(123, placement.getInt("stateCode"));
+            assertNotNull(update);
+            assertEquals("FlightEventsTest", update.getString("assigner"));
+            assertEquals("1_2_3", update.getString("state"));
+            assertEquals(-0.5, update.getDouble("tdError"), 0);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package newcloud;
+
+import newcloud.policy.VmAllocationAssignerGready;
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the host free-capacity index and the analytic greedy placement.
+ */
+public class HostCapacityIndexTest {
+
+    /** Reference first fit: the linear isSuitableForVm scan. */
+    private static int linearFirstFit(List<PowerHost> hosts, Vm vm) {
+        for (int i = 0; i < hosts.size(); i++) {
+            if (hosts.get(i).isSuitableForVm(vm)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testFirstFitMatchesLinearScan() {
+        List<PowerHost> hosts = newHelper.createHostList(37);
+        List<Vm> vms = newHelper.createVmList(1, 200);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(hosts);
+        HostCapacityIndex index = policy.getCapacityIndex();
+        Random random = new Random(3);
+
+        for (Vm vm : vms) {
+            int expected = linearFirstFit(hosts, vm);
+            assertEquals(expected, index.firstFit(vm));
+            // Place on a random host when possible so that free capacity is uneven
+            PowerHost host = hosts.get(random.nextInt(hosts.size()));
+            if (!policy.allocateHostForVm(vm, host) && expected >= 0) {
+                assertTrue(policy.allocateHostForVm(vm, hosts.get(expected)));
+            }
+        }
+        for (int i = 0; i < vms.size(); i += 3) {
+            policy.deallocateHostForVm(vms.get(i));
+        }
+        for (Vm vm : newHelper.createVmList(1, 50)) {
+            assertEquals(linearFirstFit(hosts, vm), index.firstFit(vm));
+        }
+    }
+
+    @Test
+    public void testNextFitVisitsEverySuitableHost() {
+        List<PowerHost> hosts = newHelper.createHostList(20);
+        HostCapacityIndex index = new HostCapacityIndex(hosts);
+        Vm vm = newHelper.createVmList(1, 5).get(0);
+        int visited = 0;
+        int previous = -1;
+        for (int i = index.firstFit(vm); i >= 0; i = index.nextFit(i + 1, vm)) {
+            assertTrue(i > previous);
+            assertTrue(hosts.get(i).isSuitableForVm(vm));
+            previous = i;
+            visited++;
+        }
+        int suitable = 0;
+        for (Host host : hosts) {
+            if (host.isSuitableForVm(vm)) {
+                suitable++;
+            }
+        }
+        assertEquals(suitable, visited);
+    }
+
+    @Test
+    public void testNoHostFits() {
+        List<PowerHost> hosts = newHelper.createHostList(3);
+        HostCapacityIndex index = new HostCapacityIndex(hosts);
+        Vm huge = new Vm(0, 1, 1e9, 1, 1024, 1000, 1000, "Xen", new CloudletSchedulerDynamicWorkload(1e9, 1));
+        assertEquals(-1, index.firstFit(huge));
+        assertEquals(-1, index.nextFit(5, newHelper.createVmList(1, 1).get(0)));
+    }
+
+    @Test
+    public void testFindHostForVmMatchesLinearScan() {
+        List<PowerHost> hosts = newHelper.createHostList(25);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(hosts);
+        for (Vm vm : newHelper.createVmList(1, 120)) {
+            int expected = linearFirstFit(hosts, vm);
+            PowerHost found = policy.findHostForVm(vm);
+            assertEquals(expected, found == null ? -1 : hosts.indexOf(found));
+            if (found != null) {
+                assertTrue(policy.allocateHostForVm(vm, found));
+            }
+        }
+    }
+
+    @Test
+    public void testFindHostForVmSkipsStaleEntries() {
+        List<PowerHost> hosts = newHelper.createHostList(6);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(hosts);
+        List<Vm> vms = newHelper.createVmList(1, 10);
+        PowerHost first = policy.findHostForVm(vms.get(0));
+        assertNotNull(first);
+
+        // Fill the first suitable host behind the policy's back
+        assertTrue(first.vmCreate(vms.get(0)));
+        Vm next = vms.get(1);
+        PowerHost found = policy.findHostForVm(next);
+        assertEquals(linearFirstFit(hosts, next), found == null ? -1 : hosts.indexOf(found));
+    }
+
+    @Test
+    public void testGreedyMatchesTrialAllocation() {
+        List<PowerHost> hosts = newHelper.createHostList(30);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(hosts);
+        VmAllocationAssignerGready greedy = new VmAllocationAssignerGready(policy, GenExcel.getInstance());
+
+        for (Vm vm : newHelper.createVmList(1, 60)) {
+            // Reference: trial allocation on every suitable host, as the assigner used to do
+            PowerHost expected = null;
+            double minEnergy = Double.MAX_VALUE;
+            for (PowerHost host : hosts) {
+                if (!host.isSuitableForVm(vm)) {
+                    continue;
+                }
+                double before = (host.getTotalMips() - host.getAvailableMips()) / host.getTotalMips();
+                assertTrue(policy.allocateHostForVm(vm, host));
+                double after = (host.getTotalMips() - host.getAvailableMips()) / host.getTotalMips();
+                double energy = host.getEnergyLinearInterpolation(before, after, 100);
+                policy.deallocateHostForVm(vm);
+                if (energy < minEnergy - 1e-9) {
+                    minEnergy = energy;
+                    expected = host;
+                }
+            }
+
+            Host selected = greedy.getVmAllocationHost(hosts, vm);
+            assertSame(expected, selected);
+            if (selected != null) {
+                assertTrue(policy.allocateHostForVm(vm, selected));
+            }
+        }
+    }
+}
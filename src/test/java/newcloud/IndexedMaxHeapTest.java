@@ -0,0 +1,108 @@
+package newcloud;
+
+import newcloud.policy.VmAllocationAssignerFair;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the indexed max-heap and the heap-backed Fair placement.
+ */
+public class IndexedMaxHeapTest {
+
+    private static int bruteForceMax(double[] keys) {
+        int best = 0;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] >= keys[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void testPeekTracksUpdates() {
+        Random random = new Random(5);
+        int n = 41;
+        IndexedMaxHeap heap = new IndexedMaxHeap(n);
+        double[] keys = new double[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextInt(10);
+        }
+        heap.setAll(keys);
+        assertEquals(bruteForceMax(keys), heap.peek());
+        for (int step = 0; step < 5000; step++) {
+            int item = random.nextInt(n);
+            // Coarse keys so that ties happen often
+            keys[item] = random.nextInt(10);
+            heap.set(item, keys[item]);
+            assertEquals(bruteForceMax(keys), heap.peek());
+            assertEquals(keys[item], heap.key(item), 0.0);
+        }
+    }
+
+    @Test
+    public void testSingleItem() {
+        IndexedMaxHeap heap = new IndexedMaxHeap(1);
+        heap.set(0, 3.0);
+        assertEquals(0, heap.peek());
+    }
+
+    @Test
+    public void testFairMatchesScan() {
+        List<PowerHost> powerHosts = newHelper.createHostList(12);
+        List<Host> hosts = new ArrayList<Host>(powerHosts);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(powerHosts);
+        VmAllocationAssignerFair fair = new VmAllocationAssignerFair(GenExcel.getInstance());
+
+        for (Vm vm : newHelper.createVmList(1, 30)) {
+            Host expected = null;
+            double availableMips = Double.MIN_VALUE;
+            for (Host host : hosts) {
+                if (host.getAvailableMips() >= availableMips) {
+                    availableMips = host.getAvailableMips();
+                    expected = host;
+                }
+            }
+            Host selected = fair.getVmAllocationHost(hosts);
+            assertSame(expected, selected);
+            if (policy.allocateHostForVm(vm, selected)) {
+                fair.hostUpdated(selected);
+            }
+        }
+    }
+
+    @Test
+    public void testFairRereadsChangedHosts() {
+        List<PowerHost> powerHosts = newHelper.createHostList(12);
+        List<Host> hosts = new ArrayList<Host>(powerHosts);
+        NewPowerAllocatePolicy policy = new NewPowerAllocatePolicy(powerHosts);
+        VmAllocationAssignerFair fair = new VmAllocationAssignerFair(GenExcel.getInstance());
+        fair.getVmAllocationHost(hosts);
+
+        // Change several hosts without reporting them one by one, as a tick does
+        List<Vm> vms = newHelper.createVmList(1, 30);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 6; i++) {
+                policy.allocateHostForVm(vms.get(round * 6 + i), hosts.get((round * 5 + i * 7) % hosts.size()));
+            }
+            fair.hostsUpdated();
+            Host expected = null;
+            double availableMips = Double.MIN_VALUE;
+            for (Host host : hosts) {
+                if (host.getAvailableMips() >= availableMips) {
+                    availableMips = host.getAvailableMips();
+                    expected = host;
+                }
+            }
+            assertSame(expected, fair.getVmAllocationHost(hosts));
+        }
+    }
+}
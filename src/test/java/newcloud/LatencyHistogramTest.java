@@ -0,0 +1,83 @@
+package newcloud;
+
+import newcloud.datacenter.PhaseProfiler;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for LatencyHistogram and the PhaseProfiler built on it.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 10; v++) {
+            histogram.record(v);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(55, histogram.getTotal());
+        assertEquals(5.5, histogram.getMean(), 1e-12);
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void testBucketsAreContiguousWithBoundedError() {
+        int previous = -1;
+        for (long v = 0; v < 1 << 16; v++) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(index == previous || index == previous + 1);
+            long high = LatencyHistogram.highestValueAt(index);
+            assertTrue(high >= v);
+            assertTrue(high - v <= v / LatencyHistogram.SUB_BUCKETS);
+            previous = index;
+        }
+        long big = Long.MAX_VALUE;
+        assertEquals(big, LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(big)));
+    }
+
+    @Test
+    public void testPercentilesOfLargeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(5_000_000);
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(p50 >= 1_000 && p50 <= 1_000 * 33 / 32);
+        assertEquals(p50, histogram.getValueAtPercentile(99));
+        assertEquals(5_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(5_000_000, histogram.getMax());
+    }
+
+    @Test
+    public void testAddAndReset() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(3);
+        b.record(-7);
+        b.record(40);
+        a.add(b);
+        assertEquals(3, a.getCount());
+        assertEquals(43, a.getTotal());
+        assertEquals(40, a.getMax());
+        assertEquals(0, a.getValueAtPercentile(1));
+        a.reset();
+        assertEquals(0, a.getCount());
+        assertEquals(0, a.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testProfilerRecordsPhases() {
+        PhaseProfiler.reset();
+        PhaseProfiler.record(PhaseProfiler.Phase.SELECT_HOST, System.nanoTime());
+        PhaseProfiler.record(PhaseProfiler.Phase.SELECT_HOST, System.nanoTime());
+        assertEquals(2, PhaseProfiler.getHistogram(PhaseProfiler.Phase.SELECT_HOST).getCount());
+        assertEquals(0, PhaseProfiler.getHistogram(PhaseProfiler.Phase.ENERGY_LOOP).getCount());
+        PhaseProfiler.reset();
+        assertEquals(0, PhaseProfiler.getHistogram(PhaseProfiler.Phase.SELECT_HOST).getCount());
+    }
+}
@@ -0,0 +1,196 @@
+package newcloud;
+
+import newcloud.PowerModel.PowerTable;
+import newcloud.policy.HostFeatures;
+import newcloud.policy.LinearQFunction;
+import newcloud.policy.VmAllocationAssignerLinear;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the linear Q-function, its host features and its assigner.
+ */
+public class LinearQFunctionTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("linear", ".ckpt");
+        VmAllocationAssignerLinear.QFunction.clear();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        VmAllocationAssignerLinear.QFunction.clear();
+    }
+
+    @Test
+    public void testFeaturesOfIdleHost() {
+        List<PowerHost> hosts = newHelper.createHostList(3);
+        Vm vm = createVm(0, 2);
+        double[] features = new double[HostFeatures.COUNT];
+        for (int type = 0; type < 3; type++) {
+            PowerHost host = hosts.get(type);
+            HostFeatures.fill(features, StateCodec.encode(9, 0, 4), host, vm);
+            assertEquals(type, HostFeatures.hostType(host));
+            assertEquals(1.0, features[HostFeatures.BIAS], 0.0);
+            for (int t = 0; t < 3; t++) {
+                assertEquals(t == type ? 1.0 : 0.0, features[HostFeatures.HOST_TYPE + t], 0.0);
+            }
+            assertEquals(0.0, features[HostFeatures.UTILIZATION], 1e-12);
+            assertEquals(2500.0 / 3500, features[HostFeatures.VM_MIPS], 1e-12);
+            assertEquals(0.95, features[HostFeatures.STATE], 1e-12);
+            assertEquals(0.05, features[HostFeatures.STATE + 1], 1e-12);
+            assertEquals(0.45, features[HostFeatures.STATE + 2], 1e-12);
+            for (double feature : features) {
+                assertTrue(feature >= 0 && feature <= 1);
+            }
+        }
+        // Switching on an idle host costs its idle power as well
+        PowerHost g9 = hosts.get(2);
+        HostFeatures.fill(features, 0, g9, vm);
+        PowerTable table = PowerTable.of(Constants.HOST_POWER[2]);
+        double after = features[HostFeatures.UTILIZATION_AFTER];
+        assertEquals(2500.0 / g9.getTotalMips(), after, 1e-12);
+        assertEquals(table.getPower(after), features[HostFeatures.MARGINAL_POWER] * maxPower(), 1e-9);
+    }
+
+    @Test
+    public void testFeaturesOfBusyHost() {
+        PowerHost host = newHelper.createHostList(3).get(2);
+        assertTrue(host.vmCreate(createVm(0, 0)));
+        Vm vm = createVm(1, 4);
+        double[] features = new double[HostFeatures.COUNT];
+        HostFeatures.fill(features, 0, host, vm);
+
+        double before = 1 - host.getAvailableMips() / host.getTotalMips();
+        assertTrue(before > 0);
+        assertEquals(before, features[HostFeatures.UTILIZATION], 1e-12);
+        PowerTable table = PowerTable.of(Constants.HOST_POWER[2]);
+        double marginal = table.getPower(features[HostFeatures.UTILIZATION_AFTER]) - table.getPower(before);
+        assertEquals(marginal, features[HostFeatures.MARGINAL_POWER] * maxPower(), 1e-9);
+        assertEquals(0.0, features[HostFeatures.OVERCOMMIT], 0.0);
+
+        // A G5 host has less free MIPS than the largest VM
+        HostFeatures.fill(features, 0, newHelper.createHostList(1).get(0), createVm(2, 0));
+        assertEquals(1.0, features[HostFeatures.OVERCOMMIT], 0.0);
+        assertEquals(1.0, features[HostFeatures.VM_SHARE], 0.0);
+    }
+
+    @Test
+    public void testUpdateMovesScoreByAlphaDelta() {
+        LinearQFunction function = new LinearQFunction(4);
+        double[] features = {1, 0.5, 0, 0.25};
+        function.update(features, -2.0, 0.5);
+        assertEquals(-1.0, function.score(features), 1e-12);
+        function.update(features, 1.0, 0.8);
+        assertEquals(-0.2, function.score(features), 1e-12);
+        function.update(new double[4], 5.0, 0.5);
+        assertEquals(-0.2, function.score(features), 1e-12);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenFunctionRejectsUpdates() {
+        LinearQFunction function = new LinearQFunction(2);
+        function.freeze();
+        function.update(new double[]{1, 1}, 1.0, 0.5);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        LinearQFunction function = new LinearQFunction(HostFeatures.COUNT);
+        for (int i = 0; i < function.size(); i++) {
+            function.setWeight(i, i * 0.37 - 2);
+        }
+        LinearQFunction.write(file, 12, function);
+
+        LinearQFunction loaded = new LinearQFunction(HostFeatures.COUNT);
+        assertEquals(12, LinearQFunction.read(file, loaded));
+        for (int i = 0; i < function.size(); i++) {
+            assertEquals(function.getWeight(i), loaded.getWeight(i), 0.0);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadRejectsOtherFeatureCount() throws IOException {
+        LinearQFunction.write(file, 1, new LinearQFunction(3));
+        LinearQFunction.read(file, new LinearQFunction(4));
+    }
+
+    @Test
+    public void testGreedyChoiceDoesNotDependOnHostCount() {
+        // Prefer hosts whose placement adds the least power
+        VmAllocationAssignerLinear.QFunction.setWeight(HostFeatures.MARGINAL_POWER, -1);
+        VmAllocationAssignerLinear assigner =
+                new VmAllocationAssignerLinear(0.9, 0.8, 0.0, GenExcel.getInstance());
+        Vm vm = createVm(0, 4);
+        for (int count : new int[]{3, 30, 3000}) {
+            List<PowerHost> hosts = newHelper.createHostList(count);
+            int action = assigner.createAction(hosts, vm, 0);
+            assertTrue(action < count);
+            double[] chosen = new double[HostFeatures.COUNT];
+            double[] other = new double[HostFeatures.COUNT];
+            HostFeatures.fill(chosen, 0, hosts.get(action), vm);
+            for (PowerHost host : hosts) {
+                HostFeatures.fill(other, 0, host, vm);
+                assertTrue(chosen[HostFeatures.MARGINAL_POWER] <= other[HostFeatures.MARGINAL_POWER]);
+            }
+        }
+    }
+
+    @Test
+    public void testRewardIsLearnedAtNextPlacement() {
+        LinearQFunction weights = VmAllocationAssignerLinear.QFunction;
+        VmAllocationAssignerLinear assigner =
+                new VmAllocationAssignerLinear(0.9, 0.5, 0.0, GenExcel.getInstance());
+        List<PowerHost> hosts = newHelper.createHostList(6);
+        Vm vm = createVm(0, 1);
+
+        int action = assigner.createAction(hosts, vm, 0);
+        double[] features = new double[HostFeatures.COUNT];
+        HostFeatures.fill(features, 0, hosts.get(action), vm);
+        assigner.observeReward(action, -1.0);
+        assertEquals(0.0, weights.score(features), 0.0);
+
+        // All weights were 0, so the target is the reward alone
+        assigner.createAction(hosts, vm, 0);
+        assertEquals(-0.5, weights.score(features), 1e-12);
+
+        // A VM that fell back to another host teaches nothing
+        int next = assigner.createAction(hosts, vm, 0);
+        assigner.observeReward((next + 1) % hosts.size(), -1.0);
+        double[] before = new double[HostFeatures.COUNT];
+        for (int i = 0; i < before.length; i++) {
+            before[i] = weights.getWeight(i);
+        }
+        assigner.createAction(hosts, vm, 0);
+        for (int i = 0; i < before.length; i++) {
+            assertEquals(before[i], weights.getWeight(i), 0.0);
+        }
+    }
+
+    private static double maxPower() {
+        double max = 0;
+        for (int t = 0; t < Constants.HOST_POWER.length; t++) {
+            max = Math.max(max, PowerTable.of(Constants.HOST_POWER[t]).getPower(1));
+        }
+        return max;
+    }
+
+    private static Vm createVm(int id, int type) {
+        return new Vm(id, 1, Constants.VM_MIPS[type], Constants.VM_PES[type], Constants.VM_RAM[type],
+                2500, 2500, "Xen", new CloudletSchedulerTimeShared());
+    }
+}
@@ -0,0 +1,61 @@
+package newcloud;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the process-wide PlanetLab trace cache.
+ */
+public class PlanetLabTraceCacheTest {
+
+    private static final String FOLDER = "src/main/resources/datas/50";
+
+    @After
+    public void tearDown() {
+        PlanetLabTraceCache.clear();
+    }
+
+    @Test
+    public void testFolderIsParsedOnce() throws Exception {
+        double[][] first = PlanetLabTraceCache.getTraces(FOLDER);
+        double[][] second = PlanetLabTraceCache.getTraces(FOLDER);
+        assertSame(first, second);
+        assertEquals(new File(FOLDER).listFiles().length, first.length);
+    }
+
+    @Test
+    public void testCloudletListsAreFresh() throws Exception {
+        List<Cloudlet> first = PlanetLabTraceCache.createCloudletList(3, FOLDER);
+        List<Cloudlet> second = PlanetLabTraceCache.createCloudletList(3, FOLDER);
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertNotSame(first.get(i), second.get(i));
+            assertEquals(i, first.get(i).getCloudletId());
+            assertEquals(i, first.get(i).getVmId());
+            assertEquals(3, first.get(i).getUserId());
+            assertEquals(Constants.CLOUDLET_LENGTH, first.get(i).getCloudletLength());
+        }
+    }
+
+    @Test
+    public void testUtilizationMatchesPlanetLabModel() throws Exception {
+        File[] files = new File(FOLDER).listFiles();
+        List<Cloudlet> cloudlets = PlanetLabTraceCache.createCloudletList(0, FOLDER);
+        for (int i = 0; i < files.length; i++) {
+            UtilizationModel expected = new UtilizationModelPlanetLabInMemory(
+                    files[i].getAbsolutePath(), Constants.SCHEDULING_INTERVAL);
+            UtilizationModel actual = cloudlets.get(i).getUtilizationModelCpu();
+            for (double time = 0; time <= 86400; time += 137.5) {
+                assertEquals(expected.getUtilization(time), actual.getUtilization(time), 1e-12);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package newcloud;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the packed binary trace format.
+ */
+public class PlanetLabTracePackTest {
+
+    private static final String FOLDER = "src/main/resources/datas/50";
+
+    private File packFile;
+
+    @Before
+    public void setUp() throws IOException {
+        packFile = File.createTempFile("traces", ".pltr");
+    }
+
+    @After
+    public void tearDown() {
+        PlanetLabTraceCache.clear();
+        packFile.delete();
+    }
+
+    @Test
+    public void testHeader() throws Exception {
+        int count = PlanetLabTracePack.pack(new File(FOLDER), packFile);
+        PlanetLabTracePack pack = PlanetLabTracePack.open(packFile);
+        assertEquals(new File(FOLDER).listFiles().length, count);
+        assertEquals(count, pack.getVmCount());
+        assertEquals(PlanetLabTraceCache.SAMPLES_PER_TRACE, pack.getSampleCount());
+        assertEquals(PlanetLabTracePack.HEADER_BYTES + (long) count * pack.getSampleCount() * 2,
+                packFile.length());
+    }
+
+    @Test
+    public void testPackedCloudletsMatchFolder() throws Exception {
+        PlanetLabTracePack.pack(new File(FOLDER), packFile);
+        List<Cloudlet> fromFolder = PlanetLabTraceCache.createCloudletList(1, FOLDER);
+        List<Cloudlet> fromPack = PlanetLabTraceCache.createCloudletList(1, packFile.getPath());
+        assertEquals(fromFolder.size(), fromPack.size());
+        for (int i = 0; i < fromFolder.size(); i++) {
+            assertEquals(i, fromPack.get(i).getVmId());
+            for (double time = 0; time <= 86400; time += 137.5) {
+                assertEquals(fromFolder.get(i).getUtilizationOfCpu(time),
+                        fromPack.get(i).getUtilizationOfCpu(time), 1e-12);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsForeignFile() throws Exception {
+        try (FileOutputStream out = new FileOutputStream(packFile)) {
+            out.write(new byte[32]);
+        }
+        PlanetLabTracePack.open(packFile);
+    }
+}
@@ -0,0 +1,66 @@
+package newcloud;
+
+import newcloud.datacenter.PowerHistory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the fixed-capacity per-host power history.
+ */
+public class PowerHistoryTest {
+
+    @Test
+    public void testMostRecentFirst() {
+        PowerHistory history = new PowerHistory(4);
+        assertTrue(history.isEmpty());
+        history.push(new double[]{1.0, 2.0});
+        history.push(new double[]{3.0, 4.0, 5.0});
+        assertEquals(2, history.size());
+        assertEquals(3, history.hostCount(0));
+        assertEquals(12.0, history.total(0), 1e-10);
+        assertEquals(3.0, history.total(1), 1e-10);
+        assertEquals(2.0, history.get(1, 1), 1e-10);
+        assertArrayEquals(new double[]{3.0, 4.0, 5.0}, history.snapshot(0), 1e-10);
+    }
+
+    @Test
+    public void testOldestIsEvictedWhenFull() {
+        PowerHistory history = new PowerHistory(3);
+        for (int tick = 0; tick < 10; tick++) {
+            history.push(new double[]{tick});
+        }
+        assertEquals(3, history.size());
+        assertEquals(9.0, history.get(0, 0), 1e-10);
+        assertEquals(8.0, history.get(1, 0), 1e-10);
+        assertEquals(7.0, history.get(2, 0), 1e-10);
+    }
+
+    @Test
+    public void testPushCopiesValues() {
+        PowerHistory history = new PowerHistory(2);
+        double[] scratch = {1.0, 2.0, 3.0};
+        history.push(scratch, 2);
+        scratch[0] = 100.0;
+        assertEquals(2, history.hostCount(0));
+        assertEquals(1.0, history.get(0, 0), 1e-10);
+        assertEquals(3.0, history.total(0), 1e-10);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadPastSize() {
+        PowerHistory history = new PowerHistory(2);
+        history.push(new double[]{1.0});
+        history.total(1);
+    }
+
+    @Test
+    public void testClear() {
+        PowerHistory history = new PowerHistory(2);
+        history.push(new double[]{1.0});
+        history.clear();
+        assertTrue(history.isEmpty());
+        history.push(new double[]{2.0});
+        assertEquals(2.0, history.total(0), 1e-10);
+    }
+}
@@ -0,0 +1,80 @@
+package newcloud;
+
+import newcloud.PowerModel.PowerModelDL360G7;
+import newcloud.PowerModel.PowerModelDL360Gen9;
+import newcloud.PowerModel.PowerModelML110G5;
+import newcloud.PowerModel.PowerTable;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the precomputed power tables match the SPECpower models.
+ */
+public class PowerTableTest {
+
+    private static final PowerModel[] MODELS = {
+            new PowerModelML110G5(), new PowerModelDL360G7(), new PowerModelDL360Gen9()
+    };
+
+    @Test
+    public void testPowerMatchesModel() {
+        Random random = new Random(7);
+        for (PowerModel model : MODELS) {
+            PowerTable table = PowerTable.of(model);
+            for (int i = 0; i <= 100; i++) {
+                double u = i / 100.0;
+                assertEquals(model.getPower(u), table.getPower(u), 1e-9);
+            }
+            for (int i = 0; i < 1000; i++) {
+                double u = random.nextDouble();
+                assertEquals(model.getPower(u), table.getPower(u), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testEnergyMatchesPowerHost() {
+        Random random = new Random(11);
+        for (PowerModel model : MODELS) {
+            PowerHost host = createHost(model);
+            PowerTable table = PowerTable.of(model);
+            assertEquals(0.0, table.getEnergy(0.0, 0.5, 300), 1e-10);
+            for (int i = 0; i < 1000; i++) {
+                double from = random.nextInt(4) == 0 ? 0.0 : random.nextDouble();
+                double to = random.nextDouble();
+                double time = 1 + random.nextInt(300);
+                assertEquals(host.getEnergyLinearInterpolation(from, to, time),
+                        table.getEnergy(from, to, time), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void testTablesAreShared() {
+        assertSame(PowerTable.of(Constants.HOST_POWER[0]), PowerTable.of(Constants.HOST_POWER[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsOutOfRangeUtilization() {
+        PowerTable.of(MODELS[0]).getPower(1.01);
+    }
+
+    private static PowerHost createHost(PowerModel model) {
+        List<Pe> peList = new ArrayList<>();
+        peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+        return new PowerHost(0, new RamProvisionerSimple(1024), new BwProvisionerSimple(1000),
+                1000, peList, new VmSchedulerTimeShared(peList), model);
+    }
+}
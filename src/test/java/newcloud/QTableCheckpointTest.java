@@ -0,0 +1,140 @@
+package newcloud;
+
+import newcloud.policy.EligibilityTraces;
+import newcloud.policy.QTable;
+import newcloud.policy.QTableCheckpoint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for Q-table checkpoints.
+ */
+public class QTableCheckpointTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("qtable", ".ckpt");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testRoundTripKeepsRowsValuesAndTraces() throws IOException {
+        QTable table = new QTable(6);
+        EligibilityTraces traces = new EligibilityTraces(1e-4);
+        Random random = new Random(5);
+        for (int i = 0; i < 40; i++) {
+            int s = table.rowFor("state" + random.nextInt(15));
+            table.set(s, random.nextInt(6), random.nextGaussian());
+            traces.accumulate(s, random.nextInt(6), random.nextDouble());
+        }
+        QTableCheckpoint.write(file, 37, table, traces);
+
+        QTable loaded = new QTable(6);
+        loaded.rowFor("stale");
+        EligibilityTraces loadedTraces = new EligibilityTraces(1e-4);
+        loadedTraces.accumulate(9, 9, 1);
+        assertEquals(37, QTableCheckpoint.read(file, loaded, loadedTraces));
+
+        assertEquals(table.size(), loaded.size());
+        assertFalse(loaded.containsState("stale"));
+        for (int s = 0; s < table.size(); s++) {
+            assertEquals(table.stateKey(s), loaded.stateKey(s));
+            assertEquals(table.argmax(s), loaded.argmax(s));
+            for (int a = 0; a < 6; a++) {
+                assertEquals(table.get(s, a), loaded.get(s, a), 0);
+                assertEquals(traces.get(s, a), loadedTraces.get(s, a), 0);
+            }
+        }
+        assertEquals(traces.size(), loadedTraces.size());
+    }
+
+    @Test
+    public void testTracesAreOptional() throws IOException {
+        QTable table = new QTable(3);
+        table.set(table.rowFor("a"), 2, 1.5);
+        QTableCheckpoint.write(file, 1, table, null);
+
+        EligibilityTraces traces = new EligibilityTraces();
+        QTable loaded = new QTable(3);
+        QTableCheckpoint.read(file, loaded, traces);
+        assertEquals(1.5, loaded.get("a", 2), 0);
+        assertEquals(0, traces.size());
+    }
+
+    @Test
+    public void testOverwriteReplacesCheckpoint() throws IOException {
+        QTable table = new QTable(2);
+        table.set(table.rowFor("a"), 0, 1);
+        QTableCheckpoint.write(file, 10, table, null);
+        table.set(table.rowFor("b"), 1, 2);
+        QTableCheckpoint.write(file, 20, table, null);
+
+        QTable loaded = new QTable(2);
+        assertEquals(20, QTableCheckpoint.read(file, loaded, null));
+        assertEquals(2, loaded.size());
+        File[] leftovers = file.getAbsoluteFile().getParentFile()
+                .listFiles((dir, name) -> name.startsWith(file.getName()) && name.endsWith(".tmp"));
+        assertEquals(0, leftovers.length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testActionCountMismatchRejected() throws IOException {
+        QTable table = new QTable(4);
+        table.rowFor("a");
+        QTableCheckpoint.write(file, 1, table, null);
+        QTableCheckpoint.read(file, new QTable(5), null);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedCheckpointRejected() throws IOException {
+        QTable table = new QTable(4);
+        table.set(table.rowFor("a"), 1, 3);
+        QTableCheckpoint.write(file, 1, table, null);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 12);
+        }
+        QTableCheckpoint.read(file, new QTable(4), null);
+    }
+
+    @Test
+    public void testTruncatedCheckpointLeavesStoresUnchanged() throws IOException {
+        QTable table = new QTable(4);
+        table.set(table.rowFor("a"), 1, 3);
+        table.set(table.rowFor("b"), 2, 4);
+        EligibilityTraces traces = new EligibilityTraces(1e-4);
+        traces.accumulate(0, 1, 1);
+        traces.accumulate(1, 2, 0.5);
+        QTableCheckpoint.write(file, 1, table, traces);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 12);
+        }
+
+        QTable loaded = new QTable(4);
+        loaded.set(loaded.rowFor("old"), 3, 7);
+        EligibilityTraces loadedTraces = new EligibilityTraces(1e-4);
+        loadedTraces.accumulate(0, 3, 2);
+        try {
+            QTableCheckpoint.read(file, loaded, loadedTraces);
+            fail("truncated checkpoint was read");
+        } catch (IOException expected) {
+        }
+        assertEquals(1, loaded.size());
+        assertEquals(7, loaded.get("old", 3), 0);
+        assertEquals(1, loadedTraces.size());
+        assertEquals(2, loadedTraces.get(0, 3), 0);
+    }
+}
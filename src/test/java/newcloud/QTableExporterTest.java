@@ -0,0 +1,129 @@
+package newcloud;
+
+import newcloud.policy.QTable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the streaming Q-table exporters.
+ */
+public class QTableExporterTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("qtable", ".out");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    private static QTable randomTable(int states, int actions) {
+        QTable table = new QTable(actions);
+        Random random = new Random(11);
+        for (int i = 0; i < states; i++) {
+            int s = table.rowFor(i / 100 + "_" + i / 10 % 10 + "_" + i % 10);
+            for (int a = 0; a < actions; a++) {
+                table.set(s, a, random.nextGaussian());
+            }
+        }
+        return table;
+    }
+
+    @Test
+    public void testCsvHasOneLinePerStateAndEveryAction() throws IOException {
+        QTable table = new QTable(3);
+        table.set(table.rowFor("1_2_3"), 1, -0.25);
+        table.set(table.rowFor("4_5_6"), 2, 1e-20);
+        StringWriter out = new StringWriter();
+        QTableExporter.writeCsv(table, out);
+        assertEquals("state,a0,a1,a2\n1_2_3,0.0,-0.25,0.0\n4_5_6,0.0,0.0,1.0E-20\n", out.toString());
+    }
+
+    @Test
+    public void testCsvHasNoColumnLimit() throws IOException {
+        QTable table = randomTable(500, 300);
+        QTableExporter.writeCsv(table, file);
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(501, lines.size());
+        String[] cells = lines.get(123).split(",");
+        assertEquals(301, cells.length);
+        assertEquals(table.stateKey(122), cells[0]);
+        assertEquals(table.get(122, 299), Double.parseDouble(cells[300]), 0);
+    }
+
+    @Test
+    public void testColumnarRoundTrip() throws IOException {
+        QTable table = randomTable(250, 300);
+        QTableExporter.writeColumnar(table, file);
+        QTable loaded = QTableExporter.readColumnar(file);
+        assertEquals(table.size(), loaded.size());
+        assertEquals(table.numActions(), loaded.numActions());
+        for (int s = 0; s < table.size(); s++) {
+            assertEquals(table.stateKey(s), loaded.stateKey(s));
+            for (int a = 0; a < table.numActions(); a++) {
+                assertEquals(table.get(s, a), loaded.get(s, a), 0);
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testColumnarRowCountBeyondFileRejected() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(QTableExporter.MAGIC);
+            out.writeInt(QTableExporter.VERSION);
+            out.writeInt(Integer.MAX_VALUE);
+            out.writeInt(300);
+        }
+        QTableExporter.readColumnar(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testColumnarDuplicateStatesRejected() throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(QTableExporter.MAGIC);
+            out.writeInt(QTableExporter.VERSION);
+            out.writeInt(2);
+            out.writeInt(1);
+            out.writeUTF("a");
+            out.writeUTF("a");
+            out.writeDouble(1);
+            out.writeDouble(2);
+        }
+        QTableExporter.readColumnar(file);
+    }
+
+    @Test
+    public void testUpdateLogAppendsLines() throws IOException {
+        file.delete();
+        GenExcel log = new GenExcel(file);
+        QTable table = new QTable(2);
+        table.rowFor("a");
+        table.rowFor("b");
+        log.fillData(table, "b", 1, 0.5);
+        log.genExcel();
+        log.fillData(table, "a", 0, -1.0);
+        log.genExcel();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals("row,state,action,value", lines.get(0));
+        assertEquals("1,b,1,0.5", lines.get(1));
+        assertEquals("0,a,0,-1.0", lines.get(2));
+        assertEquals(3, lines.size());
+    }
+}
@@ -0,0 +1,158 @@
+package newcloud;
+
+import newcloud.policy.QTable;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the dense Q-table store.
+ */
+public class QTableTest {
+
+    @Test
+    public void testNewRowsAreZero() {
+        QTable table = new QTable(5);
+        int s = table.rowFor("a");
+        for (int a = 0; a < 5; a++) {
+            assertEquals(0.0, table.get(s, a), 1e-10);
+        }
+        assertEquals(1, table.size());
+        assertTrue(table.containsState("a"));
+        assertEquals("a", table.stateKey(s));
+    }
+
+    @Test
+    public void testRowForIsStable() {
+        QTable table = new QTable(3);
+        int a = table.rowFor("a");
+        int b = table.rowFor("b");
+        assertNotEquals(a, b);
+        assertEquals(a, table.rowFor("a"));
+        assertEquals(-1, table.stateId("missing"));
+    }
+
+    @Test
+    public void testGrowthPreservesValues() {
+        QTable table = new QTable(4, 1);
+        int first = table.rowFor("s0");
+        table.set(first, 2, 1.5);
+        for (int i = 1; i < 100; i++) {
+            table.set(table.rowFor("s" + i), i % 4, i);
+        }
+        assertEquals(100, table.size());
+        assertEquals(1.5, table.get(first, 2), 1e-10);
+        assertEquals(99.0, table.get("s99", 3), 1e-10);
+    }
+
+    @Test
+    public void testArgmaxPrefersLowestIndexOnTies() {
+        QTable table = new QTable(4);
+        int s = table.rowFor("s");
+        assertEquals(0, table.argmax(s));
+        table.set(s, 1, 2.0);
+        table.set(s, 3, 2.0);
+        assertEquals(1, table.argmax(s));
+        assertEquals(2.0, table.max(s), 1e-10);
+    }
+
+    @Test
+    public void testCachedArgmaxTracksDecreases() {
+        QTable table = new QTable(3);
+        int s = table.rowFor("s");
+        table.set(s, 2, 5.0);
+        assertEquals(2, table.argmax(s));
+        table.add(s, 2, -10.0);
+        assertEquals(0, table.argmax(s));
+        assertEquals(0.0, table.max(s), 1e-10);
+        table.fillRow(s, -1.0);
+        assertEquals(0, table.argmax(s));
+        assertEquals(-1.0, table.max(s), 1e-10);
+    }
+
+    @Test
+    public void testCachedArgmaxMatchesFullScan() {
+        Random random = new Random(42);
+        QTable table = new QTable(7, 1);
+        for (int i = 0; i < 5; i++) {
+            table.rowFor("s" + i);
+        }
+        for (int step = 0; step < 5000; step++) {
+            int s = random.nextInt(5);
+            int a = random.nextInt(7);
+            // Coarse values so that ties happen often
+            double v = random.nextInt(5) - 2;
+            if (random.nextBoolean()) {
+                table.set(s, a, v);
+            } else {
+                table.add(s, a, v);
+            }
+            int expected = 0;
+            for (int i = 1; i < 7; i++) {
+                if (table.get(s, expected) < table.get(s, i)) {
+                    expected = i;
+                }
+            }
+            assertEquals(expected, table.argmax(s));
+            assertEquals(table.get(s, expected), table.max(s), 1e-10);
+        }
+    }
+
+    @Test
+    public void testInitRowResetsValues() {
+        QTable table = new QTable(2);
+        int s = table.rowFor("s");
+        table.set(s, 1, -3.0);
+        assertEquals(s, table.initRow("s"));
+        assertEquals(0.0, table.get(s, 1), 1e-10);
+    }
+
+    @Test
+    public void testClear() {
+        QTable table = new QTable(2);
+        table.set(table.rowFor("s"), 0, 1.0);
+        table.clear();
+        assertEquals(0, table.size());
+        assertFalse(table.containsState("s"));
+        assertEquals(0.0, table.get(table.rowFor("t"), 0), 1e-10);
+    }
+
+    @Test
+    public void testFrozenTableResolvesUnseenStatesToZeroRow() {
+        QTable table = new QTable(4);
+        int code = StateCodec.encode(3, 1, 2);
+        int s = table.rowForCode(code);
+        table.set(s, 2, 5.0);
+        table.set(table.rowFor("other"), 1, -1.0);
+        table.freeze();
+
+        assertTrue(table.isFrozen());
+        assertEquals(s, table.rowForCode(code));
+        assertEquals(s, table.rowFor(StateCodec.decode(code)));
+        assertEquals(2, table.argmax(s));
+
+        int unseen = table.rowForCode(StateCodec.encode(9, 9, 9));
+        assertEquals(unseen, table.rowFor("never"));
+        assertEquals(0, table.argmax(unseen));
+        assertEquals(0.0, table.max(unseen), 0);
+        assertEquals(2, table.size());
+        assertEquals(-1, table.codeId(StateCodec.encode(9, 9, 9)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenTableRejectsWrites() {
+        QTable table = new QTable(2);
+        int s = table.rowFor("s");
+        table.freeze();
+        table.add(s, 0, 1.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFrozenTableRejectsInitRow() {
+        QTable table = new QTable(2);
+        table.freeze();
+        table.initRow("s");
+    }
+}
@@ -0,0 +1,35 @@
+package newcloud;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the seeded generator streams of RandomSource.
+ */
+public class RandomSourceTest {
+
+    @Test
+    public void testSeedsAreReproducible() {
+        assertEquals(RandomSource.seedFor(42, 3), RandomSource.seedFor(42, 3));
+    }
+
+    @Test
+    public void testStreamsAndSeedsDiffer() {
+        Set<Long> seeds = new HashSet<>();
+        for (long seed = 0; seed < 10; seed++) {
+            for (long stream = 0; stream < 100; stream++) {
+                seeds.add(RandomSource.seedFor(seed, stream));
+            }
+        }
+        assertEquals(1000, seeds.size());
+    }
+
+    @Test
+    public void testCreateReturnsNewGenerators() {
+        assertNotSame(RandomSource.create(), RandomSource.create());
+    }
+}
@@ -4,10 +4,6 @@ import newcloud.datacenter.PowerDatacenterRL;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
 import static org.junit.Assert.*;
 
 /**
@@ -32,8 +28,8 @@ public class RewardFunctionTest {
     @Test
     public void testRewardIsNegative() {
         // With some power data, reward should be negative (power is always positive)
-        List<Double> powers = Arrays.asList(100.0, 200.0, 150.0);
-        PowerDatacenterRL.everyhosthistorypower.add(0, powers);
+        double[] powers = {100.0, 200.0, 150.0};
+        PowerDatacenterRL.everyhosthistorypower.push(powers);
 
         double reward = computeTestReward();
         assertTrue("Reward should be negative (or zero)", reward <= 0.0);
@@ -42,8 +38,8 @@ public class RewardFunctionTest {
     @Test
     public void testRewardIsBounded() {
         // Reward should be in [-1, 0]
-        List<Double> powers = Arrays.asList(100.0, 200.0, 300.0);
-        PowerDatacenterRL.everyhosthistorypower.add(0, powers);
+        double[] powers = {100.0, 200.0, 300.0};
+        PowerDatacenterRL.everyhosthistorypower.push(powers);
 
         double reward = computeTestReward();
         assertTrue("Reward should be >= -1", reward >= -1.0);
@@ -55,13 +51,13 @@ public class RewardFunctionTest {
         // Lower total power should give a higher (less negative) reward
 
         // High power scenario
-        List<Double> highPowers = Arrays.asList(300.0, 300.0, 300.0);
-        PowerDatacenterRL.everyhosthistorypower.add(0, highPowers);
+        double[] highPowers = {300.0, 300.0, 300.0};
+        PowerDatacenterRL.everyhosthistorypower.push(highPowers);
         double rewardHigh = computeTestReward();
 
         // Low power scenario (added after, so maxObservedPower stays at 900)
-        List<Double> lowPowers = Arrays.asList(50.0, 50.0, 50.0);
-        PowerDatacenterRL.everyhosthistorypower.add(0, lowPowers);
+        double[] lowPowers = {50.0, 50.0, 50.0};
+        PowerDatacenterRL.everyhosthistorypower.push(lowPowers);
         double rewardLow = computeTestReward();
 
         assertTrue("Lower power should give higher reward",
@@ -99,17 +95,15 @@ public class RewardFunctionTest {
             return 0.0;
         }
 
-        List<Double> currentPowers = PowerDatacenterRL.everyhosthistorypower.get(0);
         double totalCurrentPower = 0.0;
-        for (Double p : currentPowers) {
-            totalCurrentPower += p;
+        for (int h = 0; h < PowerDatacenterRL.everyhosthistorypower.hostCount(0); h++) {
+            totalCurrentPower += PowerDatacenterRL.everyhosthistorypower.get(0, h);
         }
 
         // Track max for normalization (using a local var for test isolation)
         double maxPower = 1.0;
-        for (List<Double> history : PowerDatacenterRL.everyhosthistorypower) {
-            double sum = 0;
-            for (Double p : history) sum += p;
+        for (int age = 0; age < PowerDatacenterRL.everyhosthistorypower.size(); age++) {
+            double sum = PowerDatacenterRL.everyhosthistorypower.total(age);
             if (sum > maxPower) maxPower = sum;
         }
 
@@ -0,0 +1,49 @@
+package newcloud;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for SimLog levels and message formatting.
+ */
+public class SimLogTest {
+
+    @Test
+    public void testDefaultLevelIsWarn() {
+        if (System.getProperty("cloudsim.log.level") == null) {
+            assertEquals(SimLog.Level.WARN, SimLog.LEVEL);
+            assertTrue(SimLog.isEnabled(SimLog.Level.ERROR));
+            assertFalse(SimLog.isEnabled(SimLog.Level.INFO));
+            assertFalse(Constants.ENABLE_OUTPUT);
+        }
+    }
+
+    @Test
+    public void testLevelThresholds() {
+        assertTrue(SimLog.enabled(SimLog.Level.ERROR, SimLog.Level.INFO));
+        assertTrue(SimLog.enabled(SimLog.Level.INFO, SimLog.Level.INFO));
+        assertFalse(SimLog.enabled(SimLog.Level.DEBUG, SimLog.Level.INFO));
+        assertFalse(SimLog.enabled(SimLog.Level.ERROR, SimLog.Level.OFF));
+        assertFalse(SimLog.enabled(SimLog.Level.OFF, SimLog.Level.TRACE));
+    }
+
+    @Test
+    public void testParseIgnoresCase() {
+        assertEquals(SimLog.Level.DEBUG, SimLog.Level.parse(" debug "));
+        assertEquals(SimLog.Level.OFF, SimLog.Level.parse("Off"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseRejectsUnknownLevel() {
+        SimLog.Level.parse("verbose");
+    }
+
+    @Test
+    public void testPlaceholders() {
+        assertEquals("a=1, b=x", SimLog.format("a={}, b={}", new Object[]{1, "x"}));
+        assertEquals("no args {}", SimLog.format("no args {}", new Object[0]));
+        assertEquals("1 and {}", SimLog.format("{} and {}", new Object[]{1}));
+        assertEquals("null extra", SimLog.format("{} extra", new Object[]{null, 2}));
+    }
+}
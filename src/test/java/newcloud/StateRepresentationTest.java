@@ -1,6 +1,7 @@
 package newcloud;
 
 import newcloud.datacenter.PowerDatacenterRL;
+import newcloud.policy.QTable;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -66,4 +67,31 @@ public class StateRepresentationTest {
         assertTrue("With 300 hosts, original state space (10^300) is intractable",
                 numHosts > 10); // Trivially true, but documents the problem
     }
+
+    @Test
+    public void testStateCodeRoundTrip() {
+        int code = StateCodec.encode(3, 7, 2);
+        assertEquals(3, StateCodec.cpuBin(code));
+        assertEquals(7, StateCodec.activeBin(code));
+        assertEquals(2, StateCodec.vmBin(code));
+        assertEquals("3_7_2", PowerDatacenterRL.decodeState(code));
+    }
+
+    @Test
+    public void testStateCodesAreDense() {
+        assertEquals(0, StateCodec.encode(0, 0, 0));
+        assertEquals(StateCodec.STATE_COUNT - 1,
+                StateCodec.encode(StateCodec.BINS - 1, StateCodec.BINS - 1, StateCodec.BINS - 1));
+    }
+
+    @Test
+    public void testStateCodeAndKeyShareQTableRow() {
+        QTable table = new QTable(4);
+        int byCode = table.rowForCode(StateCodec.encode(1, 2, 3));
+        assertEquals(byCode, table.rowFor("1_2_3"));
+
+        int byKey = table.rowFor("4_5_6");
+        assertEquals(byKey, table.rowForCode(StateCodec.encode(4, 5, 6)));
+        assertEquals(2, table.size());
+    }
 }
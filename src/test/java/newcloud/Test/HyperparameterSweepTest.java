@@ -0,0 +1,112 @@
+package newcloud.Test;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the hyperparameter sweep: trial generation, early stopping and
+ * ranking. The forking itself is covered by ParallelRunnerTest.
+ */
+public class HyperparameterSweepTest {
+
+    @Test
+    public void testGridCoversEveryCombination() {
+        HyperparameterSweep sweep = new HyperparameterSweep("Learning", "datas/50");
+        Map<String, double[]> values = new LinkedHashMap<>();
+        values.put("gamma", new double[]{0.5, 0.9});
+        values.put("alpha", new double[]{0.2, 0.5, 0.8});
+        sweep.addGrid(values);
+
+        List<HyperparameterSweep.Trial> trials = sweep.getTrials();
+        assertEquals(6, trials.size());
+        assertEquals(0.5, trials.get(0).getParameters().get("gamma"), 0);
+        assertEquals(0.2, trials.get(0).getParameters().get("alpha"), 0);
+        assertEquals(0.9, trials.get(5).getParameters().get("gamma"), 0);
+        assertEquals(0.8, trials.get(5).getParameters().get("alpha"), 0);
+    }
+
+    @Test
+    public void testRandomTrialsStayInRange() {
+        HyperparameterSweep sweep = new HyperparameterSweep("LearningLamda", "datas/50");
+        Map<String, double[]> ranges = new LinkedHashMap<>();
+        ranges.put("lambda", new double[]{0.3, 0.95});
+        ranges.put("epsilonDecay", new double[]{0.5, 2});
+        sweep.addRandom(ranges, 50, new Random(1));
+
+        assertEquals(50, sweep.getTrials().size());
+        for (HyperparameterSweep.Trial trial : sweep.getTrials()) {
+            double lambda = trial.getParameters().get("lambda");
+            double decay = trial.getParameters().get("epsilonDecay");
+            assertTrue(lambda >= 0.3 && lambda <= 0.95);
+            assertTrue(decay >= 0.5 && decay <= 2);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownParameterRejected() {
+        Map<String, double[]> values = new LinkedHashMap<>();
+        values.put("beta", new double[]{1});
+        new HyperparameterSweep("Learning", "datas/50").addGrid(values);
+    }
+
+    @Test
+    public void testTrailingTrialIsStopped() {
+        HyperparameterSweep sweep = new HyperparameterSweep("Learning", "datas/50");
+        sweep.setMargin(0.1);
+        sweep.setMinIterations(3);
+
+        assertTrue(sweep.keepRunning(Arrays.asList(100.0, 90.0, 80.0, 70.0)));
+        // Too early to judge, however far behind
+        assertTrue(sweep.keepRunning(Arrays.asList(500.0, 400.0)));
+        // Within 10% of the best at the same iteration count
+        assertTrue(sweep.keepRunning(Arrays.asList(100.0, 95.0, 85.0)));
+        // More than 10% behind after three iterations
+        assertFalse(sweep.keepRunning(Arrays.asList(120.0, 110.0, 100.0)));
+        // A trial that takes the lead sets the new best
+        assertTrue(sweep.keepRunning(Arrays.asList(60.0, 50.0, 40.0)));
+        assertFalse(sweep.keepRunning(Arrays.asList(100.0, 90.0, 80.0)));
+    }
+
+    @Test
+    public void testRankingAndCsv() throws Exception {
+        HyperparameterSweep sweep = new HyperparameterSweep("Learning", "datas/50");
+        Map<String, double[]> values = new LinkedHashMap<>();
+        values.put("alpha", new double[]{0.2, 0.5, 0.8});
+        sweep.addGrid(values);
+        List<HyperparameterSweep.Trial> trials = sweep.getTrials();
+        setResult(trials.get(0), Arrays.asList(300.0, 250.0), false);
+        setResult(trials.get(1), Arrays.asList(200.0), true);
+        setResult(trials.get(2), Arrays.asList(400.0, 280.0), false);
+
+        List<HyperparameterSweep.Trial> ranked = HyperparameterSweep.rank(trials);
+        assertSame(trials.get(0), ranked.get(0));
+        assertSame(trials.get(2), ranked.get(1));
+        assertSame(trials.get(1), ranked.get(2));
+
+        File file = File.createTempFile("sweep", ".csv");
+        try {
+            HyperparameterSweep.writeCsv(ranked, file);
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            assertEquals("rank,alpha,iterations,bestPower,finalPower,stopped", lines.get(0));
+            assertEquals("1,0.200000,2,250.000,250.000,false", lines.get(1));
+            assertEquals("3,0.500000,1,200.000,200.000,true", lines.get(3));
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static void setResult(HyperparameterSweep.Trial trial, List<Double> series, boolean stopped) {
+        trial.series = series;
+        trial.stopped = stopped;
+    }
+}
@@ -0,0 +1,132 @@
+package newcloud.Test;
+
+import newcloud.Constants;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the forking experiment runner.
+ */
+public class ParallelRunnerTest {
+
+    @Test
+    public void testSeriesRoundTrip() throws Exception {
+        File file = File.createTempFile("series", ".txt");
+        try {
+            List<Double> series = Arrays.asList(1116002.1677777775, 0.0, 1e-12, 42.5);
+            ParallelRunner.writeSeries(series, file);
+            assertEquals(series, ParallelRunner.readSeries(file));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testProgressIgnoresUnfinishedLine() throws Exception {
+        File file = File.createTempFile("progress", ".txt");
+        try {
+            Files.write(file.toPath(), "1.5\n2.5\n3.".getBytes(StandardCharsets.UTF_8));
+            assertEquals(Arrays.asList(1.5, 2.5), ParallelRunner.readProgress(file));
+            assertTrue(ParallelRunner.readProgress(new File(file.getPath() + ".missing")).isEmpty());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownAlgorithmRejected() {
+        new ParallelRunner(1).add("NoSuchAlgorithm", Constants.inputFolder);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWorkerCountValidated() {
+        new ParallelRunner(0);
+    }
+
+    @Test
+    public void testWorkerCommandForwardsProperties() {
+        String key = "cloudsim.runner.test";
+        System.setProperty(key, "7");
+        try {
+            ParallelRunner runner = new ParallelRunner(1);
+            ParallelRunner.Job job = runner.add("Fair", "datas/50");
+            List<String> command = runner.workerCommand(job, new File("out.txt"));
+            assertTrue(command.contains("-D" + key + "=7"));
+            assertEquals(Arrays.asList(ParallelRunner.class.getName(), "Fair", "datas/50", "out.txt"),
+                    command.subList(command.size() - 4, command.size()));
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    @Test
+    public void testWorkersGetTheirOwnCheckpoint() {
+        String key = "cloudsim.checkpoint";
+        String previous = System.getProperty(key);
+        System.setProperty(key, "qtable.ckpt");
+        try {
+            ParallelRunner runner = new ParallelRunner(2);
+            ParallelRunner.Job learning = runner.add("Learning", "datas/50");
+            ParallelRunner.Job sarsa = runner.add("Sarsa", "datas/50");
+            List<String> first = runner.workerCommand(learning, new File("work", "0-Learning.txt"));
+            List<String> second = runner.workerCommand(sarsa, new File("work", "1-Sarsa.txt"));
+            assertTrue(first.contains("-D" + key + "=qtable-0-Learning.ckpt"));
+            assertTrue(second.contains("-D" + key + "=qtable-1-Sarsa.ckpt"));
+            assertFalse(first.contains("-D" + key + "=qtable.ckpt"));
+        } finally {
+            if (previous == null) {
+                System.clearProperty(key);
+            } else {
+                System.setProperty(key, previous);
+            }
+        }
+    }
+
+    @Test
+    public void testUnwrapReturnsHarnessException() {
+        IllegalStateException cause = new IllegalStateException("harness failed");
+        assertSame(cause, ParallelRunner.unwrap(new InvocationTargetException(cause)));
+    }
+
+    @Test
+    public void testPerJobFileNames() {
+        File output = new File("work", "0-Learning.txt");
+        assertEquals("profile-0-Learning.csv", ParallelRunner.perJobFile("profile.csv", output));
+        assertEquals("profile-0-Learning", ParallelRunner.perJobFile("profile", output));
+        String dotted = "runs.d" + File.separator + "profile";
+        assertEquals(dotted + "-0-Learning", ParallelRunner.perJobFile(dotted, output));
+    }
+
+    @Test
+    public void testForkedWorkersReturnSeries() throws Exception {
+        ParallelRunner runner = new ParallelRunner(2);
+        ParallelRunner.Job first = runner.add("Fair", "src/main/resources/datas/50");
+        ParallelRunner.Job second = runner.add("Fair", "src/main/resources/datas/50");
+        // Keep the workers short and independent of this JVM's default
+        int iterations = 2;
+        first.setProperty("cloudsim.iterations", Integer.toString(iterations));
+        second.setProperty("cloudsim.iterations", Integer.toString(iterations));
+        Map<ParallelRunner.Job, List<Double>> results = runner.run();
+
+        assertEquals(Arrays.asList(first, second), Arrays.asList(results.keySet().toArray()));
+        assertEquals(iterations, results.get(first).size());
+        assertEquals(iterations, results.get(second).size());
+        // Fair placement is deterministic, so both workers agree
+        assertEquals(results.get(first), results.get(second));
+
+        Map<String, Double> stats = first.getStats();
+        assertEquals(iterations, stats.get("iterations").intValue());
+        assertTrue(stats.get("placements") > 0);
+        assertTrue(stats.get("events") > stats.get("placements"));
+        assertTrue(stats.get("peakHeapBytes") > 0);
+    }
+}
@@ -0,0 +1,95 @@
+package newcloud.Test;
+
+import newcloud.datacenter.SimulationCounters;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for SimulationBenchmark reports and the WorkerStats they are built
+ * from. A real benchmark run is covered by ParallelRunnerTest.
+ */
+public class SimulationBenchmarkTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownAlgorithmRejected() {
+        new SimulationBenchmark(Arrays.asList("Fair", "NoSuchAlgorithm"),
+                Collections.singletonList("datas/50"), Collections.singletonList(1L));
+    }
+
+    @Test
+    public void testWorkerStatsCountIterations() throws Exception {
+        WorkerStats stats = new WorkerStats();
+        stats.start();
+        SimulationCounters.iterationStarted();
+        SimulationCounters.vmPlaced();
+        SimulationCounters.eventProcessed();
+        SimulationCounters.iterationStarted();
+        Map<String, Double> measured = stats.finish();
+
+        assertEquals(Arrays.asList(WorkerStats.KEYS), Arrays.asList(measured.keySet().toArray()));
+        assertEquals(2.0, measured.get("iterations"), 0);
+        assertEquals(1.0, measured.get("placements"), 0);
+        assertEquals(1.0, measured.get("events"), 0);
+        assertTrue(measured.get("maxIterationMillis") >= measured.get("medianIterationMillis"));
+        assertTrue(measured.get("wallMillis") >= 0);
+    }
+
+    @Test
+    public void testWorkerStatsRoundTrip() throws Exception {
+        File file = File.createTempFile("stats", ".txt");
+        try {
+            Map<String, Double> stats = new LinkedHashMap<>();
+            stats.put("iterations", 3.0);
+            stats.put("eventsPerSecond", 1234.5678);
+            WorkerStats.write(stats, file);
+            assertEquals(stats, WorkerStats.read(file));
+            assertTrue(WorkerStats.read(new File(file.getPath() + ".missing")).isEmpty());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testCsvAndJsonReports() throws Exception {
+        Map<String, Double> stats = new LinkedHashMap<>();
+        stats.put("iterations", 2.0);
+        stats.put("wallMillis", 10.25);
+        List<SimulationBenchmark.Result> results = Arrays.asList(
+                new SimulationBenchmark.Result("Fair", "datas/50", 7, stats, 1116002.1667),
+                new SimulationBenchmark.Result("Random", "datas/50", 7,
+                        new LinkedHashMap<String, Double>(), Double.NaN));
+        File csv = File.createTempFile("bench", ".csv");
+        File json = File.createTempFile("bench", ".json");
+        try {
+            SimulationBenchmark.writeCsv(results, csv);
+            List<String> lines = Files.readAllLines(csv.toPath(), StandardCharsets.UTF_8);
+            assertEquals(3, lines.size());
+            String[] header = lines.get(0).split(",", -1);
+            assertEquals(3 + WorkerStats.KEYS.length + 1, header.length);
+            assertEquals("finalPower", header[header.length - 1]);
+            assertTrue(lines.get(1).startsWith("Fair,datas/50,7,2,10.250,"));
+            assertTrue(lines.get(1).endsWith(",1116002.167"));
+            assertEquals(header.length, lines.get(2).split(",", -1).length);
+
+            SimulationBenchmark.writeJson(results, json);
+            String text = new String(Files.readAllBytes(json.toPath()), StandardCharsets.UTF_8);
+            assertTrue(text.contains("\"algorithm\": \"Fair\""));
+            assertTrue(text.contains("\"wallMillis\": 10.250"));
+            assertTrue(text.contains("\"finalPower\": null"));
+            assertFalse(text.contains("NaN"));
+        } finally {
+            csv.delete();
+            json.delete();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package newcloud;
 
 import newcloud.policy.*;
+import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Map;
@@ -12,6 +13,13 @@ import static org.junit.Assert.*;
  */
 public class VmAllocationPolicyTest {
 
+    @Before
+    public void setUp() {
+        // The trace stores are static and outlive each test
+        VmAllocationAssignerLearningLamda.EList.clear();
+        VmAllocationAssignerSarsa_lamda.EList.clear();
+    }
+
     @Test
     public void testQLearningInitializesQTable() {
         GenExcel excel = GenExcel.getInstance();
@@ -24,7 +32,7 @@ public class VmAllocationPolicyTest {
         assertTrue("Action should be a valid host ID",
                 action >= 0 && action < Constants.NUMBER_OF_HOSTS);
         assertTrue("Q-table should contain the test state",
-                VmAllocationAssignerLearning.QList.containsKey(testState));
+                VmAllocationAssignerLearning.QList.containsState(testState));
     }
 
     @Test
@@ -40,13 +48,13 @@ public class VmAllocationPolicyTest {
         assigner.initRowOfQList(state);
 
         // Initial Q-value should be 0
-        assertEquals(0.0, VmAllocationAssignerLearning.QList.get(state).get(0), 1e-10);
+        assertEquals(0.0, VmAllocationAssignerLearning.QList.get(state, 0), 1e-10);
 
         // Update with a negative reward (typical for power minimization)
         assigner.updateQList(0, -0.5, state, state);
 
         // Q-value should have changed from 0
-        double updatedQ = VmAllocationAssignerLearning.QList.get(state).get(0);
+        double updatedQ = VmAllocationAssignerLearning.QList.get(state, 0);
         assertNotEquals("Q-value should change after update", 0.0, updatedQ, 1e-10);
     }
 
@@ -65,8 +73,8 @@ public class VmAllocationPolicyTest {
         qlearning.initRowOfQList(state);
 
         // Both should start with zero values
-        assertEquals(0.0, VmAllocationAssignerSarsa.QList.get(state).get(0), 1e-10);
-        assertEquals(0.0, VmAllocationAssignerLearning.QList.get(state).get(0), 1e-10);
+        assertEquals(0.0, VmAllocationAssignerSarsa.QList.get(state, 0), 1e-10);
+        assertEquals(0.0, VmAllocationAssignerLearning.QList.get(state, 0), 1e-10);
     }
 
     @Test
@@ -81,13 +89,14 @@ public class VmAllocationPolicyTest {
         String state = "trace_test";
         assigner.initRowOfQList(state);
 
-        // Both Q and E tables should be initialized
-        assertTrue(VmAllocationAssignerLearningLamda.QList.containsKey(state));
-        assertTrue(VmAllocationAssignerLearningLamda.EList.containsKey(state));
+        // The Q-table row should exist and no traces should be active yet
+        assertTrue(VmAllocationAssignerLearningLamda.QList.containsState(state));
+        assertEquals(0, VmAllocationAssignerLearningLamda.EList.size());
 
         // All E-values should start at 0
+        int row = VmAllocationAssignerLearningLamda.QList.stateId(state);
         for (int i = 0; i < Constants.NUMBER_OF_HOSTS; i++) {
-            assertEquals(0.0, VmAllocationAssignerLearningLamda.EList.get(state).get(i), 1e-10);
+            assertEquals(0.0, VmAllocationAssignerLearningLamda.EList.get(row, i), 1e-10);
         }
     }
 